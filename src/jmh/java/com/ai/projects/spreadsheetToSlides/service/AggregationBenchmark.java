@@ -0,0 +1,64 @@
+package com.ai.projects.spreadsheetToSlides.service;
+
+import com.ai.projects.spreadsheetToSlides.model.CellKind;
+import com.ai.projects.spreadsheetToSlides.model.ColumnData;
+import com.ai.projects.spreadsheetToSlides.model.SheetData;
+import com.ai.projects.spreadsheetToSlides.service.aggregate.GroupByAggregator;
+import com.ai.projects.spreadsheetToSlides.service.aggregate.GroupKey;
+import com.ai.projects.spreadsheetToSlides.service.aggregate.GroupedTable;
+import com.ai.projects.spreadsheetToSlides.service.aggregate.TimeBucket;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group-by over an already built transactional sheet: region, order date and amount per row,
+ * with few or many distinct regions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AggregationBenchmark {
+
+    @Param({"1000000", "5000000"})
+    private int rows;
+
+    @Param({"50", "100000"})
+    private int regions;
+
+    private SheetData sheet;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sheet = new SheetData("Orders", Arrays.asList("Region", "Order date", "Amount"), false);
+        List<ColumnData> columns = sheet.getColumns();
+        Random random = new Random(42);
+        for (int row = 0; row < rows; row++) {
+            columns.get(0).appendText(CellKind.STRING, "Region " + random.nextInt(regions));
+            // Three years of orders, in date order like an export
+            columns.get(1).appendNumber(CellKind.DATE, 44927 + (double) row * 1095 / rows);
+            columns.get(2).appendNumber(CellKind.NUMERIC, random.nextInt(10_000) / 100.0);
+            sheet.completeRow();
+        }
+    }
+
+    // What every chart slide uses: amount summed per region
+    @Benchmark
+    public GroupedTable chartSeries() {
+        return GroupByAggregator.chartSeries(sheet);
+    }
+
+    @Benchmark
+    public GroupedTable byRegionAndMonth() {
+        List<ColumnData> columns = sheet.getColumns();
+        return GroupByAggregator.aggregate(
+                List.of(GroupKey.text(columns.get(0)), GroupKey.time(columns.get(1), TimeBucket.MONTH, false)),
+                columns.get(2), sheet.getRowCount());
+    }
+}
@@ -0,0 +1,222 @@
+package com.ai.projects.spreadsheetToSlides.service;
+
+import com.ai.projects.spreadsheetToSlides.service.generation.MapReduceGenerator;
+import com.ai.projects.spreadsheetToSlides.service.incremental.IncrementalConverter;
+import com.ai.projects.spreadsheetToSlides.service.incremental.WorkbookFingerprinter;
+import com.ai.projects.spreadsheetToSlides.service.llm.LlmCircuitBreaker;
+import com.ai.projects.spreadsheetToSlides.service.llm.LlmClient;
+import com.ai.projects.spreadsheetToSlides.service.llm.LlmResponseCache;
+import com.ai.projects.spreadsheetToSlides.service.llm.LlmScheduler;
+import com.ai.projects.spreadsheetToSlides.service.llm.StubLlmClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.ai.projects.spreadsheetToSlides.service.metrics.ConversionMetrics;
+import com.ai.projects.spreadsheetToSlides.service.parser.ParsedWorkbookCache;
+import com.ai.projects.spreadsheetToSlides.service.pipeline.ConversionPipeline;
+import com.ai.projects.spreadsheetToSlides.service.pipeline.FullDataPipeline;
+import com.ai.projects.spreadsheetToSlides.service.pipeline.HeadersOnlyPipeline;
+import com.ai.projects.spreadsheetToSlides.service.pipeline.StageExecutors;
+import com.ai.projects.spreadsheetToSlides.service.parser.SpreadsheetReader;
+import com.ai.projects.spreadsheetToSlides.service.slides.ChartRenderer;
+import com.ai.projects.spreadsheetToSlides.service.slides.ParallelSlideRenderer;
+import com.ai.projects.spreadsheetToSlides.service.slides.SlideOutlineFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * Synthetic workbooks, canned LLM output and hand-wired services shared by the benchmarks.
+ * Everything is seeded so runs are comparable across commits.
+ */
+final class BenchmarkFixtures {
+
+    static final String AUDIENCE = "Project Managers";
+
+    private static final String[] REGIONS = {"North", "South", "East", "West", "Central", "Overseas"};
+    private static final String[] WORDS = {"alpha", "bravo", "charlie", "delta", "echo", "foxtrot",
+            "golf", "hotel", "india", "juliet", "kilo", "lima", "mike", "november", "oscar", "papa"};
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Writes an .xlsx with a text category column followed by either numeric or free-text columns.
+     * Shared strings are used like Excel does, so the parsers see realistic string tables.
+     */
+    static Path writeWorkbook(int sheets, int rows, int columns, boolean stringHeavy) throws IOException {
+        Path file = Files.createTempFile("benchmark-", ".xlsx");
+        Random random = new Random(42);
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(null, 100, false, true);
+             OutputStream out = Files.newOutputStream(file)) {
+            for (int s = 0; s < sheets; s++) {
+                Sheet sheet = workbook.createSheet("Sheet" + (s + 1));
+                Row header = sheet.createRow(0);
+                header.createCell(0).setCellValue("Region");
+                for (int c = 1; c < columns; c++) {
+                    header.createCell(c).setCellValue((stringHeavy ? "Note " : "Metric ") + c);
+                }
+                for (int r = 1; r <= rows; r++) {
+                    Row row = sheet.createRow(r);
+                    row.createCell(0).setCellValue(REGIONS[random.nextInt(REGIONS.length)]);
+                    for (int c = 1; c < columns; c++) {
+                        if (stringHeavy) {
+                            row.createCell(c).setCellValue(WORDS[random.nextInt(WORDS.length)] + " "
+                                    + WORDS[random.nextInt(WORDS.length)] + " " + random.nextInt(rows));
+                        } else {
+                            row.createCell(c).setCellValue(Math.round(random.nextGaussian() * 10000) / 100.0);
+                        }
+                    }
+                }
+            }
+            workbook.write(out);
+            workbook.dispose();
+        }
+        return file;
+    }
+
+    // Same shape as one sheet of writeWorkbook, as a CSV export
+    static Path writeCsv(int rows, int columns, boolean stringHeavy) throws IOException {
+        Path file = Files.createTempFile("benchmark-", ".csv");
+        Random random = new Random(42);
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("Region");
+            for (int c = 1; c < columns; c++) {
+                out.write("," + (stringHeavy ? "Note " : "Metric ") + c);
+            }
+            out.write("\r\n");
+            for (int r = 1; r <= rows; r++) {
+                out.write(REGIONS[random.nextInt(REGIONS.length)]);
+                for (int c = 1; c < columns; c++) {
+                    out.write(',');
+                    if (stringHeavy) {
+                        out.write("\"" + WORDS[random.nextInt(WORDS.length)] + ", "
+                                + WORDS[random.nextInt(WORDS.length)] + " " + random.nextInt(rows) + "\"");
+                    } else {
+                        out.write(Double.toString(Math.round(random.nextGaussian() * 10000) / 100.0));
+                    }
+                }
+                out.write("\r\n");
+            }
+        }
+        return file;
+    }
+
+    // Closing the upload deletes the workbook file
+    static SpooledUpload upload(Path file) throws IOException {
+        return new SpooledUpload(file.getFileName().toString(), file, Files.size(file));
+    }
+
+    static String cannedResponse(int slides) {
+        return StubLlmClient.cannedResponse(slides);
+    }
+
+    static String cannedJsonResponse(int slides) {
+        return StubLlmClient.cannedJsonResponse(slides);
+    }
+
+    // "text" or "json"
+    static SlideOutlineFormat outlineFormat(String format) {
+        return new SlideOutlineFormat(new ObjectMapper(), format);
+    }
+
+    // Answers instantly and never fails, so only local work is measured
+    static LlmClient llmClient(int slides) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LlmCircuitBreaker circuitBreaker = new LlmCircuitBreaker(0.5, 20, Duration.ofSeconds(30), meterRegistry);
+        return new StubLlmClient(circuitBreaker, new LlmScheduler(16, 0, Integer.MAX_VALUE, Integer.MAX_VALUE, "", meterRegistry), "stub", 1000, Duration.ZERO, Duration.ZERO, 0, slides, 16);
+    }
+
+    static SpreadsheetReader reader(String mode) {
+        SpreadsheetReader reader = new SpreadsheetReader();
+        ReflectionTestUtils.setField(reader, "parserMode", mode);
+        return reader;
+    }
+
+    static LlmResponseCache cache() {
+        return new LlmResponseCache(true, 1000, Duration.ofDays(1), false, "", DataSize.ofMegabytes(256), new SimpleMeterRegistry());
+    }
+
+    // Every conversion goes through the LLM client instead of being answered from the cache
+    static LlmResponseCache noCache() {
+        return new LlmResponseCache(false, 0, Duration.ZERO, false, "", DataSize.ofMegabytes(256), new SimpleMeterRegistry());
+    }
+
+    static ConversionService conversionService(SpreadsheetReader reader, LlmClient llmClient, LlmResponseCache cache) {
+        return conversionService(reader, llmClient, cache, slideRenderer(0));
+    }
+
+    static ConversionService conversionService(SpreadsheetReader reader, LlmClient llmClient, LlmResponseCache cache,
+                                               ParallelSlideRenderer slideRenderer) {
+        return conversionService(reader, llmClient, cache, slideRenderer, parseCache(false));
+    }
+
+    static ConversionService conversionService(SpreadsheetReader reader, LlmClient llmClient, LlmResponseCache cache,
+                                               ParallelSlideRenderer slideRenderer, ParsedWorkbookCache parseCache) {
+        return new ConversionService(pipeline(llmClient, cache, slideRenderer), new HeadersOnlyPipeline(reader, parseCache),
+                spooler(), llmClient, ConversionMetrics.disabled(), singlePrompt(), incrementalConverter());
+    }
+
+    static ConversionServiceUpdated conversionServiceUpdated(SpreadsheetReader reader, LlmClient llmClient, LlmResponseCache cache) {
+        return conversionServiceUpdated(reader, llmClient, cache, slideRenderer(0));
+    }
+
+    static ConversionServiceUpdated conversionServiceUpdated(SpreadsheetReader reader, LlmClient llmClient, LlmResponseCache cache,
+                                                             ParallelSlideRenderer slideRenderer) {
+        FullDataPipeline fullData = new FullDataPipeline(reader, parseCache(false), promptBuilder(), chartRenderer(), 5, 20);
+        return new ConversionServiceUpdated(pipeline(llmClient, cache, slideRenderer), fullData, spooler(), llmClient,
+                ConversionMetrics.disabled(), singlePrompt(), incrementalConverter());
+    }
+
+    // Stage pools sized by core count, as in the default configuration
+    static ConversionPipeline pipeline(LlmClient llmClient, LlmResponseCache cache, ParallelSlideRenderer slideRenderer) {
+        StageExecutors executors = new StageExecutors("", "", Duration.ofSeconds(30), new SimpleMeterRegistry());
+        return new ConversionPipeline(spooler(), llmClient, cache, singlePrompt(), slideRenderer, executors,
+                outlineFormat("text"), true);
+    }
+
+    // Off unless a benchmark measures repeat uploads, so every invocation really parses
+    static ParsedWorkbookCache parseCache(boolean enabled) {
+        return new ParsedWorkbookCache(enabled, DataSize.ofMegabytes(256));
+    }
+
+    // 0 threads means one per core
+    static ParallelSlideRenderer slideRenderer(int threads) {
+        return new ParallelSlideRenderer(threads, 4);
+    }
+
+    static ChartRenderer chartRenderer() {
+        return new ChartRenderer(12, 200);
+    }
+
+    // Only used when a conversion passes a document key
+    static IncrementalConverter incrementalConverter() {
+        return new IncrementalConverter(new WorkbookFingerprinter(reader("streaming")), singlePrompt(),
+                new StageExecutors("", "", Duration.ofSeconds(30), new SimpleMeterRegistry()), true, 200, DataSize.ofMegabytes(256));
+    }
+
+    static PromptBuilder promptBuilder() {
+        PromptBuilder promptBuilder = new PromptBuilder();
+        ReflectionTestUtils.setField(promptBuilder, "tokenBudget", 2000);
+        return promptBuilder;
+    }
+
+    // Map-reduce off, so the end-to-end run sends exactly one prompt
+    private static MapReduceGenerator singlePrompt() {
+        return new MapReduceGenerator(false, 4, 2, 4, "deterministic");
+    }
+
+    private static UploadSpooler spooler() {
+        return new UploadSpooler(DataSize.ofMegabytes(1), DataSize.ofMegabytes(200), System.getProperty("java.io.tmpdir"));
+    }
+}
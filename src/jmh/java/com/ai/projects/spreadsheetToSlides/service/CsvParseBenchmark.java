@@ -0,0 +1,57 @@
+package com.ai.projects.spreadsheetToSlides.service;
+
+import com.ai.projects.spreadsheetToSlides.model.WorkbookData;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ParseBenchmark flows over a CSV export of one sheet. Run with a small -Xmx to check the reader
+ * holds no more than its buffers whatever the row count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CsvParseBenchmark {
+
+    @Param({"20000", "200000"})
+    private int rows;
+
+    @Param({"10", "40"})
+    private int columns;
+
+    @Param({"numeric", "strings"})
+    private String data;
+
+    private SpooledUpload upload;
+    private ConversionService conversionService;
+    private ConversionServiceUpdated conversionServiceUpdated;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path file = BenchmarkFixtures.writeCsv(rows, columns, "strings".equals(data));
+        upload = BenchmarkFixtures.upload(file);
+        conversionService = BenchmarkFixtures.conversionService(BenchmarkFixtures.reader("streaming"), BenchmarkFixtures.llmClient(8), BenchmarkFixtures.cache());
+        conversionServiceUpdated = BenchmarkFixtures.conversionServiceUpdated(BenchmarkFixtures.reader("streaming"), BenchmarkFixtures.llmClient(8), BenchmarkFixtures.cache());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        upload.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> parseSpreadsheetMetadata() throws Exception {
+        return conversionService.parseSpreadsheetMetadata(upload);
+    }
+
+    @Benchmark
+    public WorkbookData processSheets() throws Exception {
+        return conversionServiceUpdated.parseSpreadsheetData(upload);
+    }
+}
@@ -0,0 +1,52 @@
+package com.ai.projects.spreadsheetToSlides.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upload to .pptx bytes through ConversionService with the in-process stub LLM client answering
+ * instantly, so no network call is made and the response cache is bypassed. With the parse cache on,
+ * every invocation after the first is a repeat upload of the same workbook.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EndToEndBenchmark {
+
+    @Param({"1000", "20000"})
+    private int rows;
+
+    @Param({"numeric", "strings"})
+    private String data;
+
+    @Param({"streaming", "dom"})
+    private String mode;
+
+    @Param({"off", "on"})
+    private String parseCache;
+
+    private SpooledUpload upload;
+    private ConversionService conversionService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        upload = BenchmarkFixtures.upload(BenchmarkFixtures.writeWorkbook(3, rows, 20, "strings".equals(data)));
+        conversionService = BenchmarkFixtures.conversionService(BenchmarkFixtures.reader(mode),
+                BenchmarkFixtures.llmClient(8), BenchmarkFixtures.noCache(), BenchmarkFixtures.slideRenderer(0),
+                BenchmarkFixtures.parseCache("on".equals(parseCache)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        upload.close();
+    }
+
+    @Benchmark
+    public byte[] convertToPpt() throws Exception {
+        return conversionService.convertToPpt(upload, BenchmarkFixtures.AUDIENCE, stage -> { });
+    }
+}
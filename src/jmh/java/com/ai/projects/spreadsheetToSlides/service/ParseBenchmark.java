@@ -0,0 +1,64 @@
+package com.ai.projects.spreadsheetToSlides.service;
+
+import com.ai.projects.spreadsheetToSlides.model.WorkbookData;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Header-only metadata parse used by the audience flow, and the full single-pass build and
+ * profile used by the chart flow, across workbook shapes and both reader modes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ParseBenchmark {
+
+    @Param({"1", "5"})
+    private int sheets;
+
+    @Param({"1000", "20000"})
+    private int rows;
+
+    @Param({"10", "40"})
+    private int columns;
+
+    @Param({"numeric", "strings"})
+    private String data;
+
+    @Param({"streaming", "dom"})
+    private String mode;
+
+    private SpooledUpload upload;
+    private ConversionService conversionService;
+    private ConversionServiceUpdated conversionServiceUpdated;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path file = BenchmarkFixtures.writeWorkbook(sheets, rows, columns, "strings".equals(data));
+        upload = BenchmarkFixtures.upload(file);
+        conversionService = BenchmarkFixtures.conversionService(BenchmarkFixtures.reader(mode), BenchmarkFixtures.llmClient(8), BenchmarkFixtures.cache());
+        conversionServiceUpdated = BenchmarkFixtures.conversionServiceUpdated(BenchmarkFixtures.reader(mode), BenchmarkFixtures.llmClient(8), BenchmarkFixtures.cache());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        upload.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> parseSpreadsheetMetadata() throws Exception {
+        return conversionService.parseSpreadsheetMetadata(upload);
+    }
+
+    // Successor of processSheet: column build and profiling over every row
+    @Benchmark
+    public WorkbookData processSheets() throws Exception {
+        return conversionServiceUpdated.parseSpreadsheetData(upload);
+    }
+}
@@ -0,0 +1,59 @@
+package com.ai.projects.spreadsheetToSlides.service;
+
+import com.ai.projects.spreadsheetToSlides.model.SheetProfile;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prompt construction on already parsed input: the header prompt of the audience flow and the
+ * budgeted profile prompt of the chart flow.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PromptBenchmark {
+
+    @Param({"1", "5"})
+    private int sheets;
+
+    @Param({"10", "40"})
+    private int columns;
+
+    @Param({"numeric", "strings"})
+    private String data;
+
+    private ConversionService conversionService;
+    private PromptBuilder promptBuilder;
+    private Map<String, Object> metadata;
+    private List<SheetProfile> profiles;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        promptBuilder = BenchmarkFixtures.promptBuilder();
+        conversionService = BenchmarkFixtures.conversionService(BenchmarkFixtures.reader("streaming"), BenchmarkFixtures.llmClient(8), BenchmarkFixtures.cache());
+        ConversionServiceUpdated conversionServiceUpdated =
+                BenchmarkFixtures.conversionServiceUpdated(BenchmarkFixtures.reader("streaming"), BenchmarkFixtures.llmClient(8), BenchmarkFixtures.cache());
+
+        try (SpooledUpload upload = BenchmarkFixtures.upload(
+                BenchmarkFixtures.writeWorkbook(sheets, 1000, columns, "strings".equals(data)))) {
+            metadata = conversionService.parseSpreadsheetMetadata(upload);
+            profiles = conversionServiceUpdated.parseSpreadsheetData(upload).getProfiles();
+        }
+    }
+
+    @Benchmark
+    public String buildPrompt() {
+        return conversionService.buildPrompt(metadata, BenchmarkFixtures.AUDIENCE);
+    }
+
+    @Benchmark
+    public String buildDataPrompt() {
+        return promptBuilder.buildDataPrompt("Create slides with charts for the management team.", profiles);
+    }
+}
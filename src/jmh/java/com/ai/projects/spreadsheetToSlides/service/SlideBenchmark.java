@@ -0,0 +1,113 @@
+package com.ai.projects.spreadsheetToSlides.service;
+
+import com.ai.projects.spreadsheetToSlides.model.SlideData;
+import com.ai.projects.spreadsheetToSlides.service.metrics.ConversionRecorder;
+import com.ai.projects.spreadsheetToSlides.service.slides.ChartRenderer;
+import com.ai.projects.spreadsheetToSlides.service.slides.IncrementalSlideParser;
+import com.ai.projects.spreadsheetToSlides.service.slides.ParallelSlideRenderer;
+import com.ai.projects.spreadsheetToSlides.service.slides.SlideOutlineFormat;
+import com.ai.projects.spreadsheetToSlides.service.slides.SlideText;
+import org.apache.poi.xslf.usermodel.XMLSlideShow;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing canned LLM output into slides, as free text and as JSON, and rendering those slides into a deck, with and
+ * without serialising the .pptx.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SlideBenchmark {
+
+    @Param({"5", "50"})
+    private int slides;
+
+    // Slide rendering threads, 0 = one per core
+    @Param({"1", "0"})
+    private int renderThreads;
+
+    // Rows behind each chart, before downsampling
+    @Param({"10", "10000"})
+    private int categories;
+
+    @Param({"bar", "line"})
+    private String chartType;
+
+    private ParallelSlideRenderer slideRenderer;
+    private ConversionService conversionService;
+    private ChartRenderer chartRenderer;
+    private String response;
+    private String jsonResponse;
+    private SlideOutlineFormat jsonFormat;
+    private List<SlideData> parsedSlides;
+    private List<String> chartCategories;
+    private double[] chartValues;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        slideRenderer = BenchmarkFixtures.slideRenderer(renderThreads);
+        conversionService = BenchmarkFixtures.conversionService(BenchmarkFixtures.reader("streaming"),
+                BenchmarkFixtures.llmClient(8), BenchmarkFixtures.cache(), slideRenderer);
+        chartRenderer = BenchmarkFixtures.chartRenderer();
+        response = BenchmarkFixtures.cannedResponse(slides);
+        jsonResponse = BenchmarkFixtures.cannedJsonResponse(slides);
+        jsonFormat = BenchmarkFixtures.outlineFormat("json");
+        parsedSlides = IncrementalSlideParser.parse(response);
+
+        chartCategories = new ArrayList<>();
+        chartValues = new double[categories];
+        Random random = new Random(42);
+        for (int i = 0; i < categories; i++) {
+            chartCategories.add("Category " + i);
+            chartValues[i] = Math.round(random.nextGaussian() * 10000) / 100.0;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        slideRenderer.shutdown();
+    }
+
+    @Benchmark
+    public List<SlideData> parseSlides() {
+        return IncrementalSlideParser.parse(response);
+    }
+
+    // The same slides through the streaming JSON parser
+    @Benchmark
+    public List<SlideData> parseJsonSlides() {
+        return jsonFormat.parse(jsonResponse);
+    }
+
+    // createTitle + createTextContent for every slide
+    @Benchmark
+    public XMLSlideShow renderTextSlides() {
+        return conversionService.renderSlides(parsedSlides);
+    }
+
+    // Title plus a native chart per slide, cut down to the chart point budget
+    @Benchmark
+    public XMLSlideShow renderChartSlides() {
+        return slideRenderer.render(parsedSlides,
+                (slide, slideData) -> SlideText.createTitle(slide, slideData.getTitle()),
+                (slide, slideData) -> chartRenderer.render(slide, chartType, slideData.getTitle(), chartCategories, chartValues));
+    }
+
+    @Benchmark
+    public byte[] renderAndWrite() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ConversionRecorder recorder = conversionService.startConversion()) {
+            conversionService.writePresentation(conversionService.renderSlides(parsedSlides), out, recorder);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,52 @@
+package com.ai.projects.spreadsheetToSlides.configuration;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+@Configuration
+public class LlmClientConfig {
+
+    // Dedicated pool so slow LLM calls cannot starve other WebClient users, and vice versa
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider llmConnectionProvider(@Value("${llm.pool.max-connections:50}") int maxConnections,
+                                                    @Value("${llm.pool.pending-acquire-max:500}") int pendingAcquireMax,
+                                                    @Value("${llm.pool.pending-acquire-timeout:10s}") Duration pendingAcquireTimeout,
+                                                    @Value("${llm.pool.max-idle-time:30s}") Duration maxIdleTime,
+                                                    @Value("${llm.pool.max-life-time:5m}") Duration maxLifeTime) {
+        return ConnectionProvider.builder("llm")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(Duration.ofSeconds(30))
+                .build();
+    }
+
+    // The read timeout is the longest gap between two reads, so it also bounds stalls in a streamed completion
+    @Bean
+    public WebClient llmWebClient(ConnectionProvider llmConnectionProvider,
+                                  @Value("${llm.base-url:https://api.openai.com}") String baseUrl,
+                                  @Value("${llm.api-key:${openai.api.key}}") String apiKey,
+                                  @Value("${llm.timeout.connect:5s}") Duration connectTimeout,
+                                  @Value("${llm.timeout.read:30s}") Duration readTimeout) {
+        HttpClient httpClient = HttpClient.create(llmConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout)
+                .compress(true);
+        return WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+                .build();
+    }
+}
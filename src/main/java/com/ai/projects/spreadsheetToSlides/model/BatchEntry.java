@@ -0,0 +1,42 @@
+package com.ai.projects.spreadsheetToSlides.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.nio.file.Path;
+
+// One workbook of a batch conversion, as listed in the manifest of the returned zip
+public class BatchEntry {
+    private final String file;
+    private final String deck;
+    private volatile JobStatus status = JobStatus.QUEUED;
+    private volatile int slides;
+    private volatile long durationMillis;
+    private volatile String error;
+    private volatile Path resultFile;
+
+    public BatchEntry(String file, String deck) {
+        this.file = file;
+        this.deck = deck;
+    }
+
+    public String getFile() { return file; }
+
+    // Name of the .pptx entry in the zip
+    public String getDeck() { return deck; }
+
+    public JobStatus getStatus() { return status; }
+    public void setStatus(JobStatus status) { this.status = status; }
+
+    public int getSlides() { return slides; }
+    public void setSlides(int slides) { this.slides = slides; }
+
+    public long getDurationMillis() { return durationMillis; }
+    public void setDurationMillis(long durationMillis) { this.durationMillis = durationMillis; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    @JsonIgnore
+    public Path getResultFile() { return resultFile; }
+    public void setResultFile(Path resultFile) { this.resultFile = resultFile; }
+}
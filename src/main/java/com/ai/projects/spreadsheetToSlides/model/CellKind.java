@@ -0,0 +1,16 @@
+package com.ai.projects.spreadsheetToSlides.model;
+
+// Per-cell tag stored as a byte in ColumnData; decides which vector holds the value
+public enum CellKind {
+    MISSING, BLANK, NUMERIC, DATE, BOOLEAN, FORMULA_NUMERIC, STRING, FORMULA_TEXT, ERROR;
+
+    private static final CellKind[] VALUES = values();
+
+    public static CellKind of(byte code) { return VALUES[code]; }
+
+    public byte code() { return (byte) ordinal(); }
+
+    public boolean isNumber() { return this == NUMERIC || this == DATE || this == BOOLEAN || this == FORMULA_NUMERIC; }
+
+    public boolean isText() { return this == STRING || this == FORMULA_TEXT || this == ERROR; }
+}
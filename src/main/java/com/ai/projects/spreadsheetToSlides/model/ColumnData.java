@@ -0,0 +1,122 @@
+package com.ai.projects.spreadsheetToSlides.model;
+
+import java.util.Arrays;
+
+/**
+ * One spreadsheet column stored as primitive vectors: a kind tag per row, a growable
+ * {@code double[]} with a null bitmap for numbers, and dictionary ids for text.
+ * The value vectors are only allocated once the column receives a value of that kind.
+ */
+public class ColumnData {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final String header;
+    private ColumnType type = ColumnType.UNKNOWN;
+    private int size;
+    private int numericCount;
+    private int dateCount;
+
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private double[] numbers;
+    private long[] numericMask;
+    private int[] textIds;
+    private StringDictionary dictionary;
+
+    public ColumnData(String header) {
+        this.header = header;
+    }
+
+    public String getHeader() { return header; }
+
+    public ColumnType getType() { return type; }
+
+    public int size() { return size; }
+
+    // Number of plain (non-date) numeric cells, i.e. the length of getNumericValues()
+    public int getNumericCount() { return numericCount; }
+
+    public int getDateCount() { return dateCount; }
+
+    public CellKind getKind(int row) { return CellKind.of(kinds[row]); }
+
+    public double getNumber(int row) { return numbers[row]; }
+
+    public boolean isNumeric(int row) {
+        return numericMask != null && (numericMask[row >>> 6] & (1L << row)) != 0;
+    }
+
+    public int getTextId(int row) { return textIds[row]; }
+
+    public String getText(int row) { return dictionary.decode(textIds[row]); }
+
+    public StringDictionary getDictionary() { return dictionary; }
+
+    // Heap held by the vectors, including their unused capacity
+    public long getEstimatedBytes() {
+        long bytes = kinds.length;
+        if (numbers != null) bytes += numbers.length * 8L + numericMask.length * 8L;
+        if (textIds != null) bytes += textIds.length * 4L + dictionary.getEstimatedBytes();
+        return bytes;
+    }
+
+    public double[] getNumericValues() {
+        double[] values = new double[numericCount];
+        int n = 0;
+        for (int row = 0; row < size && n < numericCount; row++) {
+            if (isNumeric(row)) {
+                values[n++] = numbers[row];
+            }
+        }
+        return values;
+    }
+
+    public void appendMissing() {
+        append(CellKind.MISSING);
+    }
+
+    public void appendNumber(CellKind kind, double value) {
+        int row = append(kind);
+        if (numbers == null) {
+            numbers = new double[kinds.length];
+            numericMask = new long[(kinds.length + 63) >>> 6];
+        }
+        numbers[row] = value;
+        if (kind == CellKind.NUMERIC) {
+            numericMask[row >>> 6] |= 1L << row;
+            numericCount++;
+        } else if (kind == CellKind.DATE) {
+            dateCount++;
+        }
+        if (kind == CellKind.NUMERIC || kind == CellKind.DATE) {
+            type = type.promote(ColumnType.NUMERIC);
+        }
+    }
+
+    public void appendText(CellKind kind, String value) {
+        int row = append(kind);
+        if (textIds == null) {
+            textIds = new int[kinds.length];
+            dictionary = new StringDictionary();
+        }
+        textIds[row] = dictionary.encode(value);
+        if (kind == CellKind.STRING && !value.isEmpty()) {
+            type = type.promote(ColumnType.TEXT);
+        }
+    }
+
+    private int append(CellKind kind) {
+        if (size == kinds.length) {
+            int capacity = kinds.length * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            if (numbers != null) {
+                numbers = Arrays.copyOf(numbers, capacity);
+                numericMask = Arrays.copyOf(numericMask, (capacity + 63) >>> 6);
+            }
+            if (textIds != null) {
+                textIds = Arrays.copyOf(textIds, capacity);
+            }
+        }
+        kinds[size] = kind.code();
+        return size++;
+    }
+}
@@ -0,0 +1,66 @@
+package com.ai.projects.spreadsheetToSlides.model;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+public class ColumnProfile {
+    private String header;
+    private ColumnType type;
+    private long count;
+    private long nulls;
+    private long numericCount;
+    private double min;
+    private double max;
+    private double mean;
+    private double p25;
+    private double median;
+    private double p75;
+    private Date firstDate;
+    private Date lastDate;
+    private List<Map.Entry<String, Long>> topValues;
+
+    public ColumnProfile() {}
+
+    public String getHeader() { return header; }
+    public void setHeader(String header) { this.header = header; }
+
+    public ColumnType getType() { return type; }
+    public void setType(ColumnType type) { this.type = type; }
+
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+
+    public long getNulls() { return nulls; }
+    public void setNulls(long nulls) { this.nulls = nulls; }
+
+    public long getNumericCount() { return numericCount; }
+    public void setNumericCount(long numericCount) { this.numericCount = numericCount; }
+
+    public double getMin() { return min; }
+    public void setMin(double min) { this.min = min; }
+
+    public double getMax() { return max; }
+    public void setMax(double max) { this.max = max; }
+
+    public double getMean() { return mean; }
+    public void setMean(double mean) { this.mean = mean; }
+
+    public double getP25() { return p25; }
+    public void setP25(double p25) { this.p25 = p25; }
+
+    public double getMedian() { return median; }
+    public void setMedian(double median) { this.median = median; }
+
+    public double getP75() { return p75; }
+    public void setP75(double p75) { this.p75 = p75; }
+
+    public Date getFirstDate() { return firstDate; }
+    public void setFirstDate(Date firstDate) { this.firstDate = firstDate; }
+
+    public Date getLastDate() { return lastDate; }
+    public void setLastDate(Date lastDate) { this.lastDate = lastDate; }
+
+    public List<Map.Entry<String, Long>> getTopValues() { return topValues; }
+    public void setTopValues(List<Map.Entry<String, Long>> topValues) { this.topValues = topValues; }
+}
@@ -0,0 +1,11 @@
+package com.ai.projects.spreadsheetToSlides.model;
+
+public enum ColumnType {
+    UNKNOWN, TEXT, NUMERIC, MIXED;
+
+    public ColumnType promote(ColumnType observed) {
+        if (this == observed || this == MIXED) return this;
+        if (this == UNKNOWN) return observed;
+        return MIXED;
+    }
+}
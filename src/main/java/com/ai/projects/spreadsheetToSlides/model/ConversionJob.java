@@ -0,0 +1,46 @@
+package com.ai.projects.spreadsheetToSlides.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+// Fields are written by the worker thread and read by request threads polling the job
+public class ConversionJob {
+    private final String id;
+    private final Instant createdAt = Instant.now();
+    private volatile JobStatus status = JobStatus.QUEUED;
+    private volatile ConversionStage stage = ConversionStage.QUEUED;
+    private volatile int slidesRendered;
+    private volatile Instant completedAt;
+    private volatile String error;
+    private volatile Path resultFile;
+
+    public ConversionJob(String id) {
+        this.id = id;
+    }
+
+    public String getId() { return id; }
+
+    public Instant getCreatedAt() { return createdAt; }
+
+    public JobStatus getStatus() { return status; }
+    public void setStatus(JobStatus status) { this.status = status; }
+
+    public ConversionStage getStage() { return stage; }
+    public void setStage(ConversionStage stage) { this.stage = stage; }
+
+    // Grows while the LLM is still streaming when completions are streamed
+    public int getSlidesRendered() { return slidesRendered; }
+    public void setSlidesRendered(int slidesRendered) { this.slidesRendered = slidesRendered; }
+
+    public Instant getCompletedAt() { return completedAt; }
+    public void setCompletedAt(Instant completedAt) { this.completedAt = completedAt; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    @JsonIgnore
+    public Path getResultFile() { return resultFile; }
+    public void setResultFile(Path resultFile) { this.resultFile = resultFile; }
+}
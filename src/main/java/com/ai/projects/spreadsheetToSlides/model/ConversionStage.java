@@ -0,0 +1,5 @@
+package com.ai.projects.spreadsheetToSlides.model;
+
+public enum ConversionStage {
+    QUEUED, PARSING, GENERATING, RENDERING, COMPLETED
+}
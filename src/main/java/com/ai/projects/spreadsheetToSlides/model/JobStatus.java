@@ -0,0 +1,5 @@
+package com.ai.projects.spreadsheetToSlides.model;
+
+public enum JobStatus {
+    QUEUED, RUNNING, SUCCEEDED, FAILED
+}
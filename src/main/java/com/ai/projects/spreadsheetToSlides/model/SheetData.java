@@ -0,0 +1,114 @@
+package com.ai.projects.spreadsheetToSlides.model;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar contents of one sheet. The first row supplies the headers; every later row is
+ * appended to all columns, so row {@code i} of each column belongs to the same spreadsheet row.
+ */
+public class SheetData {
+    private final String sheetName;
+    private final boolean date1904;
+    private final List<String> headers;
+    private final List<ColumnData> columns = new ArrayList<>();
+    private int rowCount;
+
+    private List<String> categories = new ArrayList<>();
+    private double[] values = new double[0];
+
+    public SheetData(String sheetName, List<String> headers, boolean date1904) {
+        this.sheetName = sheetName;
+        this.headers = headers;
+        this.date1904 = date1904;
+        for (String header : headers) {
+            columns.add(new ColumnData(header));
+        }
+    }
+
+    public String getSheetName() { return sheetName; }
+
+    public List<String> getHeaders() { return headers; }
+
+    public List<ColumnData> getColumns() { return columns; }
+
+    public int getRowCount() { return rowCount; }
+
+    public boolean isDate1904() { return date1904; }
+
+    public long getEstimatedBytes() {
+        long bytes = values.length * 8L + categories.size() * 64L;
+        for (ColumnData column : columns) {
+            bytes += column.getEstimatedBytes();
+        }
+        return bytes;
+    }
+
+    public void completeRow() {
+        rowCount++;
+    }
+
+    // Space-separated cell values of a data row, formatted the way the prompt has always shown them
+    public String getRowText(int row) {
+        StringBuilder text = new StringBuilder();
+        for (ColumnData column : columns) {
+            text.append(formatCell(column, row)).append(' ');
+        }
+        return text.toString().trim();
+    }
+
+    public List<String> getTextData() {
+        List<String> textData = new ArrayList<>();
+        for (int row = 0; row < rowCount; row++) {
+            String rowText = getRowText(row);
+            if (!rowText.isEmpty()) {
+                textData.add(rowText);
+            }
+        }
+        return textData;
+    }
+
+    public String formatCell(ColumnData column, int row) {
+        CellKind kind = column.getKind(row);
+        switch (kind) {
+            case NUMERIC:
+            case FORMULA_NUMERIC:
+                return String.valueOf(column.getNumber(row));
+            case DATE:
+                return DateUtil.getJavaDate(column.getNumber(row), date1904).toString();
+            case BOOLEAN:
+                return String.valueOf(column.getNumber(row) != 0);
+            case STRING:
+            case FORMULA_TEXT:
+            case ERROR:
+                return column.getText(row);
+            default:
+                return "";
+        }
+    }
+
+    // Chart series aggregated from the columns: one category per group, empty when the sheet has nothing to chart
+    public List<String> getCategories() { return categories; }
+
+    public double[] getValues() { return values; }
+
+    public void setChartSeries(List<String> categories, double[] values) {
+        this.categories = categories;
+        this.values = values;
+    }
+
+    // Header -> plain numeric values of that column in row order
+    public Map<String, double[]> getSeriesData() {
+        Map<String, double[]> seriesData = new LinkedHashMap<>();
+        for (ColumnData column : columns) {
+            if (column.getNumericCount() > 0) {
+                seriesData.putIfAbsent(column.getHeader(), column.getNumericValues());
+            }
+        }
+        return seriesData;
+    }
+}
@@ -0,0 +1,24 @@
+package com.ai.projects.spreadsheetToSlides.model;
+
+import java.util.List;
+
+public class SheetProfile {
+    private String sheetName;
+    private long rowCount;
+    private List<ColumnProfile> columns;
+    private List<String> sampleRows;
+
+    public SheetProfile() {}
+
+    public String getSheetName() { return sheetName; }
+    public void setSheetName(String sheetName) { this.sheetName = sheetName; }
+
+    public long getRowCount() { return rowCount; }
+    public void setRowCount(long rowCount) { this.rowCount = rowCount; }
+
+    public List<ColumnProfile> getColumns() { return columns; }
+    public void setColumns(List<ColumnProfile> columns) { this.columns = columns; }
+
+    public List<String> getSampleRows() { return sampleRows; }
+    public void setSampleRows(List<String> sampleRows) { this.sampleRows = sampleRows; }
+}
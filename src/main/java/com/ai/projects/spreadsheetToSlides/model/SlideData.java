@@ -6,6 +6,7 @@ public class SlideData {
     private String title;
     private List<String> content;
     private String chartType; // "pie", "bar", "line", or null
+    private String chartSeries; // header of the column the chart plots, or null for the sheet's default series
 
     // Constructors, getters, and setters
     public SlideData() {}
@@ -18,4 +19,7 @@ public class SlideData {
 
     public String getChartType() { return chartType; }
     public void setChartType(String chartType) { this.chartType = chartType; }
+
+    public String getChartSeries() { return chartSeries; }
+    public void setChartSeries(String chartSeries) { this.chartSeries = chartSeries; }
 }
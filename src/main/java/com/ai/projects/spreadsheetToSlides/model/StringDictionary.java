@@ -0,0 +1,36 @@
+package com.ai.projects.spreadsheetToSlides.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class StringDictionary {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+    private long chars;
+
+    public int encode(String value) {
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = values.size();
+            ids.put(value, id);
+            values.add(value);
+            chars += value.length();
+        }
+        return id;
+    }
+
+    // Id of a value already encoded, or -1
+    public int find(String value) {
+        Integer id = ids.get(value);
+        return id != null ? id : -1;
+    }
+
+    public String decode(int id) { return values.get(id); }
+
+    public int size() { return values.size(); }
+
+    // Rough heap footprint: the strings plus a map entry and a list slot per value
+    public long getEstimatedBytes() { return chars * 2 + values.size() * 96L; }
+}
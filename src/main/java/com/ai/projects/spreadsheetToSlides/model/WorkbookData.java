@@ -0,0 +1,84 @@
+package com.ai.projects.spreadsheetToSlides.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class WorkbookData {
+    private final List<SheetData> sheets = new ArrayList<>();
+    private final List<String> categories = new ArrayList<>();
+    private final Map<String, Integer> categoryIndex = new HashMap<>();
+    private double[] values = new double[0];
+    private final Map<String, double[]> seriesData = new LinkedHashMap<>();
+    private List<String> chartRecommendations = new ArrayList<>();
+    private final List<SheetProfile> profiles = new ArrayList<>();
+
+    // Sheet totals are merged by category across sheets; a later sheet's series replaces one with the same header
+    public void addSheet(SheetData sheet) {
+        sheets.add(sheet);
+
+        List<String> sheetCategories = sheet.getCategories();
+        double[] sheetValues = sheet.getValues();
+        for (int i = 0; i < sheetCategories.size(); i++) {
+            Integer index = categoryIndex.get(sheetCategories.get(i));
+            if (index != null) {
+                values[index] += sheetValues[i];
+                continue;
+            }
+            categoryIndex.put(sheetCategories.get(i), categories.size());
+            if (categories.size() == values.length) {
+                values = Arrays.copyOf(values, Math.max(16, values.length * 2));
+            }
+            values[categories.size()] = sheetValues[i];
+            categories.add(sheetCategories.get(i));
+        }
+
+        seriesData.putAll(sheet.getSeriesData());
+    }
+
+    public void addProfile(SheetProfile profile) {
+        profiles.add(profile);
+    }
+
+    // Approximate heap held by the parsed model, used to weigh it in the parse cache
+    public long getEstimatedBytes() {
+        long bytes = values.length * 8L + categories.size() * 64L;
+        for (SheetData sheet : sheets) {
+            bytes += sheet.getEstimatedBytes();
+        }
+        for (SheetProfile profile : profiles) {
+            bytes += profile.getColumns().size() * 512L;
+            for (String row : profile.getSampleRows()) {
+                bytes += 48 + row.length() * 2L;
+            }
+        }
+        return bytes;
+    }
+
+    public List<SheetData> getSheets() { return sheets; }
+
+    public List<SheetProfile> getProfiles() { return profiles; }
+
+    public List<String> getCategories() { return categories; }
+
+    public double[] getValues() { return Arrays.copyOf(values, categories.size()); }
+
+    public Map<String, double[]> getSeriesData() { return seriesData; }
+
+    public List<String> getChartRecommendations() { return chartRecommendations; }
+    public void setChartRecommendations(List<String> chartRecommendations) { this.chartRecommendations = chartRecommendations; }
+
+    public String getTextData() {
+        StringBuilder text = new StringBuilder();
+        for (SheetData sheet : sheets) {
+            for (String row : sheet.getTextData()) {
+                if (text.length() > 0) text.append('\n');
+                text.append(row);
+            }
+        }
+        return text.toString();
+    }
+}
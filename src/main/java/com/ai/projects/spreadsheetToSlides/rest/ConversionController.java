@@ -1,28 +1,144 @@
 package com.ai.projects.spreadsheetToSlides.rest;
 
+import com.ai.projects.spreadsheetToSlides.service.BatchConversion;
+import com.ai.projects.spreadsheetToSlides.service.BatchConversionService;
+import com.ai.projects.spreadsheetToSlides.service.ConversionProgress;
 import com.ai.projects.spreadsheetToSlides.service.ConversionService;
+import com.ai.projects.spreadsheetToSlides.service.SpooledUpload;
+import com.ai.projects.spreadsheetToSlides.service.UploadSpooler;
+import com.ai.projects.spreadsheetToSlides.service.coalesce.ConversionCoalescer;
+import com.ai.projects.spreadsheetToSlides.service.llm.LlmScheduler;
+import com.ai.projects.spreadsheetToSlides.service.metrics.ConversionRecorder;
+import com.ai.projects.spreadsheetToSlides.service.pipeline.ConversionPipeline;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.poi.xslf.usermodel.XMLSlideShow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api")
 public class ConversionController {
 
+    // Tenants for LLM scheduling are told apart by API key; requests without one share the default tenant
+    static final String TENANT_HEADER = "X-Api-Key";
+
     private final ConversionService conversionService;
+    private final BatchConversionService batchConversionService;
+    private final UploadSpooler uploadSpooler;
+    private final ConversionCoalescer conversionCoalescer;
+    private final LlmScheduler llmScheduler;
+
+    @Value("${conversion.output.streaming:true}")
+    private boolean streamingOutput;
 
-    public ConversionController(ConversionService conversionService) {
+    public ConversionController(ConversionService conversionService, BatchConversionService batchConversionService,
+                                UploadSpooler uploadSpooler, ConversionCoalescer conversionCoalescer, LlmScheduler llmScheduler) {
         this.conversionService = conversionService;
+        this.batchConversionService = batchConversionService;
+        this.uploadSpooler = uploadSpooler;
+        this.conversionCoalescer = conversionCoalescer;
+        this.llmScheduler = llmScheduler;
     }
 
     @PostMapping("/convert")
-    public ResponseEntity<byte[]> convertSpreadsheet(@RequestParam("file") MultipartFile file, @RequestParam("targetAudience") String targetAudience) throws Exception {
-        byte[] pptData = conversionService.convertToPpt(file, targetAudience);
+    // Declared as StreamingResponseBody, not ResponseEntity<?>: MVC picks the streaming handler from the declared type
+    // With a documentKey, a re-upload of the same document only re-converts the sheets that changed
+    public ResponseEntity<StreamingResponseBody> convertSpreadsheet(@RequestParam("file") MultipartFile file, @RequestParam("targetAudience") String targetAudience,
+                                                                    @RequestParam(value = "documentKey", required = false) String documentKey,
+                                                                    @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                                                    @RequestHeader(value = TENANT_HEADER, required = false) String tenant) throws Exception {
+        // Turned away before the upload is spooled and parsed when the tenant's LLM queue is already full
+        llmScheduler.checkAdmission(tenant);
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
         headers.setContentDispositionFormData("attachment", "presentation.pptx");
-        return ResponseEntity.ok().headers(headers).body(pptData);
+
+        // Only requests with an Idempotency-Key, unless coalescing is enabled; the rest stream their deck below
+        if (conversionCoalescer.applies(idempotencyKey)) {
+            // Retries and identical concurrent uploads share one conversion, so the deck is serialised once for all of them
+            byte[] pptData;
+            try (SpooledUpload upload = uploadSpooler.spool(file)) {
+                pptData = conversionCoalescer.execute(conversionService.requestKey(upload, targetAudience, documentKey), idempotencyKey,
+                        () -> conversionService.convertToPpt(upload, targetAudience, documentKey, tenant));
+            }
+            return ResponseEntity.ok().headers(headers).body(out -> out.write(pptData));
+        }
+
+        if (streamingOutput) {
+            // Parse, LLM and slide building happen here so failures still map to an error status;
+            // only serialisation runs once the response is committed, written in chunks
+            ConversionRecorder recorder = conversionService.startConversion(UUID.randomUUID().toString(), tenant);
+            XMLSlideShow ppt;
+            try (SpooledUpload upload = uploadSpooler.spool(file)) {
+                ppt = ConversionPipeline.await(conversionService.buildPresentationAsync(upload, targetAudience, documentKey,
+                        ConversionProgress.NONE, recorder));
+            } catch (Exception e) {
+                recorder.close();
+                throw e;
+            }
+            StreamingResponseBody body = out -> {
+                try {
+                    conversionService.writePresentation(ppt, out, recorder);
+                } finally {
+                    recorder.close();
+                }
+            };
+            return ResponseEntity.ok().headers(headers).body(body);
+        }
+
+        byte[] pptData;
+        try (SpooledUpload upload = uploadSpooler.spool(file)) {
+            pptData = conversionService.convertToPpt(upload, targetAudience, documentKey, tenant);
+        }
+        return ResponseEntity.ok().headers(headers).body(out -> out.write(pptData));
+    }
+
+    // Returns a Mono, so the servlet thread is released while the conversion waits on the LLM
+    @PostMapping("/convert/reactive")
+    public Mono<ResponseEntity<byte[]>> convertSpreadsheetReactive(@RequestParam("file") MultipartFile file, @RequestParam("targetAudience") String targetAudience,
+                                                                   @RequestHeader(value = TENANT_HEADER, required = false) String tenant) {
+        llmScheduler.checkAdmission(tenant);
+        return conversionService.convertToPptReactive(file, targetAudience, tenant).map(pptData -> {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+            headers.setContentDispositionFormData("attachment", "presentation.pptx");
+            return ResponseEntity.ok().headers(headers).body(pptData);
+        });
+    }
+
+    // Several workbooks and/or zips of workbooks in, a zip of decks plus manifest.json out. Decks are
+    // written as they finish, on the request thread: a batch can outlast spring.mvc.async.request-timeout,
+    // and the conversions themselves run on the batch pool
+    @PostMapping("/convert/batch")
+    public void convertBatch(@RequestParam("files") List<MultipartFile> files, @RequestParam("targetAudience") String targetAudience,
+                             @RequestHeader(value = TENANT_HEADER, required = false) String tenant,
+                             HttpServletResponse response) throws Exception {
+        llmScheduler.checkAdmission(tenant);
+        BatchConversion batch;
+        try {
+            batch = batchConversionService.submit(files, targetAudience, tenant);
+        } catch (RejectedExecutionException e) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "30");
+            return;
+        }
+        try (batch) {
+            response.setContentType("application/zip");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    ContentDisposition.attachment().filename("presentations.zip").build().toString());
+            batch.writeTo(response.getOutputStream());
+        }
     }
-}
\ No newline at end of file
+}
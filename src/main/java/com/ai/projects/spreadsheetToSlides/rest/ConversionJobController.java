@@ -0,0 +1,65 @@
+package com.ai.projects.spreadsheetToSlides.rest;
+
+import com.ai.projects.spreadsheetToSlides.model.ConversionJob;
+import com.ai.projects.spreadsheetToSlides.model.JobStatus;
+import com.ai.projects.spreadsheetToSlides.service.ConversionJobService;
+import com.ai.projects.spreadsheetToSlides.service.llm.LlmScheduler;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.net.URI;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/api/convert/jobs")
+public class ConversionJobController {
+
+    private final ConversionJobService conversionJobService;
+    private final LlmScheduler llmScheduler;
+
+    public ConversionJobController(ConversionJobService conversionJobService, LlmScheduler llmScheduler) {
+        this.conversionJobService = conversionJobService;
+        this.llmScheduler = llmScheduler;
+    }
+
+    @PostMapping
+    public ResponseEntity<ConversionJob> submitJob(@RequestParam("file") MultipartFile file, @RequestParam("targetAudience") String targetAudience,
+                                                   @RequestHeader(value = ConversionController.TENANT_HEADER, required = false) String tenant) throws Exception {
+        llmScheduler.checkAdmission(tenant);
+        try {
+            ConversionJob job = conversionJobService.submit(file, targetAudience, tenant);
+            return ResponseEntity.accepted().location(URI.create("/api/convert/jobs/" + job.getId())).body(job);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").build();
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ConversionJob> getJob(@PathVariable String id) {
+        ConversionJob job = conversionJobService.getJob(id);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/{id}/result")
+    public ResponseEntity<Resource> getResult(@PathVariable String id) {
+        ConversionJob job = conversionJobService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (job.getStatus() != JobStatus.SUCCEEDED) {
+            // Still running or failed; the status endpoint has the details
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        headers.setContentDispositionFormData("attachment", "presentation.pptx");
+        // Streamed from the spooled file rather than loaded into memory
+        return ResponseEntity.ok().headers(headers).body(new FileSystemResource(job.getResultFile()));
+    }
+}
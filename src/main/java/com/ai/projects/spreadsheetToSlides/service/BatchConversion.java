@@ -0,0 +1,119 @@
+package com.ai.projects.spreadsheetToSlides.service;
+
+import com.ai.projects.spreadsheetToSlides.model.BatchEntry;
+import com.ai.projects.spreadsheetToSlides.model.JobStatus;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * A submitted batch: every workbook is already queued on the batch pool, and {@link #writeTo}
+ * streams each deck into the zip as soon as it is finished, followed by {@code manifest.json}.
+ * Closing cancels whatever has not run yet and removes spooled uploads and unsent decks.
+ */
+public class BatchConversion implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchConversion.class);
+
+    static final String MANIFEST = "manifest.json";
+
+    private final List<BatchEntry> entries;
+    private final List<SpooledUpload> uploads;
+    private final List<Future<BatchEntry>> futures;
+    private final CompletionService<BatchEntry> completions;
+    private final ObjectMapper objectMapper;
+    private volatile boolean closed;
+
+    BatchConversion(List<BatchEntry> entries, List<SpooledUpload> uploads, List<Future<BatchEntry>> futures,
+                    CompletionService<BatchEntry> completions, ObjectMapper objectMapper) {
+        this.entries = entries;
+        this.uploads = uploads;
+        this.futures = futures;
+        this.completions = completions;
+        this.objectMapper = objectMapper;
+    }
+
+    public List<BatchEntry> getEntries() {
+        return entries;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        // Decks are zip packages already, deflating them again only burns CPU
+        zip.setLevel(Deflater.NO_COMPRESSION);
+        for (int i = 0; i < futures.size(); i++) {
+            BatchEntry entry = next();
+            if (entry.getStatus() != JobStatus.SUCCEEDED) {
+                continue;
+            }
+            zip.putNextEntry(new ZipEntry(entry.getDeck()));
+            Files.copy(entry.getResultFile(), zip);
+            zip.closeEntry();
+            // Push each finished deck to the client instead of holding it in the response buffer
+            zip.flush();
+            deleteQuietly(entry.getResultFile());
+        }
+
+        zip.setLevel(Deflater.DEFAULT_COMPRESSION);
+        zip.putNextEntry(new ZipEntry(MANIFEST));
+        Map<String, Object> manifest = new LinkedHashMap<>();
+        manifest.put("succeeded", entries.stream().filter(entry -> entry.getStatus() == JobStatus.SUCCEEDED).count());
+        manifest.put("failed", entries.stream().filter(entry -> entry.getStatus() == JobStatus.FAILED).count());
+        manifest.put("files", entries);
+        objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(zip, manifest);
+        zip.closeEntry();
+        zip.finish();
+    }
+
+    private BatchEntry next() throws IOException {
+        try {
+            // Conversion tasks record their own failures, so get() only fails if the task was cancelled
+            return completions.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for batch conversions");
+        } catch (ExecutionException e) {
+            throw new IOException("Batch conversion task failed", e.getCause());
+        }
+    }
+
+    // Tasks already running check this before and after writing their deck
+    boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        futures.forEach(future -> future.cancel(true));
+        uploads.forEach(SpooledUpload::close);
+        entries.forEach(entry -> deleteQuietly(entry.getResultFile()));
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete batch result {}", file, e);
+        }
+    }
+}
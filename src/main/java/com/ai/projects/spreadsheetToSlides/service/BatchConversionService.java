@@ -0,0 +1,244 @@
+package com.ai.projects.spreadsheetToSlides.service;
+
+import com.ai.projects.spreadsheetToSlides.model.BatchEntry;
+import com.ai.projects.spreadsheetToSlides.model.JobStatus;
+import com.ai.projects.spreadsheetToSlides.service.llm.LlmScheduler;
+import com.ai.projects.spreadsheetToSlides.service.metrics.ConversionRecorder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.apache.poi.xslf.usermodel.XMLSlideShow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Converts many workbooks in one request. Uploaded files and the workbooks inside uploaded zips are
+ * spooled and queued on a bounded pool shared by all batches; LLM calls from every conversion go
+ * through the same {@code llm.max-concurrent} limit as the single-file endpoints. Workers block
+ * while their LLM call is in flight, so the pool is sized against that limit rather than the core count.
+ */
+@Service
+public class BatchConversionService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchConversionService.class);
+
+    private final ConversionService conversionService;
+    private final UploadSpooler uploadSpooler;
+    private final ObjectMapper objectMapper;
+    private final int maxFiles;
+    private final long maxTotalSize;
+    private final ThreadPoolExecutor executor;
+
+    public BatchConversionService(ConversionService conversionService, UploadSpooler uploadSpooler, ObjectMapper objectMapper,
+                                  @Value("${conversion.batch.workers:16}") int workers,
+                                  @Value("${conversion.batch.queue-capacity:500}") int queueCapacity,
+                                  @Value("${conversion.batch.max-files:100}") int maxFiles,
+                                  @Value("${conversion.batch.max-total-size:1GB}") DataSize maxTotalSize) {
+        this.conversionService = conversionService;
+        this.uploadSpooler = uploadSpooler;
+        this.objectMapper = objectMapper;
+        this.maxFiles = maxFiles;
+        this.maxTotalSize = maxTotalSize.toBytes();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "batch-worker-" + threadCount.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public BatchConversion submit(List<MultipartFile> files, String targetAudience) throws IOException {
+        return submit(files, targetAudience, LlmScheduler.DEFAULT_TENANT);
+    }
+
+    // Throws RejectedExecutionException when the pool cannot queue the whole batch; nothing is left running then.
+    // Every workbook of the batch is scheduled for the same tenant, so a big batch mostly competes with itself
+    public BatchConversion submit(List<MultipartFile> files, String targetAudience, String tenant) throws IOException {
+        List<SpooledUpload> uploads = spoolAll(files);
+        List<BatchEntry> entries = new ArrayList<>();
+        Set<String> deckNames = new HashSet<>();
+        for (SpooledUpload upload : uploads) {
+            entries.add(new BatchEntry(upload.getFilename(), deckName(upload.getFilename(), deckNames)));
+        }
+
+        CompletionService<BatchEntry> completions = new ExecutorCompletionService<>(executor);
+        List<Future<BatchEntry>> futures = new ArrayList<>();
+        BatchConversion batch = new BatchConversion(entries, uploads, futures, completions, objectMapper);
+        try {
+            for (int i = 0; i < uploads.size(); i++) {
+                BatchEntry entry = entries.get(i);
+                SpooledUpload upload = uploads.get(i);
+                futures.add(completions.submit(() -> convert(batch, entry, upload, targetAudience, tenant)));
+            }
+        } catch (RejectedExecutionException e) {
+            batch.close();
+            throw e;
+        }
+        return batch;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    private BatchEntry convert(BatchConversion batch, BatchEntry entry, SpooledUpload upload, String targetAudience, String tenant) {
+        entry.setStatus(JobStatus.RUNNING);
+        long start = System.nanoTime();
+        Path resultFile = null;
+        try (ConversionRecorder recorder = conversionService.startConversion(UUID.randomUUID().toString(), tenant)) {
+            XMLSlideShow ppt = conversionService.buildPresentation(upload, targetAudience, ConversionProgress.NONE, recorder);
+            entry.setSlides(ppt.getSlides().size());
+            if (isCancelled(batch)) {
+                ppt.close();
+                throw new InterruptedException("Batch cancelled");
+            }
+            // Written out by the worker so serialisation runs in parallel; the response only copies bytes
+            resultFile = Files.createTempFile("batch-", ".pptx");
+            try (OutputStream out = Files.newOutputStream(resultFile)) {
+                conversionService.writePresentation(ppt, out, recorder);
+            }
+            entry.setResultFile(resultFile);
+            // The batch may have been closed while the deck was written, after it deleted the result files it knew of
+            if (isCancelled(batch)) {
+                throw new InterruptedException("Batch cancelled");
+            }
+            entry.setStatus(JobStatus.SUCCEEDED);
+        } catch (Exception e) {
+            deleteQuietly(resultFile);
+            entry.setResultFile(null);
+            log.warn("Batch conversion of {} failed", entry.getFile(), e);
+            entry.setError(e.getMessage());
+            entry.setStatus(JobStatus.FAILED);
+        } finally {
+            upload.close();
+            entry.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return entry;
+    }
+
+    private static boolean isCancelled(BatchConversion batch) {
+        return batch.isClosed() || Thread.currentThread().isInterrupted();
+    }
+
+    // Zip uploads contribute every workbook inside them; other files are taken as workbooks
+    private List<SpooledUpload> spoolAll(List<MultipartFile> files) throws IOException {
+        List<SpooledUpload> uploads = new ArrayList<>();
+        long totalSize = 0;
+        try {
+            for (MultipartFile file : files) {
+                if (!isZip(file.getOriginalFilename())) {
+                    checkFileCount(uploads.size() + 1);
+                    SpooledUpload upload = uploadSpooler.spool(file);
+                    uploads.add(upload);
+                    totalSize = checkTotalSize(totalSize + upload.getSize());
+                    continue;
+                }
+                try (InputStream in = file.getInputStream(); ZipInputStream zip = new ZipInputStream(in)) {
+                    ZipEntry zipEntry;
+                    while ((zipEntry = zip.getNextEntry()) != null) {
+                        if (zipEntry.isDirectory() || !isWorkbook(zipEntry.getName())) {
+                            continue;
+                        }
+                        checkFileCount(uploads.size() + 1);
+                        SpooledUpload upload = uploadSpooler.spool(baseName(zipEntry.getName()), zip);
+                        uploads.add(upload);
+                        // Sizes in the zip directory can lie, so the limit is applied to what was actually inflated
+                        totalSize = checkTotalSize(totalSize + upload.getSize());
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            uploads.forEach(SpooledUpload::close);
+            throw e;
+        }
+        if (uploads.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No workbooks in the batch");
+        }
+        return uploads;
+    }
+
+    private void checkFileCount(int count) {
+        if (count > maxFiles) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A batch can contain at most " + maxFiles + " workbooks");
+        }
+    }
+
+    private long checkTotalSize(long totalSize) {
+        if (totalSize > maxTotalSize) {
+            throw new MaxUploadSizeExceededException(maxTotalSize);
+        }
+        return totalSize;
+    }
+
+    private static boolean isZip(String filename) {
+        return filename != null && filename.toLowerCase(Locale.ROOT).endsWith(".zip");
+    }
+
+    // Skips macOS resource forks and other hidden entries that archivers add
+    private static boolean isWorkbook(String entryName) {
+        String name = baseName(entryName);
+        String lower = name.toLowerCase(Locale.ROOT);
+        return !entryName.startsWith("__MACOSX/") && !name.startsWith(".")
+                && (lower.endsWith(".xlsx") || lower.endsWith(".xlsm") || lower.endsWith(".xls")
+                || lower.endsWith(".csv") || lower.endsWith(".tsv"));
+    }
+
+    private static String baseName(String path) {
+        return path.substring(Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\')) + 1);
+    }
+
+    // "Sales.xlsx" becomes "Sales.pptx"; repeated names get a counter so no deck overwrites another
+    private static String deckName(String filename, Set<String> taken) {
+        String name = filename == null || filename.isBlank() ? "workbook" : baseName(filename);
+        int dot = name.lastIndexOf('.');
+        String stem = dot > 0 ? name.substring(0, dot) : name;
+        String deck = stem + ".pptx";
+        for (int i = 2; !taken.add(deck.toLowerCase(Locale.ROOT)); i++) {
+            deck = stem + " (" + i + ").pptx";
+        }
+        return deck;
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete batch result {}", file, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
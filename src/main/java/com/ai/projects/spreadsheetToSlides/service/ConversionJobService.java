@@ -0,0 +1,202 @@
+package com.ai.projects.spreadsheetToSlides.service;
+
+import com.ai.projects.spreadsheetToSlides.model.ConversionJob;
+import com.ai.projects.spreadsheetToSlides.model.ConversionStage;
+import com.ai.projects.spreadsheetToSlides.model.JobStatus;
+import com.ai.projects.spreadsheetToSlides.service.llm.LlmScheduler;
+import com.ai.projects.spreadsheetToSlides.service.metrics.ConversionRecorder;
+import com.ai.projects.spreadsheetToSlides.service.pipeline.StageExecutors;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs conversions in the background so request threads return immediately. A job holds no thread of
+ * its own: it subscribes to the conversion pipeline, whose stage pools do the parsing, rendering and
+ * writing, and the LLM call waits on no thread at all. At most {@code max-running} jobs are in flight,
+ * further submissions wait in a bounded queue and are rejected beyond it. An accepted job is not failed
+ * by a busy pipeline: it waits up to {@code admission-timeout} for room at the stages that turn
+ * synchronous requests away. Finished jobs are dropped once their result has been kept for the configured TTL.
+ */
+@Service
+public class ConversionJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ConversionJobService.class);
+
+    private final ConversionService conversionService;
+    private final UploadSpooler uploadSpooler;
+    private final int maxRunning;
+    private final int queueCapacity;
+    private final Duration admissionTimeout;
+    private final Duration resultTtl;
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(
+            runnable -> new Thread(runnable, "conversion-job-sweeper"));
+    private final Map<String, ConversionJob> jobs = new ConcurrentHashMap<>();
+    // Cancels every job in flight on shutdown
+    private final Sinks.Empty<Void> shutdown = Sinks.empty();
+
+    // Guarded by this
+    private final Deque<Runnable> pending = new ArrayDeque<>();
+    private int running;
+
+    public ConversionJobService(ConversionService conversionService, UploadSpooler uploadSpooler,
+                                @Value("${conversion.jobs.max-running:32}") int maxRunning,
+                                @Value("${conversion.jobs.queue-capacity:50}") int queueCapacity,
+                                @Value("${conversion.jobs.admission-timeout:10m}") Duration admissionTimeout,
+                                @Value("${conversion.jobs.result-ttl:PT30M}") Duration resultTtl) {
+        this.conversionService = conversionService;
+        this.uploadSpooler = uploadSpooler;
+        this.maxRunning = maxRunning;
+        this.queueCapacity = queueCapacity;
+        this.admissionTimeout = admissionTimeout;
+        this.resultTtl = resultTtl;
+        sweeper.scheduleWithFixedDelay(this::removeExpiredJobs, 1, 1, TimeUnit.MINUTES);
+    }
+
+    public ConversionJob submit(MultipartFile file, String targetAudience) throws Exception {
+        return submit(file, targetAudience, LlmScheduler.DEFAULT_TENANT);
+    }
+
+    // Throws RejectedExecutionException when the queue is full
+    public ConversionJob submit(MultipartFile file, String targetAudience, String tenant) throws Exception {
+        // The multipart file is cleaned up when the request ends, so take ownership of a spooled copy
+        SpooledUpload upload = uploadSpooler.spool(file);
+        ConversionJob job = new ConversionJob(UUID.randomUUID().toString());
+        jobs.put(job.getId(), job);
+        Runnable start = () -> run(job, upload, targetAudience, tenant);
+        boolean startNow;
+        synchronized (this) {
+            startNow = running < maxRunning;
+            if (startNow) {
+                running++;
+            } else if (pending.size() < queueCapacity) {
+                pending.add(start);
+            } else {
+                jobs.remove(job.getId());
+                upload.close();
+                throw new RejectedExecutionException("Conversion job queue is full");
+            }
+        }
+        if (startNow) {
+            start.run();
+        }
+        return job;
+    }
+
+    public ConversionJob getJob(String id) {
+        return jobs.get(id);
+    }
+
+    public synchronized int getQueueDepth() {
+        return pending.size();
+    }
+
+    public synchronized int getActiveCount() {
+        return running;
+    }
+
+    private void run(ConversionJob job, SpooledUpload upload, String targetAudience, String tenant) {
+        job.setStatus(JobStatus.RUNNING);
+        ConversionProgress progress = new ConversionProgress() {
+            @Override
+            public void stage(ConversionStage stage) {
+                job.setStage(stage);
+            }
+
+            @Override
+            public void slideRendered(int slidesRendered) {
+                job.setSlidesRendered(slidesRendered);
+            }
+        };
+        // The job id doubles as the conversion id, so spans can be looked up from the job URL
+        Mono.using(() -> conversionService.startConversion(job.getId(), tenant),
+                        recorder -> conversionService.buildPresentationAsync(upload, targetAudience, progress, recorder)
+                                // Results are written to disk rather than held on the heap until someone downloads them
+                                .flatMap(ppt -> conversionService.writePresentation(ppt, "conversion-" + job.getId(), recorder)),
+                        ConversionRecorder::close)
+                .contextWrite(StageExecutors.waitForAdmission(admissionTimeout))
+                .takeUntilOther(shutdown.asMono())
+                .doFinally(signal -> {
+                    if (job.getStatus() == JobStatus.RUNNING) {
+                        // Cut off by shutdown before it finished
+                        job.setError("Conversion was cancelled");
+                        job.setStatus(JobStatus.FAILED);
+                    }
+                    upload.close();
+                    job.setCompletedAt(Instant.now());
+                    finished();
+                })
+                .subscribe(resultFile -> {
+                    job.setResultFile(resultFile);
+                    job.setStage(ConversionStage.COMPLETED);
+                    job.setStatus(JobStatus.SUCCEEDED);
+                }, e -> {
+                    log.warn("Conversion job {} failed", job.getId(), e);
+                    job.setError(e.getMessage());
+                    job.setStatus(JobStatus.FAILED);
+                });
+    }
+
+    // Hands the finished job's place to the oldest waiting one
+    private void finished() {
+        Runnable next;
+        synchronized (this) {
+            next = pending.poll();
+            if (next == null) {
+                running--;
+            }
+        }
+        if (next != null) {
+            next.run();
+        }
+    }
+
+    private void removeExpiredJobs() {
+        Instant cutoff = Instant.now().minus(resultTtl);
+        jobs.values().removeIf(job -> {
+            if (job.getCompletedAt() != null && job.getCompletedAt().isBefore(cutoff)) {
+                deleteQuietly(job.getResultFile());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete conversion result {}", file, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+        shutdown.tryEmitEmpty();
+        jobs.values().forEach(job -> deleteQuietly(job.getResultFile()));
+    }
+}
@@ -0,0 +1,17 @@
+package com.ai.projects.spreadsheetToSlides.service;
+
+import com.ai.projects.spreadsheetToSlides.model.ConversionStage;
+
+/**
+ * Progress callback for a conversion. With streaming completions, slides are reported as they are
+ * rendered, while the LLM is still generating the rest.
+ */
+@FunctionalInterface
+public interface ConversionProgress {
+
+    ConversionProgress NONE = stage -> { };
+
+    void stage(ConversionStage stage);
+
+    default void slideRendered(int slidesRendered) { }
+}
@@ -1,191 +1,189 @@
 package com.ai.projects.spreadsheetToSlides.service;
 
+import com.ai.projects.spreadsheetToSlides.model.ConversionStage;
 import com.ai.projects.spreadsheetToSlides.model.SlideData;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.apache.poi.xslf.usermodel.*;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.MediaType;
+import com.ai.projects.spreadsheetToSlides.service.generation.MapReduceGenerator;
+import com.ai.projects.spreadsheetToSlides.service.incremental.ConvertedSheet;
+import com.ai.projects.spreadsheetToSlides.service.incremental.IncrementalConverter;
+import com.ai.projects.spreadsheetToSlides.service.llm.LlmClient;
+import com.ai.projects.spreadsheetToSlides.service.llm.LlmScheduler;
+import com.ai.projects.spreadsheetToSlides.service.metrics.ConversionMetrics;
+import com.ai.projects.spreadsheetToSlides.service.metrics.ConversionRecorder;
+import com.ai.projects.spreadsheetToSlides.service.pipeline.ConversionPipeline;
+import com.ai.projects.spreadsheetToSlides.service.pipeline.HeadersOnlyPipeline;
+import org.apache.poi.xslf.usermodel.XMLSlideShow;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
-import java.awt.*;
-import java.io.ByteArrayOutputStream;
-import java.util.*;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ConversionService {
 
-    @Value("${openai.api.key}")
-    private String openaiApiKey;
+    // Flow tag on this service's metrics and spans
+    public static final String FLOW = "audience";
+
+    private final ConversionPipeline pipeline;
+    private final HeadersOnlyPipeline headersOnly;
+    private final UploadSpooler uploadSpooler;
+    private final LlmClient llmClient;
+    private final ConversionMetrics conversionMetrics;
+    private final MapReduceGenerator mapReduceGenerator;
+    private final IncrementalConverter incrementalConverter;
+
+    public ConversionService(ConversionPipeline pipeline, HeadersOnlyPipeline headersOnly, UploadSpooler uploadSpooler,
+                             LlmClient llmClient, ConversionMetrics conversionMetrics, MapReduceGenerator mapReduceGenerator,
+                             IncrementalConverter incrementalConverter) {
+        this.pipeline = pipeline;
+        this.headersOnly = headersOnly;
+        this.uploadSpooler = uploadSpooler;
+        this.llmClient = llmClient;
+        this.conversionMetrics = conversionMetrics;
+        this.mapReduceGenerator = mapReduceGenerator;
+        this.incrementalConverter = incrementalConverter;
+    }
 
-    private final WebClient webClient = WebClient.create("https://api.openai.com");
+    public ConversionRecorder startConversion() {
+        return conversionMetrics.start(FLOW);
+    }
 
-    public byte[] convertToPpt(MultipartFile file, String targetAudience) throws Exception {
-        Map<String, Object> metadata = parseSpreadsheetMetadata(file);
-
-//        targetAudience = "Project Managers";
-
-        // Build prompt for LLM
-        StringBuilder promptBuilder = new StringBuilder();
-        promptBuilder.append("Create presentation slides for the following Excel file, targeting audience: ")
-                .append(targetAudience).append(".\n");
-        List<Map<String, Object>> sheetsInfo = (List<Map<String, Object>>) metadata.get("sheetsInfo");
-        for (Map<String, Object> sheet : sheetsInfo) {
-            promptBuilder.append("Sheet: ").append(sheet.get("sheetName")).append("\nHeaders: ");
-            promptBuilder.append(String.join(", ", (List<String>) sheet.get("headers"))).append("\n");
-        }
-        String promptToLlm = promptBuilder.toString();
+    public ConversionRecorder startConversion(String conversionId) {
+        return conversionMetrics.start(FLOW, conversionId);
+    }
 
-        // Call LLM and generate slides as before
-        String llmResponse = callOpenAI(promptToLlm);
-        List<SlideData> slides = parseSlides(llmResponse);
+    // The recorder carries the tenant, so every LLM call of the conversion is scheduled for it
+    public ConversionRecorder startConversion(String conversionId, String tenant) {
+        return conversionMetrics.start(FLOW, conversionId, tenant);
+    }
 
-        XMLSlideShow ppt = new XMLSlideShow();
-        for (SlideData slideData : slides) {
-            XSLFSlide slide = ppt.createSlide();
-            createTitle(slide, slideData.getTitle());
-            createTextContent(slide, slideData);
+    public byte[] convertToPpt(MultipartFile file, String targetAudience) throws Exception {
+        return convertToPpt(file, targetAudience, null);
+    }
+
+    // documentKey names the document across uploads for incremental re-conversion; null converts from scratch
+    public byte[] convertToPpt(MultipartFile file, String targetAudience, String documentKey) throws Exception {
+        try (SpooledUpload upload = uploadSpooler.spool(file)) {
+            return convertToPpt(upload, targetAudience, documentKey, LlmScheduler.DEFAULT_TENANT);
         }
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        ppt.write(out);
-        ppt.close();
-        return out.toByteArray();
-    }
-
-    private Map<String, Object> parseSpreadsheetMetadata(MultipartFile file) throws Exception {
-        Workbook workbook = new XSSFWorkbook(file.getInputStream());
-        List<Map<String, Object>> sheetsInfo = new ArrayList<>();
-
-        for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
-            Sheet sheet = workbook.getSheetAt(i);
-            Map<String, Object> sheetInfo = new HashMap<>();
-            sheetInfo.put("sheetName", sheet.getSheetName());
-
-            List<String> headers = new ArrayList<>();
-            Row headerRow = sheet.getRow(0);
-            if (headerRow != null) {
-                for (int j = 0; j < headerRow.getLastCellNum(); j++) {
-                    Cell cell = headerRow.getCell(j);
-                    headers.add(cell != null ? cell.toString().trim() : "Column" + (j + 1));
-                }
+    }
+
+    public byte[] convertToPpt(SpooledUpload file, String targetAudience, String documentKey, String tenant) throws Exception {
+        try (ConversionRecorder recorder = startConversion(UUID.randomUUID().toString(), tenant)) {
+            if (documentKey == null || !incrementalConverter.isEnabled()) {
+                return ConversionPipeline.await(pipeline.convert(headersOnly, file, targetAudience, ConversionProgress.NONE, recorder));
             }
-            sheetInfo.put("headers", headers);
-            sheetsInfo.add(sheetInfo);
+            return ConversionPipeline.await(buildPresentationAsync(file, targetAudience, documentKey, ConversionProgress.NONE, recorder)
+                    .flatMap(ppt -> pipeline.emit(ppt, recorder)));
         }
-        workbook.close();
-
-        Map<String, Object> result = new HashMap<>();
-        result.put("sheetsInfo", sheetsInfo);
-        return result;
-    }
-
-    private List<SlideData> parseSlides(String response) {
-        List<SlideData> slides = new ArrayList<>();
-        String[] sections = response.split("\\n\\n");
-
-        for (String section : sections) {
-            if (section.trim().isEmpty()) continue;
-
-            SlideData slide = new SlideData();
-            String[] lines = section.split("\\n");
-
-            if (lines.length > 0) {
-                slide.setTitle(lines[0].replaceAll("^#+\\s*", "").trim());
-
-                List<String> content = new ArrayList<>();
-                String chartType = null;
-
-                for (int i = 1; i < lines.length; i++) {
-                    String line = lines[i].trim();
-                    if (!line.isEmpty()) {
-                        // Check for chart suggestions
-                        if (line.toLowerCase().contains("pie chart")) {
-                            chartType = "pie";
-                        } else if (line.toLowerCase().contains("bar chart")) {
-                            chartType = "bar";
-                        } else if (line.toLowerCase().contains("line chart")) {
-                            chartType = "line";
-                        } else {
-                            content.add(line.replaceAll("^[•\\-\\*]\\s*", ""));
-                        }
-                    }
-                }
-
-                slide.setContent(content.isEmpty() ? List.of("No content available") : content);
-                slide.setChartType(chartType);
-            }
+    }
 
-            slides.add(slide);
-        }
+    // Conversions with equal request keys produce equivalent decks, so concurrent ones can share a single run
+    public String requestKey(SpooledUpload file, String targetAudience, String documentKey) throws IOException {
+        return FLOW + '\n' + llmClient.getModel() + '\n' + targetAudience + '\n' + file.getContentHash()
+                + (documentKey != null ? '\n' + documentKey : "");
+    }
 
-        if (slides.isEmpty()) {
-            SlideData fallbackSlide = new SlideData();
-            fallbackSlide.setTitle("Data Summary");
-            fallbackSlide.setContent(List.of("Data visualization"));
-            fallbackSlide.setChartType("pie");
-            slides.add(fallbackSlide);
+    public byte[] convertToPpt(SpooledUpload file, String targetAudience, ConversionProgress progress) throws Exception {
+        try (ConversionRecorder recorder = startConversion()) {
+            return ConversionPipeline.await(pipeline.convert(headersOnly, file, targetAudience, progress, recorder));
         }
+    }
 
-        return slides;
+    // Builds the deck without serialising it, so callers can write it straight to a response or file
+    public XMLSlideShow buildPresentation(SpooledUpload file, String targetAudience, ConversionProgress progress,
+                                          ConversionRecorder recorder) throws Exception {
+        return ConversionPipeline.await(pipeline.build(headersOnly, file, targetAudience, progress, recorder));
     }
 
-    private void createTitle(XSLFSlide slide, String title) {
-        XSLFTextBox titleShape = slide.createTextBox();
-        titleShape.setAnchor(new Rectangle(50, 20, 600, 60));
-        XSLFTextParagraph titleParagraph = titleShape.addNewTextParagraph();
-        XSLFTextRun titleRun = titleParagraph.addNewTextRun();
-        titleRun.setText(title);
-        titleRun.setFontSize(24.0);
-        titleRun.setBold(true);
+    // Non-blocking build: stages run on the pipeline pools and no thread waits for the LLM
+    public Mono<XMLSlideShow> buildPresentationAsync(SpooledUpload file, String targetAudience, ConversionProgress progress,
+                                                     ConversionRecorder recorder) {
+        return pipeline.build(headersOnly, file, targetAudience, progress, recorder);
     }
 
-    private void createTextContent(XSLFSlide slide, SlideData slideData) {
-        XSLFTextBox contentShape = slide.createTextBox();
-        contentShape.setAnchor(new Rectangle(50, 100, 600, 400));
+    public XMLSlideShow buildPresentation(SpooledUpload file, String targetAudience, String documentKey,
+                                          ConversionProgress progress, ConversionRecorder recorder) throws Exception {
+        return ConversionPipeline.await(buildPresentationAsync(file, targetAudience, documentKey, progress, recorder));
+    }
 
-        for (String contentLine : slideData.getContent()) {
-            XSLFTextParagraph paragraph = contentShape.addNewTextParagraph();
-            XSLFTextRun run = paragraph.addNewTextRun();
-            run.setText("• " + contentLine);
-            run.setFontSize(16.0);
-            paragraph.setLeftMargin(20.0);
+    // As the other builds, on the pipeline stages: only sheets that changed since the last conversion
+    // of this document are read and prompted again
+    public Mono<XMLSlideShow> buildPresentationAsync(SpooledUpload file, String targetAudience, String documentKey,
+                                                     ConversionProgress progress, ConversionRecorder recorder) {
+        if (documentKey == null || !incrementalConverter.isEnabled()) {
+            return buildPresentationAsync(file, targetAudience, progress, recorder);
         }
+
+        Function<String, Mono<String>> llm = prompt -> pipeline.complete(prompt, recorder);
+        return Mono.defer(() -> {
+                    progress.stage(ConversionStage.PARSING);
+                    return incrementalConverter.convert(documentKey,
+                            FLOW + '\n' + llmClient.getModel() + '\n' + targetAudience, file,
+                            sheetNames -> {
+                                Map<String, Map<String, Object>> sheetsInfo = new HashMap<>();
+                                for (Map<String, Object> sheetInfo : HeadersOnlyPipeline.sheetsInfo(headersOnly.parseMetadata(file, sheetNames::contains))) {
+                                    sheetsInfo.put((String) sheetInfo.get("sheetName"), sheetInfo);
+                                }
+                                return sheetsInfo;
+                            },
+                            HeadersOnlyPipeline::sheetInfoWeight,
+                            sheetInfo -> pipeline.prompt(headersOnly, targetAudience, List.of(sheetInfo)),
+                            llm, pipeline::parseSlides, recorder);
+                })
+                .flatMap(sheets -> {
+                    Mono<List<SlideData>> overview = sheets.size() > 1
+                            ? mapReduceGenerator.reduce(
+                                    sheets.stream().map(ConvertedSheet::getSheetName).collect(Collectors.toList()),
+                                    sheets.stream().map(ConvertedSheet::getOutline).collect(Collectors.toList()), llm).map(List::of)
+                            : Mono.just(List.of());
+                    return overview.flatMap(overviewSlides -> {
+                        List<SlideData> slides = new ArrayList<>(overviewSlides);
+                        sheets.forEach(sheet -> slides.addAll(sheet.getOutline()));
+                        return pipeline.render(headersOnly, null, slides, progress, recorder);
+                    });
+                });
+    }
+
+    public void writePresentation(XMLSlideShow ppt, OutputStream out, ConversionRecorder recorder) throws IOException {
+        pipeline.write(ppt, out, recorder);
+    }
+
+    public Mono<Path> writePresentation(XMLSlideShow ppt, String filePrefix, ConversionRecorder recorder) {
+        return pipeline.emitToFile(ppt, filePrefix, recorder);
+    }
+
+    // Non-blocking variant: every stage runs on its pipeline pool, the LLM call never holds a thread
+    public Mono<byte[]> convertToPptReactive(MultipartFile file, String targetAudience) {
+        return convertToPptReactive(file, targetAudience, LlmScheduler.DEFAULT_TENANT);
+    }
+
+    public Mono<byte[]> convertToPptReactive(MultipartFile file, String targetAudience, String tenant) {
+        return Mono.using(() -> startConversion(UUID.randomUUID().toString(), tenant),
+                recorder -> pipeline.convert(headersOnly, file, targetAudience, ConversionProgress.NONE, recorder),
+                ConversionRecorder::close);
+    }
+
+    String buildPrompt(Map<String, Object> metadata, String targetAudience) {
+        return pipeline.prompt(headersOnly, targetAudience, HeadersOnlyPipeline.sheetsInfo(metadata));
+    }
+
+    // Header-only slides are text, drawn without the workbook model
+    XMLSlideShow renderSlides(List<SlideData> slides) {
+        return pipeline.render(headersOnly, null, slides);
     }
 
-    private String callOpenAI(String prompt) throws Exception {
-        ObjectMapper mapper = new ObjectMapper();
-        Map<String, Object> request = Map.of(
-                "model", "gpt-3.5-turbo",
-//                "model", "gpt-4-turbo",
-                "messages", List.of(Map.of("role", "user", "content", prompt)),
-                "max_tokens", 1000
-        );
-        String requestBody = mapper.writeValueAsString(request);
-
-        Mono<String> response = webClient.post()
-                .uri("/v1/chat/completions")
-                .header("Authorization", "Bearer " + openaiApiKey)
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(requestBody)
-                .retrieve()
-                .bodyToMono(String.class);
-
-        String result = response.block();
-
-        // Extract content from OpenAI response
-        ObjectMapper responseMapper = new ObjectMapper();
-        Map<String, Object> responseMap = responseMapper.readValue(result, Map.class);
-        List<Map<String, Object>> choices = (List<Map<String, Object>>) responseMap.get("choices");
-        Map<String, Object> message = (Map<String, Object>) choices.get(0).get("message");
-
-        return (String) message.get("content");
+    Map<String, Object> parseSpreadsheetMetadata(SpooledUpload file) throws Exception {
+        return headersOnly.parseMetadata(file);
     }
 
 }
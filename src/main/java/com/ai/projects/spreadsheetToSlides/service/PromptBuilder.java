@@ -0,0 +1,127 @@
+package com.ai.projects.spreadsheetToSlides.service;
+
+import com.ai.projects.spreadsheetToSlides.model.ColumnProfile;
+import com.ai.projects.spreadsheetToSlides.model.SheetProfile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns sheet profiles into prompt text that fits a token budget. Column summaries are included
+ * first; whatever budget is left is shared evenly between the sheets for sample rows.
+ */
+@Component
+public class PromptBuilder {
+
+    // Rough average for English text and numbers with the OpenAI tokenizers
+    public static final int CHARS_PER_TOKEN = 4;
+
+    @Value("${conversion.prompt.token-budget:2000}")
+    private int tokenBudget;
+
+    public static int estimateTokens(String text) {
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    public String buildDataPrompt(String instructions, List<SheetProfile> profiles) {
+        int remaining = tokenBudget * CHARS_PER_TOKEN - instructions.length();
+        StringBuilder prompt = new StringBuilder(instructions).append('\n');
+
+        List<String> summaries = new ArrayList<>();
+        for (SheetProfile profile : profiles) {
+            summaries.add(describeSheet(profile));
+        }
+
+        // Column summaries take priority over sample rows
+        int included = 0;
+        for (int i = 0; i < summaries.size(); i++) {
+            String summary = summaries.get(i);
+            if (summary.length() > remaining) {
+                // Keep the columns of this sheet that still fit, then stop
+                int cut = remaining > 0 ? summary.lastIndexOf('\n', remaining - 1) : -1;
+                if (cut > 0) {
+                    summaries.set(i, summary.substring(0, cut + 1));
+                    remaining -= cut + 1;
+                    included++;
+                }
+                break;
+            }
+            remaining -= summary.length();
+            included++;
+        }
+
+        for (int i = 0; i < included; i++) {
+            prompt.append(summaries.get(i));
+            int allowance = Math.max(remaining, 0) / (included - i);
+            int used = appendSampleRows(prompt, profiles.get(i).getSampleRows(), allowance);
+            remaining -= used;
+        }
+        if (included < profiles.size()) {
+            prompt.append("(").append(profiles.size() - included).append(" more sheets omitted)\n");
+        }
+        return prompt.toString();
+    }
+
+    private int appendSampleRows(StringBuilder prompt, List<String> sampleRows, int allowance) {
+        String heading = "Sample rows:\n";
+        if (sampleRows.isEmpty() || heading.length() + sampleRows.get(0).length() + 1 > allowance) {
+            return 0;
+        }
+        int used = heading.length();
+        prompt.append(heading);
+        for (String row : sampleRows) {
+            if (used + row.length() + 1 > allowance) break;
+            prompt.append(row).append('\n');
+            used += row.length() + 1;
+        }
+        return used;
+    }
+
+    private String describeSheet(SheetProfile profile) {
+        StringBuilder text = new StringBuilder();
+        text.append("Sheet: ").append(profile.getSheetName())
+                .append(" (").append(profile.getRowCount()).append(" rows)\n");
+        for (ColumnProfile column : profile.getColumns()) {
+            text.append("- ").append(column.getHeader()).append(" [")
+                    .append(column.getType().name().toLowerCase()).append("]: ")
+                    .append(column.getCount()).append(" values, ")
+                    .append(column.getNulls()).append(" empty");
+            if (column.getNumericCount() > 0) {
+                text.append("; min ").append(formatNumber(column.getMin()))
+                        .append(", max ").append(formatNumber(column.getMax()))
+                        .append(", mean ").append(formatNumber(column.getMean()))
+                        .append(", quartiles ").append(formatNumber(column.getP25()))
+                        .append(" / ").append(formatNumber(column.getMedian()))
+                        .append(" / ").append(formatNumber(column.getP75()));
+            }
+            if (column.getFirstDate() != null) {
+                SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+                text.append("; dates ").append(dateFormat.format(column.getFirstDate()))
+                        .append(" to ").append(dateFormat.format(column.getLastDate()));
+            }
+            if (!column.getTopValues().isEmpty()) {
+                text.append("; top values ");
+                List<String> topValues = new ArrayList<>();
+                for (Map.Entry<String, Long> entry : column.getTopValues()) {
+                    topValues.add(entry.getKey() + " (" + entry.getValue() + ")");
+                }
+                text.append(String.join(", ", topValues));
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+
+    static String formatNumber(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return String.valueOf(value);
+        }
+        return new BigDecimal(value).round(new MathContext(6)).stripTrailingZeros().toPlainString();
+    }
+}
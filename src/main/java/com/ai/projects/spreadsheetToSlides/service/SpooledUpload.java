@@ -0,0 +1,132 @@
+package com.ai.projects.spreadsheetToSlides.service;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.InputStreamSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * An uploaded workbook owned by the conversion: small uploads stay in memory, larger ones are
+ * spooled to a temp file that is deleted on {@link #close()}. File-backed packages are opened
+ * with random access so POI only inflates the parts it actually reads.
+ */
+public class SpooledUpload implements InputStreamSource, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SpooledUpload.class);
+
+    private final String filename;
+    private final byte[] bytes;
+    private final Path file;
+    private final long size;
+    private volatile String contentHash;
+
+    SpooledUpload(String filename, byte[] bytes) {
+        this.filename = filename;
+        this.bytes = bytes;
+        this.file = null;
+        this.size = bytes.length;
+    }
+
+    SpooledUpload(String filename, Path file, long size) {
+        this(filename, file, size, null);
+    }
+
+    // contentHash may be null, or the hash already computed while the file was written
+    SpooledUpload(String filename, Path file, long size, String contentHash) {
+        this.filename = filename;
+        this.bytes = null;
+        this.file = file;
+        this.size = size;
+        this.contentHash = contentHash;
+    }
+
+    public String getFilename() { return filename; }
+
+    public long getSize() { return size; }
+
+    // Null when the upload is held in memory
+    public Path getFile() { return file; }
+
+    // Hex SHA-256 of the upload's bytes, computed on first use unless spooling already did
+    public String getContentHash() throws IOException {
+        String hash = contentHash;
+        if (hash == null) {
+            MessageDigest digest = newDigest();
+            if (bytes != null) {
+                digest.update(bytes);
+            } else {
+                try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+                    in.transferTo(OutputStream.nullOutputStream());
+                }
+            }
+            hash = HexFormat.of().formatHex(digest.digest());
+            contentHash = hash;
+        }
+        return hash;
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return file != null ? Files.newInputStream(file) : new ByteArrayInputStream(bytes);
+    }
+
+    public OPCPackage openPackage() throws Exception {
+        if (file != null) {
+            return OPCPackage.open(file.toFile(), PackageAccess.READ);
+        }
+        return OPCPackage.open(new ByteArrayInputStream(bytes));
+    }
+
+    // Legacy .xls container; file-backed ones are read in place rather than loaded into memory
+    public POIFSFileSystem openFileSystem() throws IOException {
+        if (file != null) {
+            return new POIFSFileSystem(file.toFile(), true);
+        }
+        return new POIFSFileSystem(new ByteArrayInputStream(bytes));
+    }
+
+    // For readers that fill their own buffers, e.g. CSV
+    public ReadableByteChannel openChannel() throws IOException {
+        if (file != null) {
+            return FileChannel.open(file, StandardOpenOption.READ);
+        }
+        return Channels.newChannel(new ByteArrayInputStream(bytes));
+    }
+
+    @Override
+    public void close() {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled upload {}", file, e);
+        }
+    }
+}
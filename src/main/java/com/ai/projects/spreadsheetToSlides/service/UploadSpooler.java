@@ -0,0 +1,84 @@
+package com.ai.projects.spreadsheetToSlides.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+@Component
+public class UploadSpooler {
+
+    private final long spoolThreshold;
+    private final long maxSize;
+    private final Path spoolDirectory;
+
+    public UploadSpooler(@Value("${upload.spool-threshold:1MB}") DataSize spoolThreshold,
+                         @Value("${upload.max-size:200MB}") DataSize maxSize,
+                         @Value("${upload.spool-directory:${java.io.tmpdir}}") String spoolDirectory) {
+        this.spoolThreshold = spoolThreshold.toBytes();
+        this.maxSize = maxSize.toBytes();
+        this.spoolDirectory = Paths.get(spoolDirectory);
+    }
+
+    public SpooledUpload spool(MultipartFile file) throws IOException {
+        if (file.getSize() > maxSize) {
+            throw new MaxUploadSizeExceededException(maxSize);
+        }
+        if (file.getSize() <= spoolThreshold) {
+            return new SpooledUpload(file.getOriginalFilename(), file.getBytes());
+        }
+        Path spooled = createSpoolFile();
+        try {
+            // Lets the container move its own temp file instead of copying when it can
+            file.transferTo(spooled);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spooled);
+            throw e;
+        }
+        return new SpooledUpload(file.getOriginalFilename(), spooled, file.getSize());
+    }
+
+    // For uploads of unknown size, e.g. zip entries: buffered in memory up to the threshold, then spilled to disk
+    public SpooledUpload spool(String filename, InputStream in) throws IOException {
+        byte[] head = in.readNBytes((int) Math.min(spoolThreshold + 1, Integer.MAX_VALUE - 8));
+        if (head.length <= spoolThreshold) {
+            return new SpooledUpload(filename, head);
+        }
+        Path spooled = createSpoolFile();
+        // The bytes pass through here anyway, so the content hash comes for free
+        MessageDigest digest = SpooledUpload.newDigest();
+        try (OutputStream out = new DigestOutputStream(Files.newOutputStream(spooled), digest)) {
+            out.write(head);
+            long size = head.length;
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                size += read;
+                if (size > maxSize) {
+                    throw new MaxUploadSizeExceededException(maxSize);
+                }
+                out.write(buffer, 0, read);
+            }
+            return new SpooledUpload(filename, spooled, size, HexFormat.of().formatHex(digest.digest()));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spooled);
+            throw e;
+        }
+    }
+
+    private Path createSpoolFile() throws IOException {
+        Files.createDirectories(spoolDirectory);
+        return Files.createTempFile(spoolDirectory, "upload-", ".xlsx");
+    }
+}
@@ -0,0 +1,5 @@
+package com.ai.projects.spreadsheetToSlides.service.aggregate;
+
+public enum Aggregation {
+    SUM, COUNT, AVG, MIN, MAX
+}
@@ -0,0 +1,173 @@
+package com.ai.projects.spreadsheetToSlides.service.aggregate;
+
+import com.ai.projects.spreadsheetToSlides.model.CellKind;
+import com.ai.projects.spreadsheetToSlides.model.ColumnData;
+import com.ai.projects.spreadsheetToSlides.model.ColumnType;
+import com.ai.projects.spreadsheetToSlides.model.SheetData;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Group-by over the columnar sheet model. Keys are the ints a {@link GroupKey} reads per row, packed
+ * into one long and mapped to a dense group number by a primitive hash map; the count, sum, min and
+ * max of every group live in flat arrays, so a row costs one probe and no allocation.
+ */
+public final class GroupByAggregator {
+
+    private static final int INITIAL_GROUPS = 64;
+    // Pre-sizing beyond this costs more memory than the rehashes it saves
+    private static final int MAX_PRESIZED_GROUPS = 1 << 20;
+
+    private GroupByAggregator() {
+    }
+
+    // Groups the first rowCount rows by one or two keys; valueColumn may be null to only count rows
+    public static GroupedTable aggregate(List<GroupKey> keys, ColumnData valueColumn, int rowCount) {
+        if (keys.isEmpty() || keys.size() > 2) {
+            throw new IllegalArgumentException("Group by one or two keys, not " + keys.size());
+        }
+        GroupKey first = keys.get(0);
+        GroupKey second = keys.size() == 2 ? keys.get(1) : null;
+
+        int expectedGroups = expectedGroups(keys, rowCount);
+        LongIntHashMap groups = new LongIntHashMap(expectedGroups);
+        long[] packedKeys = new long[expectedGroups];
+        long[] counts = new long[expectedGroups];
+        double[] sums = new double[expectedGroups];
+        double[] mins = new double[expectedGroups];
+        double[] maxes = new double[expectedGroups];
+        for (int row = 0; row < rowCount; row++) {
+            int firstKey = first.keyAt(row);
+            if (firstKey == GroupKey.NO_KEY) continue;
+            long packed = firstKey;
+            if (second != null) {
+                int secondKey = second.keyAt(row);
+                if (secondKey == GroupKey.NO_KEY) continue;
+                packed = pack(firstKey, secondKey);
+            }
+
+            int groupCount = groups.size();
+            int group = groups.getOrAdd(packed);
+            if (group == groupCount) {
+                if (group == packedKeys.length) {
+                    int capacity = packedKeys.length * 2;
+                    packedKeys = Arrays.copyOf(packedKeys, capacity);
+                    counts = Arrays.copyOf(counts, capacity);
+                    sums = Arrays.copyOf(sums, capacity);
+                    mins = Arrays.copyOf(mins, capacity);
+                    maxes = Arrays.copyOf(maxes, capacity);
+                }
+                packedKeys[group] = packed;
+                mins[group] = Double.POSITIVE_INFINITY;
+                maxes[group] = Double.NEGATIVE_INFINITY;
+            }
+
+            if (valueColumn == null) {
+                counts[group]++;
+            } else if (valueColumn.isNumeric(row)) {
+                double value = valueColumn.getNumber(row);
+                counts[group]++;
+                sums[group] += value;
+                mins[group] = Math.min(mins[group], value);
+                maxes[group] = Math.max(maxes[group], value);
+            }
+        }
+        return sorted(keys, groups, packedKeys, counts, sums, mins, maxes);
+    }
+
+    /**
+     * The series a chart of this sheet shows: the first numeric column summed per value of the first
+     * text column or, failing that, per time bucket of the first date column. Null when the sheet has
+     * no such pair of columns.
+     */
+    public static GroupedTable chartSeries(SheetData sheet) {
+        return chartSeries(sheet, null);
+    }
+
+    /**
+     * As {@link #chartSeries(SheetData)}, summing the numeric column headed {@code valueHeader} instead
+     * of the first one; null when the sheet has no numeric column of that name.
+     */
+    public static GroupedTable chartSeries(SheetData sheet, String valueHeader) {
+        GroupKey key = null;
+        for (ColumnData column : sheet.getColumns()) {
+            if (column.getType() == ColumnType.TEXT) {
+                key = GroupKey.text(column);
+                break;
+            }
+        }
+        if (key == null) {
+            for (ColumnData column : sheet.getColumns()) {
+                if (column.getDateCount() > column.getNumericCount()) {
+                    key = GroupKey.time(column, bucketFor(column), sheet.isDate1904());
+                    break;
+                }
+            }
+        }
+        if (key == null) {
+            return null;
+        }
+
+        for (ColumnData column : sheet.getColumns()) {
+            if (column != key.getColumn() && column.getType() == ColumnType.NUMERIC && column.getNumericCount() > 0
+                    && (valueHeader == null || valueHeader.equalsIgnoreCase(column.getHeader()))) {
+                return aggregate(List.of(key), column, sheet.getRowCount());
+            }
+        }
+        return null;
+    }
+
+    private static int expectedGroups(List<GroupKey> keys, int rowCount) {
+        long groups = 1;
+        for (GroupKey key : keys) {
+            groups *= key.cardinality() > 0 ? key.cardinality() : INITIAL_GROUPS;
+        }
+        return (int) Math.max(INITIAL_GROUPS, Math.min(groups, Math.min(rowCount, MAX_PRESIZED_GROUPS)));
+    }
+
+    private static TimeBucket bucketFor(ColumnData column) {
+        double first = Double.POSITIVE_INFINITY;
+        double last = Double.NEGATIVE_INFINITY;
+        for (int row = 0; row < column.size(); row++) {
+            if (column.getKind(row) == CellKind.DATE) {
+                first = Math.min(first, column.getNumber(row));
+                last = Math.max(last, column.getNumber(row));
+            }
+        }
+        return TimeBucket.forSpan((long) Math.floor(first), (long) Math.floor(last));
+    }
+
+    // Packed keys compare like (first, second) as signed longs, so sorting them orders the groups
+    private static long pack(int first, int second) {
+        return ((long) first << 32) | ((second ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+    }
+
+    private static GroupedTable sorted(List<GroupKey> keys, LongIntHashMap groups, long[] packedKeys,
+                                       long[] counts, double[] sums, double[] mins, double[] maxes) {
+        int size = groups.size();
+        long[] order = Arrays.copyOf(packedKeys, size);
+        Arrays.sort(order);
+
+        int[][] groupKeys = new int[keys.size()][size];
+        long[] sortedCounts = new long[size];
+        double[] sortedSums = new double[size];
+        double[] sortedMins = new double[size];
+        double[] sortedMaxes = new double[size];
+        for (int i = 0; i < size; i++) {
+            long packed = order[i];
+            if (keys.size() == 1) {
+                groupKeys[0][i] = (int) packed;
+            } else {
+                groupKeys[0][i] = (int) (packed >> 32);
+                groupKeys[1][i] = (int) packed ^ Integer.MIN_VALUE;
+            }
+            int group = groups.get(packed);
+            sortedCounts[i] = counts[group];
+            sortedSums[i] = sums[group];
+            sortedMins[i] = mins[group];
+            sortedMaxes[i] = maxes[group];
+        }
+        return new GroupedTable(keys, groupKeys, sortedCounts, sortedSums, sortedMins, sortedMaxes);
+    }
+}
@@ -0,0 +1,76 @@
+package com.ai.projects.spreadsheetToSlides.service.aggregate;
+
+import com.ai.projects.spreadsheetToSlides.model.CellKind;
+import com.ai.projects.spreadsheetToSlides.model.ColumnData;
+
+/**
+ * A column to group by, read as an int per row: the dictionary id of a text cell, or the
+ * {@link TimeBucket} of a date cell. Rows without a usable value have no key and are skipped.
+ * A key remembers the last date it bucketed, so it belongs to one aggregation at a time.
+ */
+public final class GroupKey {
+
+    static final int NO_KEY = Integer.MIN_VALUE;
+
+    // Excel serial day of 1970-01-01 in the 1900 and 1904 date systems
+    private static final int EPOCH_SERIAL_1900 = 25569;
+    private static final int EPOCH_SERIAL_1904 = 24107;
+
+    private final ColumnData column;
+    private final TimeBucket bucket;
+    private final int epochSerial;
+    private final int blankId;
+    // Dates arrive in runs of the same day, so the last conversion is usually the one needed
+    private long lastEpochDay = Long.MIN_VALUE;
+    private int lastBucket;
+
+    private GroupKey(ColumnData column, TimeBucket bucket, boolean date1904) {
+        this.column = column;
+        this.bucket = bucket;
+        this.epochSerial = date1904 ? EPOCH_SERIAL_1904 : EPOCH_SERIAL_1900;
+        // Compared by id so the text itself is never touched per row
+        this.blankId = column.getDictionary() != null ? column.getDictionary().find("") : -1;
+    }
+
+    public static GroupKey text(ColumnData column) {
+        return new GroupKey(column, null, false);
+    }
+
+    public static GroupKey time(ColumnData column, TimeBucket bucket, boolean date1904) {
+        return new GroupKey(column, bucket, date1904);
+    }
+
+    public ColumnData getColumn() { return column; }
+
+    public TimeBucket getBucket() { return bucket; }
+
+    // Distinct keys there can be, or 0 when only a pass over the rows would tell
+    int cardinality() {
+        return bucket == null && column.getDictionary() != null ? column.getDictionary().size() : 0;
+    }
+
+    int keyAt(int row) {
+        CellKind kind = column.getKind(row);
+        if (bucket == null) {
+            return kind == CellKind.STRING && column.getTextId(row) != blankId ? column.getTextId(row) : NO_KEY;
+        }
+        // Serials before March 1900 are a day off because of Excel's phantom 29 February; no sheet charts those
+        if (kind != CellKind.DATE) {
+            return NO_KEY;
+        }
+        long epochDay = epochDay(column.getNumber(row));
+        if (epochDay != lastEpochDay) {
+            lastBucket = bucket.bucket(epochDay);
+            lastEpochDay = epochDay;
+        }
+        return lastBucket;
+    }
+
+    String label(int key) {
+        return bucket == null ? column.getDictionary().decode(key) : bucket.label(key);
+    }
+
+    long epochDay(double serial) {
+        return (long) Math.floor(serial) - epochSerial;
+    }
+}
@@ -0,0 +1,76 @@
+package com.ai.projects.spreadsheetToSlides.service.aggregate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a {@link GroupByAggregator} run: one row per group, ordered by the first key and then
+ * the second. Text keys keep the order their values first appeared in; time keys run oldest first.
+ */
+public class GroupedTable {
+    private final List<GroupKey> keys;
+    private final int[][] groupKeys;
+    private final long[] counts;
+    private final double[] sums;
+    private final double[] mins;
+    private final double[] maxes;
+
+    GroupedTable(List<GroupKey> keys, int[][] groupKeys, long[] counts, double[] sums, double[] mins, double[] maxes) {
+        this.keys = keys;
+        this.groupKeys = groupKeys;
+        this.counts = counts;
+        this.sums = sums;
+        this.mins = mins;
+        this.maxes = maxes;
+    }
+
+    public int size() { return counts.length; }
+
+    public String getKeyLabel(int group, int key) {
+        return keys.get(key).label(groupKeys[key][group]);
+    }
+
+    // Key labels of the group joined with " / ", e.g. "North / 2024-03"
+    public String getLabel(int group) {
+        StringBuilder label = new StringBuilder(getKeyLabel(group, 0));
+        for (int key = 1; key < keys.size(); key++) {
+            label.append(" / ").append(getKeyLabel(group, key));
+        }
+        return label.toString();
+    }
+
+    public List<String> getLabels() {
+        List<String> labels = new ArrayList<>(size());
+        for (int group = 0; group < size(); group++) {
+            labels.add(getLabel(group));
+        }
+        return labels;
+    }
+
+    // Rows in the group that had a value, or every row of the group when there is no value column
+    public long getCount(int group) { return counts[group]; }
+
+    // SUM, MIN and MAX are 0 and AVG is NaN for a group none of whose rows had a value
+    public double getValue(int group, Aggregation aggregation) {
+        switch (aggregation) {
+            case COUNT:
+                return counts[group];
+            case AVG:
+                return counts[group] == 0 ? Double.NaN : sums[group] / counts[group];
+            case MIN:
+                return counts[group] == 0 ? 0 : mins[group];
+            case MAX:
+                return counts[group] == 0 ? 0 : maxes[group];
+            default:
+                return sums[group];
+        }
+    }
+
+    public double[] getValues(Aggregation aggregation) {
+        double[] values = new double[size()];
+        for (int group = 0; group < values.length; group++) {
+            values[group] = getValue(group, aggregation);
+        }
+        return values;
+    }
+}
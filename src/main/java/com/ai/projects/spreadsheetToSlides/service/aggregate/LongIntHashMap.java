@@ -0,0 +1,76 @@
+package com.ai.projects.spreadsheetToSlides.service.aggregate;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from packed group keys to dense group numbers, assigned in insertion order.
+ * Linear probing over two flat arrays, so a lookup is a multiply, a fold and usually one compare.
+ */
+final class LongIntHashMap {
+    private static final int EMPTY = -1;
+
+    private long[] keys;
+    private int[] groups;
+    private int mask;
+    private int size;
+
+    LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2) - 1) << 1;
+        allocate(capacity);
+    }
+
+    int size() { return size; }
+
+    int get(long key) {
+        int slot = slot(key);
+        while (groups[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return groups[slot];
+    }
+
+    // Group number of the key, adding it as the next group when it is new
+    int getOrAdd(long key) {
+        int slot = slot(key);
+        while (groups[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return groups[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        groups[slot] = size;
+        if (++size * 2 > keys.length) {
+            rehash();
+        }
+        return size - 1;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldGroups = groups;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldGroups[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                while (groups[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                groups[slot] = oldGroups[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        groups = new int[capacity];
+        Arrays.fill(groups, EMPTY);
+        mask = capacity - 1;
+    }
+}
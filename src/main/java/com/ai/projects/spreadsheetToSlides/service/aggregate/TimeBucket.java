@@ -0,0 +1,51 @@
+package com.ai.projects.spreadsheetToSlides.service.aggregate;
+
+import java.time.LocalDate;
+
+/**
+ * Calendar buckets for date columns. A bucket id grows with time, so sorting ids sorts the buckets
+ * chronologically; weeks start on Monday and are labelled with that Monday's date.
+ */
+public enum TimeBucket {
+    DAY, WEEK, MONTH, QUARTER, YEAR;
+
+    public int bucket(long epochDay) {
+        switch (this) {
+            case DAY:
+                return (int) epochDay;
+            case WEEK:
+                // 1970-01-01 was a Thursday, so Monday-based weeks start three days earlier
+                return (int) Math.floorDiv(epochDay + 3, 7);
+            default:
+                LocalDate date = LocalDate.ofEpochDay(epochDay);
+                if (this == MONTH) return date.getYear() * 12 + date.getMonthValue() - 1;
+                if (this == QUARTER) return date.getYear() * 4 + (date.getMonthValue() - 1) / 3;
+                return date.getYear();
+        }
+    }
+
+    public String label(int bucket) {
+        switch (this) {
+            case DAY:
+                return LocalDate.ofEpochDay(bucket).toString();
+            case WEEK:
+                return LocalDate.ofEpochDay(bucket * 7L - 3).toString();
+            case MONTH:
+                return String.format("%d-%02d", Math.floorDiv(bucket, 12), Math.floorMod(bucket, 12) + 1);
+            case QUARTER:
+                return Math.floorDiv(bucket, 4) + "-Q" + (Math.floorMod(bucket, 4) + 1);
+            default:
+                return String.valueOf(bucket);
+        }
+    }
+
+    // Coarsest bucket that still leaves a readable number of points for the span between two days
+    public static TimeBucket forSpan(long firstEpochDay, long lastEpochDay) {
+        long days = lastEpochDay - firstEpochDay;
+        if (days <= 31) return DAY;
+        if (days <= 182) return WEEK;
+        if (days <= 3 * 366) return MONTH;
+        if (days <= 12 * 366) return QUARTER;
+        return YEAR;
+    }
+}
@@ -0,0 +1,200 @@
+package com.ai.projects.spreadsheetToSlides.service.coalesce;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Single-flight for conversions. Concurrent requests with the same request key (upload content,
+ * audience, model) share one in-flight conversion and all receive its deck, or its failure.
+ *
+ * <p>Requests may also carry an idempotency key. Its deck is kept for the configured time, so a
+ * retry gets the same bytes without converting again; reusing a key for a different request is
+ * rejected with 422. Retained decks are bounded by total size, oldest dropped first.
+ *
+ * <p>Coalescing requests without an idempotency key is off by default: the shared deck is a byte[], so
+ * those requests would lose the streamed response.
+ */
+@Component
+public class ConversionCoalescer {
+
+    private final boolean enabled;
+    private final long idempotencyTtlNanos;
+    private final long maxRetained;
+
+    private final Map<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+    // Idempotency keys of running conversions, mapped to their request key
+    private final Map<String, String> inFlightIdempotencyKeys = new ConcurrentHashMap<>();
+    // Insertion order is expiry order, since every entry lives for the same time
+    private final LinkedHashMap<String, Retained> retained = new LinkedHashMap<>();
+    private long retainedBytes;
+
+    private final Counter coalesced;
+    private final Counter replayed;
+
+    public ConversionCoalescer(@Value("${conversion.coalescing.enabled:false}") boolean enabled,
+                               @Value("${conversion.coalescing.idempotency-ttl:10m}") Duration idempotencyTtl,
+                               @Value("${conversion.coalescing.max-retained:128MB}") DataSize maxRetained,
+                               MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.idempotencyTtlNanos = idempotencyTtl.toNanos();
+        this.maxRetained = maxRetained.toBytes();
+        this.coalesced = Counter.builder("conversion.coalesced").tag("source", "in-flight").register(meterRegistry);
+        this.replayed = Counter.builder("conversion.coalesced").tag("source", "idempotency-key").register(meterRegistry);
+        Gauge.builder("conversion.coalescing.in-flight", inFlight, Map::size).register(meterRegistry);
+    }
+
+    // Without an idempotency key and with coalescing off, callers can skip the coalescer entirely
+    public boolean applies(String idempotencyKey) {
+        return enabled || idempotencyKey != null;
+    }
+
+    public byte[] execute(String requestKey, String idempotencyKey, Callable<byte[]> conversion) throws Exception {
+        boolean registered = false;
+        if (idempotencyKey != null) {
+            byte[] deck = replay(requestKey, idempotencyKey);
+            if (deck != null) {
+                return deck;
+            }
+            String running = inFlightIdempotencyKeys.putIfAbsent(idempotencyKey, requestKey);
+            if (running != null && !running.equals(requestKey)) {
+                throw keyReused();
+            }
+            registered = running == null;
+        }
+        // With coalescing off, only retries of the same idempotency key share a conversion
+        String flightKey = enabled ? requestKey : "idempotency-key\n" + idempotencyKey;
+        CompletableFuture<byte[]> flight = new CompletableFuture<>();
+        CompletableFuture<byte[]> leader = inFlight.putIfAbsent(flightKey, flight);
+        try {
+            byte[] deck;
+            if (leader != null) {
+                coalesced.increment();
+                deck = await(leader);
+            } else {
+                deck = conversion.call();
+            }
+            if (registered) {
+                // Retained before the flight ends, so a retry finds one or the other
+                retain(idempotencyKey, requestKey, deck);
+            }
+            flight.complete(deck);
+            return deck;
+        } catch (Throwable e) {
+            // Errors too, or the followers would wait forever
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            if (leader == null) {
+                inFlight.remove(flightKey, flight);
+            }
+            if (registered) {
+                inFlightIdempotencyKeys.remove(idempotencyKey, requestKey);
+            }
+        }
+    }
+
+    public boolean isEnabled() { return enabled; }
+
+    public double getCoalesced() { return coalesced.count(); }
+
+    public double getReplayed() { return replayed.count(); }
+
+    public long getRetainedBytes() {
+        synchronized (retained) {
+            return retainedBytes;
+        }
+    }
+
+    private byte[] replay(String requestKey, String idempotencyKey) {
+        synchronized (retained) {
+            expire(System.nanoTime());
+            Retained entry = retained.get(idempotencyKey);
+            if (entry == null) {
+                return null;
+            }
+            if (!entry.requestKey.equals(requestKey)) {
+                throw keyReused();
+            }
+            replayed.increment();
+            return entry.deck;
+        }
+    }
+
+    private void retain(String idempotencyKey, String requestKey, byte[] deck) {
+        if (deck.length > maxRetained) {
+            return;
+        }
+        long now = System.nanoTime();
+        synchronized (retained) {
+            Retained replaced = retained.remove(idempotencyKey);
+            retainedBytes -= replaced != null ? replaced.deck.length : 0;
+            retained.put(idempotencyKey, new Retained(requestKey, deck, now + idempotencyTtlNanos));
+            retainedBytes += deck.length;
+            expire(now);
+            Iterator<Retained> oldest = retained.values().iterator();
+            while (retainedBytes > maxRetained && oldest.hasNext()) {
+                retainedBytes -= oldest.next().deck.length;
+                oldest.remove();
+            }
+        }
+    }
+
+    // Caller holds the lock
+    private void expire(long now) {
+        Iterator<Retained> oldest = retained.values().iterator();
+        while (oldest.hasNext()) {
+            Retained entry = oldest.next();
+            if (entry.expiresAt - now > 0) {
+                return;
+            }
+            retainedBytes -= entry.deck.length;
+            oldest.remove();
+        }
+    }
+
+    private static byte[] await(CompletableFuture<byte[]> flight) throws Exception {
+        try {
+            return flight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            // The leader's own exception, so every request maps to the same status
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static ResponseStatusException keyReused() {
+        return new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key was already used for a different request");
+    }
+
+    private static class Retained {
+        private final String requestKey;
+        private final byte[] deck;
+        private final long expiresAt;
+
+        Retained(String requestKey, byte[] deck, long expiresAt) {
+            this.requestKey = requestKey;
+            this.deck = deck;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
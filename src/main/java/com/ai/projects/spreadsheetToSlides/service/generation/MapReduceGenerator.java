@@ -0,0 +1,106 @@
+package com.ai.projects.spreadsheetToSlides.service.generation;
+
+import com.ai.projects.spreadsheetToSlides.model.SlideData;
+import com.ai.projects.spreadsheetToSlides.service.slides.IncrementalSlideParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Map-reduce generation for multi-sheet workbooks. Sheets are grouped into bounded prompts that
+ * are sent concurrently (map), and the per-group outlines are joined in sheet order behind one
+ * overview slide (reduce). Wall-clock time follows the slowest group instead of the sum, and no
+ * single completion has to cover the whole workbook.
+ */
+@Component
+public class MapReduceGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(MapReduceGenerator.class);
+
+    private static final int MAX_OVERVIEW_LINES = 12;
+
+    private final boolean enabled;
+    private final int minSheets;
+    private final int sheetsPerPrompt;
+    private final int parallelism;
+    private final boolean llmReduce;
+
+    public MapReduceGenerator(@Value("${conversion.map-reduce.enabled:true}") boolean enabled,
+                              @Value("${conversion.map-reduce.min-sheets:4}") int minSheets,
+                              @Value("${conversion.map-reduce.sheets-per-prompt:2}") int sheetsPerPrompt,
+                              @Value("${conversion.map-reduce.parallelism:4}") int parallelism,
+                              @Value("${conversion.map-reduce.reduce:deterministic}") String reduce) {
+        this.enabled = enabled;
+        this.minSheets = minSheets;
+        this.sheetsPerPrompt = Math.max(1, sheetsPerPrompt);
+        this.parallelism = Math.max(1, parallelism);
+        this.llmReduce = "llm".equalsIgnoreCase(reduce);
+    }
+
+    public boolean applies(int sheetCount) {
+        return enabled && sheetCount >= minSheets;
+    }
+
+    public <S> List<List<S>> partition(List<S> sheets) {
+        List<List<S>> groups = new ArrayList<>();
+        for (int i = 0; i < sheets.size(); i += sheetsPerPrompt) {
+            groups.add(sheets.subList(i, Math.min(sheets.size(), i + sheetsPerPrompt)));
+        }
+        return groups;
+    }
+
+    // Runs up to `parallelism` prompts at once; results are emitted in prompt order as soon as they are available
+    public Flux<String> map(List<String> prompts, Function<String, Mono<String>> llm) {
+        return Flux.fromIterable(prompts).flatMapSequential(llm, parallelism);
+    }
+
+    /**
+     * Builds the overview slide from the section labels and the titles of their slides. With the
+     * "llm" reducer it is written by one short completion, falling back to the local version if that fails.
+     */
+    public Mono<SlideData> reduce(List<String> labels, List<List<SlideData>> outlines, Function<String, Mono<String>> llm) {
+        SlideData overview = overview(labels, outlines);
+        if (!llmReduce) {
+            return Mono.just(overview);
+        }
+
+        StringBuilder prompt = new StringBuilder("Write a single overview slide introducing a presentation with the sections below. ")
+                .append("Reply with the slide title on the first line followed by at most 6 bullet points.\n");
+        for (String line : overview.getContent()) {
+            prompt.append("- ").append(line).append('\n');
+        }
+        return llm.apply(prompt.toString())
+                .map(response -> IncrementalSlideParser.parse(response).get(0))
+                .onErrorResume(e -> {
+                    log.warn("Overview completion failed, using the generated overview", e);
+                    return Mono.just(overview);
+                });
+    }
+
+    private SlideData overview(List<String> labels, List<List<SlideData>> outlines) {
+        List<String> content = new ArrayList<>();
+        for (int i = 0; i < labels.size() && i < outlines.size(); i++) {
+            if (content.size() == MAX_OVERVIEW_LINES - 1 && labels.size() > MAX_OVERVIEW_LINES) {
+                content.add("... and " + (labels.size() - i) + " more sections");
+                break;
+            }
+            List<String> titles = new ArrayList<>();
+            for (SlideData slide : outlines.get(i)) {
+                titles.add(slide.getTitle());
+            }
+            content.add(labels.get(i) + ": " + String.join("; ", titles));
+        }
+
+        SlideData overview = new SlideData();
+        overview.setTitle("Overview");
+        overview.setContent(content.isEmpty() ? List.of("No content available") : content);
+        return overview;
+    }
+}
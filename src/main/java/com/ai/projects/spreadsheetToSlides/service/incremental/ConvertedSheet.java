@@ -0,0 +1,41 @@
+package com.ai.projects.spreadsheetToSlides.service.incremental;
+
+import com.ai.projects.spreadsheetToSlides.model.SlideData;
+
+import java.util.List;
+
+// One sheet of an incremental conversion: the flow's parsed model of the sheet and the slides generated for it
+public class ConvertedSheet<M> {
+    private final String sheetName;
+    private final String fingerprint;
+    private final M model;
+    private final List<SlideData> outline;
+    private final long weight;
+    private final boolean reused;
+
+    ConvertedSheet(String sheetName, String fingerprint, M model, List<SlideData> outline, long weight, boolean reused) {
+        this.sheetName = sheetName;
+        this.fingerprint = fingerprint;
+        this.model = model;
+        this.outline = outline;
+        this.weight = weight;
+        this.reused = reused;
+    }
+
+    public String getSheetName() { return sheetName; }
+
+    public String getFingerprint() { return fingerprint; }
+
+    public M getModel() { return model; }
+
+    public List<SlideData> getOutline() { return outline; }
+
+    // True when model and outline were taken from the previous conversion of the document
+    public boolean isReused() { return reused; }
+
+    long getWeight() { return weight; }
+
+    ConvertedSheet<M> asReused() {
+        return new ConvertedSheet<>(sheetName, fingerprint, model, outline, weight, true);
+    }
+}
@@ -0,0 +1,195 @@
+package com.ai.projects.spreadsheetToSlides.service.incremental;
+
+import com.ai.projects.spreadsheetToSlides.model.SlideData;
+import com.ai.projects.spreadsheetToSlides.service.SpooledUpload;
+import com.ai.projects.spreadsheetToSlides.service.generation.MapReduceGenerator;
+import com.ai.projects.spreadsheetToSlides.service.metrics.ConversionRecorder;
+import com.ai.projects.spreadsheetToSlides.service.pipeline.PipelineStage;
+import com.ai.projects.spreadsheetToSlides.service.pipeline.StageExecutors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Re-converts an edited workbook sheet by sheet. Each conversion of a document key stores, per
+ * sheet, its fingerprint, the flow's parsed model and the slides generated for it. The next upload
+ * under the same key only parses and prompts the sheets whose fingerprint changed; the others
+ * are taken from the stored snapshot. Sheets get one prompt each so their slides can be reused
+ * independently. A snapshot only applies to conversions with the same generation key (flow,
+ * instructions, model), and snapshots are kept in an LRU bounded by count and model weight.
+ */
+@Component
+public class IncrementalConverter {
+
+    private final WorkbookFingerprinter fingerprinter;
+    private final MapReduceGenerator mapReduceGenerator;
+    private final StageExecutors executors;
+    private final boolean enabled;
+    private final int maxDocuments;
+    private final long maxWeight;
+
+    private final LinkedHashMap<String, Snapshot> snapshots = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    public IncrementalConverter(WorkbookFingerprinter fingerprinter, MapReduceGenerator mapReduceGenerator, StageExecutors executors,
+                                @Value("${conversion.incremental.enabled:true}") boolean enabled,
+                                @Value("${conversion.incremental.max-documents:200}") int maxDocuments,
+                                @Value("${conversion.incremental.max-weight:256MB}") DataSize maxWeight) {
+        this.fingerprinter = fingerprinter;
+        this.mapReduceGenerator = mapReduceGenerator;
+        this.executors = executors;
+        this.enabled = enabled;
+        this.maxDocuments = maxDocuments;
+        this.maxWeight = maxWeight.toBytes();
+    }
+
+    @FunctionalInterface
+    public interface SheetParser<M> {
+        // Models of the named sheets, keyed by sheet name
+        Map<String, M> parse(Set<String> sheetNames) throws Exception;
+    }
+
+    public boolean isEnabled() { return enabled; }
+
+    // Sheets of the upload in workbook order. Fingerprinting and parsing run on the parse stage and prompting on the
+    // prompt stage; prompts for changed sheets run concurrently through the map step, so no thread waits for the LLM
+    public <M> Mono<List<ConvertedSheet<M>>> convert(String documentKey, String generationKey, SpooledUpload upload,
+                                                     SheetParser<M> parser, ToLongFunction<M> weigher,
+                                                     Function<M, String> prompt, Function<String, Mono<String>> llm,
+                                                     Function<String, List<SlideData>> parseSlides,
+                                                     ConversionRecorder recorder) {
+        return Mono.defer(() -> {
+            Map<String, ConvertedSheet<?>> previous = previousSheets(documentKey, generationKey);
+            Map<String, String> fingerprints = new LinkedHashMap<>();
+            return executors.run(PipelineStage.PARSE, () -> recorder.observe(ConversionRecorder.PARSE, () -> {
+                        fingerprints.putAll(fingerprinter.fingerprint(upload));
+                        Set<String> changed = new LinkedHashSet<>();
+                        fingerprints.forEach((sheetName, fingerprint) -> {
+                            ConvertedSheet<?> sheet = previous.get(sheetName);
+                            if (sheet == null || !sheet.getFingerprint().equals(fingerprint)) {
+                                changed.add(sheetName);
+                            }
+                        });
+                        return changed.isEmpty() ? Map.<String, M>of() : parser.parse(changed);
+                    }))
+                    .flatMap(models -> {
+                        List<String> changedNames = new ArrayList<>();
+                        fingerprints.keySet().stream().filter(models::containsKey).forEach(changedNames::add);
+                        return executors.run(PipelineStage.PROMPT, () -> {
+                                    List<String> prompts = recorder.observe(ConversionRecorder.PROMPT, () -> {
+                                        List<String> sheetPrompts = new ArrayList<>();
+                                        for (String sheetName : changedNames) {
+                                            sheetPrompts.add(prompt.apply(models.get(sheetName)));
+                                        }
+                                        return sheetPrompts;
+                                    });
+                                    prompts.forEach(recorder::recordPrompt);
+                                    return prompts;
+                                })
+                                .flatMapMany(prompts -> mapReduceGenerator.map(prompts, llm))
+                                .concatMap(response -> executors.run(PipelineStage.RENDER, () -> parseSlides.apply(response)))
+                                .collectList()
+                                .map(outlines -> assemble(documentKey, generationKey, previous, fingerprints, models,
+                                        changedNames, outlines, weigher, recorder));
+                    });
+        });
+    }
+
+    public int size() {
+        synchronized (snapshots) {
+            return snapshots.size();
+        }
+    }
+
+    private <M> List<ConvertedSheet<M>> assemble(String documentKey, String generationKey, Map<String, ConvertedSheet<?>> previous,
+                                                 Map<String, String> fingerprints, Map<String, M> models, List<String> changedNames,
+                                                 List<List<SlideData>> outlines, ToLongFunction<M> weigher,
+                                                 ConversionRecorder recorder) {
+        Map<String, List<SlideData>> outlineBySheet = new HashMap<>();
+        for (int i = 0; i < changedNames.size(); i++) {
+            outlineBySheet.put(changedNames.get(i), outlines.get(i));
+        }
+        List<ConvertedSheet<M>> sheets = new ArrayList<>();
+        for (Map.Entry<String, String> entry : fingerprints.entrySet()) {
+            String sheetName = entry.getKey();
+            M model = models.get(sheetName);
+            if (model != null) {
+                sheets.add(new ConvertedSheet<>(sheetName, entry.getValue(), model, outlineBySheet.get(sheetName),
+                        weigher.applyAsLong(model), false));
+            } else {
+                @SuppressWarnings("unchecked")
+                ConvertedSheet<M> reused = (ConvertedSheet<M>) previous.get(sheetName);
+                if (reused == null || !reused.getFingerprint().equals(entry.getValue())) {
+                    throw new IllegalStateException("No model was parsed for changed sheet " + sheetName);
+                }
+                sheets.add(reused.asReused());
+            }
+        }
+
+        store(documentKey, new Snapshot(generationKey, sheets));
+        recorder.recordIncremental(sheets.size() - changedNames.size(), changedNames.size());
+        return sheets;
+    }
+
+    private Map<String, ConvertedSheet<?>> previousSheets(String documentKey, String generationKey) {
+        Snapshot snapshot;
+        synchronized (snapshots) {
+            snapshot = snapshots.get(documentKey);
+        }
+        if (snapshot == null || !snapshot.generationKey.equals(generationKey)) {
+            return Map.of();
+        }
+        return snapshot.sheets;
+    }
+
+    private void store(String documentKey, Snapshot snapshot) {
+        synchronized (snapshots) {
+            if (snapshot.weight > maxWeight) {
+                // Too large to keep; the stale snapshot would never match again either
+                Snapshot removed = snapshots.remove(documentKey);
+                weight -= removed != null ? removed.weight : 0;
+                return;
+            }
+            Snapshot replaced = snapshots.put(documentKey, snapshot);
+            weight += snapshot.weight - (replaced != null ? replaced.weight : 0);
+            // Least recently used first
+            Iterator<Map.Entry<String, Snapshot>> eldest = snapshots.entrySet().iterator();
+            while ((weight > maxWeight || snapshots.size() > maxDocuments) && eldest.hasNext()) {
+                Map.Entry<String, Snapshot> evicted = eldest.next();
+                if (evicted.getKey().equals(documentKey)) {
+                    continue;
+                }
+                weight -= evicted.getValue().weight;
+                eldest.remove();
+            }
+        }
+    }
+
+    private static class Snapshot {
+        private final String generationKey;
+        private final Map<String, ConvertedSheet<?>> sheets = new HashMap<>();
+        private final long weight;
+
+        Snapshot(String generationKey, List<? extends ConvertedSheet<?>> convertedSheets) {
+            this.generationKey = generationKey;
+            long total = 0;
+            for (ConvertedSheet<?> sheet : convertedSheets) {
+                sheets.put(sheet.getSheetName(), sheet);
+                total += sheet.getWeight();
+            }
+            this.weight = total;
+        }
+    }
+}
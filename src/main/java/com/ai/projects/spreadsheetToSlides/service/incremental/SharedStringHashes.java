@@ -0,0 +1,45 @@
+package com.ai.projects.spreadsheetToSlides.service.incremental;
+
+import java.util.Arrays;
+
+// 64-bit FNV-1a hash of the raw XML of every <si> item in the shared strings part, by index
+class SharedStringHashes extends XmlTagScanner {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private long[] hashes = new long[256];
+    private int size;
+    private boolean inItem;
+    private long hash;
+
+    long[] getHashes() { return Arrays.copyOf(hashes, size); }
+
+    @Override
+    protected void raw(int b) {
+        if (inItem) {
+            hash = (hash ^ b) * FNV_PRIME;
+        }
+    }
+
+    @Override
+    protected void tag(int name, boolean endTag, boolean selfClosing, boolean sharedType) {
+        if (name != SI) {
+            return;
+        }
+        if (!endTag && !selfClosing) {
+            inItem = true;
+            hash = FNV_OFFSET;
+            return;
+        }
+        add(endTag ? hash : FNV_OFFSET);
+        inItem = false;
+    }
+
+    private void add(long itemHash) {
+        if (size == hashes.length) {
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        hashes[size++] = itemHash;
+    }
+}
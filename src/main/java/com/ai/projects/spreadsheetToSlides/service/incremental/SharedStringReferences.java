@@ -0,0 +1,35 @@
+package com.ai.projects.spreadsheetToSlides.service.incremental;
+
+import java.util.BitSet;
+
+// Indexes into the shared strings table used by the cells of a sheet part: <c t="s"><v>index</v></c>
+class SharedStringReferences extends XmlTagScanner {
+
+    private final BitSet references = new BitSet();
+    private boolean sharedCell;
+    private boolean inValue;
+    private int index;
+
+    BitSet getReferences() { return references; }
+
+    @Override
+    protected void tag(int name, boolean endTag, boolean selfClosing, boolean sharedType) {
+        if (inValue) {
+            references.set(index);
+            inValue = false;
+        }
+        if (name == C) {
+            sharedCell = !endTag && !selfClosing && sharedType;
+        } else if (name == V && sharedCell && !endTag && !selfClosing) {
+            inValue = true;
+            index = 0;
+        }
+    }
+
+    @Override
+    protected void text(int b) {
+        if (inValue && b >= '0' && b <= '9') {
+            index = index * 10 + (b - '0');
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.ai.projects.spreadsheetToSlides.service.incremental;
+
+import com.ai.projects.spreadsheetToSlides.service.SpooledUpload;
+import com.ai.projects.spreadsheetToSlides.service.parser.SheetSource;
+import com.ai.projects.spreadsheetToSlides.service.parser.SpreadsheetFormat;
+import com.ai.projects.spreadsheetToSlides.service.parser.SpreadsheetReader;
+import com.ai.projects.spreadsheetToSlides.service.parser.WorkbookSource;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fingerprints every sheet of an XLSX upload without parsing it. A sheet's fingerprint is the
+ * SHA-256 of its part bytes, the styles part, and the shared strings the sheet references. Excel
+ * rewrites the shared strings table on every save, so hashing the whole table would mark every
+ * sheet as changed after any text edit. Only the items a sheet points at are hashed, so editing
+ * a string in one sheet leaves the other sheets' fingerprints alone.
+ *
+ * <p>CSV and .xls uploads have no per-sheet parts to hash: every sheet gets the hash of the whole
+ * upload, so any change converts them all again.
+ */
+@Component
+public class WorkbookFingerprinter {
+
+    private final SpreadsheetReader spreadsheetReader;
+
+    public WorkbookFingerprinter(SpreadsheetReader spreadsheetReader) {
+        this.spreadsheetReader = spreadsheetReader;
+    }
+
+    // Sheet name -> hex fingerprint, in workbook order
+    public Map<String, String> fingerprint(SpooledUpload upload) throws Exception {
+        if (SpreadsheetFormat.detect(upload) != SpreadsheetFormat.XLSX) {
+            Map<String, String> fingerprints = new LinkedHashMap<>();
+            try (WorkbookSource workbook = spreadsheetReader.open(upload)) {
+                for (SheetSource sheet : workbook.getSheets()) {
+                    fingerprints.put(sheet.getSheetName(), upload.getContentHash());
+                }
+            }
+            return fingerprints;
+        }
+        OPCPackage pkg = upload.openPackage();
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            long[] stringHashes = sharedStringHashes(pkg);
+            byte[] stylesDigest = stylesDigest(pkg);
+
+            Map<String, String> fingerprints = new LinkedHashMap<>();
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                SharedStringReferences references = new SharedStringReferences();
+                byte[] partDigest;
+                try (InputStream in = sheets.next()) {
+                    partDigest = digest(in, references);
+                }
+                fingerprints.put(sheets.getSheetName(), combine(partDigest, stylesDigest, references.getReferences(), stringHashes));
+            }
+            return fingerprints;
+        } finally {
+            // Opened read-only; revert discards the package without trying to save it
+            pkg.revert();
+        }
+    }
+
+    private static long[] sharedStringHashes(OPCPackage pkg) throws IOException {
+        List<PackagePart> parts = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+        if (parts.isEmpty()) {
+            return new long[0];
+        }
+        SharedStringHashes hashes = new SharedStringHashes();
+        try (InputStream in = parts.get(0).getInputStream()) {
+            in.transferTo(hashes);
+        }
+        return hashes.getHashes();
+    }
+
+    // Styles decide which numbers are dates, so a style change counts as a change to every sheet
+    private static byte[] stylesDigest(OPCPackage pkg) throws IOException {
+        List<PackagePart> parts = pkg.getPartsByContentType(XSSFRelation.STYLES.getContentType());
+        if (parts.isEmpty()) {
+            return new byte[0];
+        }
+        try (InputStream in = parts.get(0).getInputStream()) {
+            return digest(in, OutputStream.nullOutputStream());
+        }
+    }
+
+    private static byte[] digest(InputStream in, OutputStream scanner) throws IOException {
+        MessageDigest digest = newDigest();
+        try (DigestInputStream digesting = new DigestInputStream(in, digest)) {
+            digesting.transferTo(scanner);
+        }
+        return digest.digest();
+    }
+
+    private static String combine(byte[] partDigest, byte[] stylesDigest, BitSet references, long[] stringHashes) {
+        MessageDigest digest = newDigest();
+        digest.update(partDigest);
+        digest.update(stylesDigest);
+        ByteBuffer item = ByteBuffer.allocate(12);
+        for (int index = references.nextSetBit(0); index >= 0; index = references.nextSetBit(index + 1)) {
+            // An index past the end of the table hashes as 0, so it still differs from any real item
+            item.clear();
+            item.putInt(index).putLong(index < stringHashes.length ? stringHashes[index] : 0);
+            digest.update(item.array());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.ai.projects.spreadsheetToSlides.service.incremental;
+
+import java.io.OutputStream;
+
+/**
+ * Minimal tag tokenizer over the raw bytes of a SpreadsheetML part, written to as an output stream
+ * so it can sit behind the digest pass that reads the part anyway. It only knows tag names (local
+ * part, up to four bytes, packed into an int) and whether a tag carries {@code t="s"}; that is
+ * enough to find shared-string references and string items without a SAX parse.
+ */
+abstract class XmlTagScanner extends OutputStream {
+
+    static final int C = 'c';
+    static final int V = 'v';
+    static final int SI = ('s' << 8) | 'i';
+
+    private static final long SHARED_TYPE_DOUBLE = pack("t=\"s\"");
+    private static final long SHARED_TYPE_SINGLE = pack("t='s'");
+
+    private static final int TEXT = 0;
+    private static final int NAME = 1;
+    private static final int ATTRIBUTES = 2;
+
+    private int state = TEXT;
+    private boolean endTag;
+    private int name;
+    private int nameLength;
+    private boolean sharedType;
+    private long recent;
+    private int previous;
+
+    // Called for every start, end or empty tag once its closing '>' has been read; name is -1 when longer than four bytes
+    protected abstract void tag(int name, boolean endTag, boolean selfClosing, boolean sharedType);
+
+    // Called for each byte outside tags
+    protected void text(int b) {
+    }
+
+    // Called for every byte before it is tokenized
+    protected void raw(int b) {
+    }
+
+    @Override
+    public void write(int b) {
+        b &= 0xFF;
+        raw(b);
+        switch (state) {
+            case TEXT:
+                if (b == '<') {
+                    state = NAME;
+                    endTag = false;
+                    name = 0;
+                    nameLength = 0;
+                    sharedType = false;
+                    recent = 0;
+                } else {
+                    text(b);
+                }
+                break;
+            case NAME:
+                if (b == '/' && nameLength == 0 && !endTag) {
+                    endTag = true;
+                } else if (b == ':') {
+                    // Only the local name matters
+                    name = 0;
+                    nameLength = 0;
+                } else if (b == '>') {
+                    finishTag(b);
+                } else if (b == '/' || isSpace(b)) {
+                    state = ATTRIBUTES;
+                    recent = b;
+                } else {
+                    name = (name << 8) | b;
+                    nameLength++;
+                }
+                break;
+            default:
+                if (b == '>') {
+                    finishTag(b);
+                    break;
+                }
+                recent = (recent << 8) | b;
+                long lastFive = recent & 0xFF_FFFF_FFFFL;
+                if ((lastFive == SHARED_TYPE_DOUBLE || lastFive == SHARED_TYPE_SINGLE) && isSpace((int) (recent >>> 40) & 0xFF)) {
+                    sharedType = true;
+                }
+                break;
+        }
+        previous = b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            write(bytes[i]);
+        }
+    }
+
+    private void finishTag(int b) {
+        tag(nameLength <= 4 ? name : -1, endTag, previous == '/', sharedType);
+        state = TEXT;
+    }
+
+    private static boolean isSpace(int b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+
+    private static long pack(String text) {
+        long packed = 0;
+        for (int i = 0; i < text.length(); i++) {
+            packed = (packed << 8) | text.charAt(i);
+        }
+        return packed;
+    }
+}
@@ -0,0 +1,38 @@
+package com.ai.projects.spreadsheetToSlides.service.llm;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+// Ring buffer of the most recent call latencies, used to derive the hedging delay
+class LatencyTracker {
+
+    private static final int MIN_SAMPLES = 20;
+
+    private final long[] samples;
+    private int next;
+    private int count;
+
+    LatencyTracker(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+    }
+
+    // Null until enough calls have been seen for the estimate to mean anything
+    Duration percentile(double quantile) {
+        long[] copy;
+        synchronized (this) {
+            if (count < MIN_SAMPLES) {
+                return null;
+            }
+            copy = Arrays.copyOf(samples, count);
+        }
+        Arrays.sort(copy);
+        int index = (int) Math.ceil(quantile * copy.length) - 1;
+        return Duration.ofNanos(copy[Math.max(0, Math.min(copy.length - 1, index))]);
+    }
+}
@@ -0,0 +1,164 @@
+package com.ai.projects.spreadsheetToSlides.service.llm;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+
+/**
+ * Count-based circuit breaker for upstream LLM calls. Once the failure rate over the last
+ * {@code window} calls reaches the threshold, calls fail fast with {@link LlmUnavailableException}
+ * for {@code open-duration}; then a single trial call decides whether to close again.
+ * Client errors other than 429 do not count as failures.
+ */
+@Component
+public class LlmCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmCircuitBreaker.class);
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final double failureRateThreshold;
+    private final Duration openDuration;
+    private final boolean[] outcomes;
+    private int next;
+    private int calls;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public LlmCircuitBreaker(@Value("${llm.circuit-breaker.failure-rate:0.5}") double failureRateThreshold,
+                             @Value("${llm.circuit-breaker.window:20}") int window,
+                             @Value("${llm.circuit-breaker.open-duration:30s}") Duration openDuration,
+                             MeterRegistry meterRegistry) {
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDuration = openDuration;
+        this.outcomes = new boolean[window];
+        Gauge.builder("llm.client.circuit.open", this, breaker -> breaker.getState() == State.CLOSED ? 0 : 1)
+                .register(meterRegistry);
+    }
+
+    public <T> Mono<T> protect(Mono<T> call) {
+        return Mono.defer(() -> tryAcquire()
+                ? call.doOnError(this::onError).doFinally(this::onFinally)
+                : Mono.error(unavailable()));
+    }
+
+    public <T> Flux<T> protect(Flux<T> call) {
+        return Flux.defer(() -> tryAcquire()
+                ? call.doOnError(this::onError).doFinally(this::onFinally)
+                : Flux.error(unavailable()));
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    private void onFinally(SignalType signal) {
+        // Errors are already recorded by onError; doFinally only sees the signal type
+        if (signal == SignalType.ON_COMPLETE) {
+            onSuccess();
+        } else if (signal == SignalType.CANCEL) {
+            release();
+        }
+    }
+
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openDuration.toNanos()) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+        }
+        return true;
+    }
+
+    synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            log.info("LLM circuit breaker closed");
+            state = State.CLOSED;
+            resetWindow();
+            return;
+        }
+        record(false);
+    }
+
+    synchronized void onError(Throwable error) {
+        if (!countsAsFailure(error)) {
+            onSuccess();
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (calls == outcomes.length && failures >= failureRateThreshold * calls) {
+            open();
+        }
+    }
+
+    private synchronized void release() {
+        if (state == State.HALF_OPEN) {
+            trialInFlight = false;
+        }
+    }
+
+    private void record(boolean failure) {
+        if (calls == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            calls++;
+        }
+        outcomes[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void open() {
+        log.warn("LLM circuit breaker opened after {} failures in {} calls", failures, calls);
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        trialInFlight = false;
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        next = 0;
+        calls = 0;
+        failures = 0;
+    }
+
+    private static boolean countsAsFailure(Throwable error) {
+        if (error instanceof WebClientResponseException) {
+            int status = ((WebClientResponseException) error).getStatusCode().value();
+            return status == 429 || status >= 500;
+        }
+        return true;
+    }
+
+    private static LlmUnavailableException unavailable() {
+        return new LlmUnavailableException("LLM upstream is failing, circuit breaker is open");
+    }
+}
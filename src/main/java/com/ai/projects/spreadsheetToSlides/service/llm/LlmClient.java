@@ -0,0 +1,20 @@
+package com.ai.projects.spreadsheetToSlides.service.llm;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Chat completion backend. Implementations own connections, timeouts, retries and failure
+ * handling; callers only deal with prompt and completion text. Selected with {@code llm.client}.
+ */
+public interface LlmClient {
+
+    String getModel();
+
+    int getMaxTokens();
+
+    Mono<String> complete(String prompt);
+
+    // Content deltas of a streamed completion, in order
+    Flux<String> stream(String prompt);
+}
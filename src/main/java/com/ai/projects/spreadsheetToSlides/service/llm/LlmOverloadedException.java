@@ -0,0 +1,27 @@
+package com.ai.projects.spreadsheetToSlides.service.llm;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+
+// Raised without calling upstream when the LLM scheduler cannot queue another call; answered with 429 and Retry-After
+public class LlmOverloadedException extends ResponseStatusException {
+
+    private final Duration retryAfter;
+
+    public LlmOverloadedException(Duration retryAfter) {
+        super(HttpStatus.TOO_MANY_REQUESTS, "Too many LLM calls queued, retry after " + retryAfter.toSeconds() + "s");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() { return retryAfter; }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter.toSeconds()));
+        return headers;
+    }
+}
@@ -0,0 +1,271 @@
+package com.ai.projects.spreadsheetToSlides.service.llm;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed cache for LLM completions. Entries are keyed by a SHA-256 of the model,
+ * prompt and request parameters. The in-memory tier is an LRU bounded by entry count and TTL;
+ * the optional disk tier stores one file per key so answers survive restarts. The disk tier is swept
+ * for expired files every hour and whenever it grows past {@code llm.cache.disk.max-size}, when the
+ * oldest files are deleted until it is back under 90% of the limit.
+ */
+@Component
+public class LlmResponseCache {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmResponseCache.class);
+
+    private static final Duration SWEEP_INTERVAL = Duration.ofHours(1);
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final Duration ttl;
+    private final Path diskDirectory;
+    private final long diskMaxBytes;
+
+    private final Map<String, Entry> memory;
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong diskEvictions = new AtomicLong();
+    // Estimate between sweeps; -1 until the directory was first swept
+    private final AtomicLong diskBytes = new AtomicLong(-1);
+    private final Object sweepLock = new Object();
+    private volatile long lastSweep;
+
+    public LlmResponseCache(@Value("${llm.cache.enabled:true}") boolean enabled,
+                            @Value("${llm.cache.max-entries:500}") int maxEntries,
+                            @Value("${llm.cache.ttl:PT24H}") Duration ttl,
+                            @Value("${llm.cache.disk.enabled:false}") boolean diskEnabled,
+                            @Value("${llm.cache.disk.directory:${java.io.tmpdir}/spreadsheet-to-slides/llm-cache}") String diskDirectory,
+                            @Value("${llm.cache.disk.max-size:256MB}") DataSize diskMaxSize,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+        this.diskDirectory = enabled && diskEnabled ? Paths.get(diskDirectory) : null;
+        this.diskMaxBytes = diskMaxSize.toBytes();
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > LlmResponseCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        FunctionCounter.builder("llm.cache.hits", memoryHits, AtomicLong::get).tag("tier", "memory").register(meterRegistry);
+        FunctionCounter.builder("llm.cache.hits", diskHits, AtomicLong::get).tag("tier", "disk").register(meterRegistry);
+        FunctionCounter.builder("llm.cache.misses", misses, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("llm.cache.evictions", evictions, AtomicLong::get).tag("tier", "memory").register(meterRegistry);
+        FunctionCounter.builder("llm.cache.evictions", diskEvictions, AtomicLong::get).tag("tier", "disk").register(meterRegistry);
+        Gauge.builder("llm.cache.entries", this, LlmResponseCache::size).register(meterRegistry);
+        Gauge.builder("llm.cache.disk.bytes", diskBytes, bytes -> Math.max(0, bytes.get())).register(meterRegistry);
+    }
+
+    public String key(String model, String prompt, Map<String, Object> parameters) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(model.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            // Sorted so the key does not depend on map iteration order
+            digest.update(new TreeMap<>(parameters).toString().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(prompt.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public String get(String key) {
+        if (!enabled) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        synchronized (memory) {
+            Entry entry = memory.get(key);
+            if (entry != null && entry.expiresAt > now) {
+                memoryHits.incrementAndGet();
+                return entry.value;
+            }
+            if (entry != null) {
+                memory.remove(key);
+            }
+        }
+
+        String value = readFromDisk(key, now);
+        if (value != null) {
+            diskHits.incrementAndGet();
+            putInMemory(key, value, now);
+            return value;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(String key, String value) {
+        if (!enabled || value == null) {
+            return;
+        }
+        putInMemory(key, value, System.currentTimeMillis());
+        writeToDisk(key, value);
+    }
+
+    public long getMemoryHits() { return memoryHits.get(); }
+
+    public long getDiskHits() { return diskHits.get(); }
+
+    public long getMisses() { return misses.get(); }
+
+    public long getEvictions() { return evictions.get(); }
+
+    public long getDiskEvictions() { return diskEvictions.get(); }
+
+    public long getDiskBytes() { return Math.max(0, diskBytes.get()); }
+
+    public int size() {
+        synchronized (memory) {
+            return memory.size();
+        }
+    }
+
+    private void putInMemory(String key, String value, long now) {
+        synchronized (memory) {
+            memory.put(key, new Entry(value, now + ttl.toMillis()));
+        }
+    }
+
+    private String readFromDisk(String key, long now) {
+        if (diskDirectory == null) {
+            return null;
+        }
+        Path file = diskDirectory.resolve(key);
+        try {
+            if (!Files.exists(file)) {
+                return null;
+            }
+            if (Files.getLastModifiedTime(file).toMillis() + ttl.toMillis() <= now) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+            return Files.readString(file);
+        } catch (IOException e) {
+            log.warn("Could not read cached LLM response {}", file, e);
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, String value) {
+        if (diskDirectory == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(diskDirectory);
+            // Write then move so a concurrent reader never sees a partial file
+            Path temp = Files.createTempFile(diskDirectory, key, ".tmp");
+            Files.writeString(temp, value);
+            long size = Files.size(temp);
+            Files.move(temp, diskDirectory.resolve(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            // A replaced file is counted twice until the next sweep, which errs towards sweeping early
+            long total = diskBytes.get() < 0 ? -1 : diskBytes.addAndGet(size);
+            if (total < 0 || total > diskMaxBytes || System.currentTimeMillis() - lastSweep > SWEEP_INTERVAL.toMillis()) {
+                sweepDisk();
+            }
+        } catch (IOException e) {
+            log.warn("Could not persist LLM response to {}", diskDirectory, e);
+        }
+    }
+
+    // Deletes expired files, then the oldest ones while the directory is over its size limit
+    void sweepDisk() throws IOException {
+        synchronized (sweepLock) {
+            long now = System.currentTimeMillis();
+            List<CachedFile> files = new ArrayList<>();
+            try (Stream<Path> paths = Files.list(diskDirectory)) {
+                for (Path path : (Iterable<Path>) paths::iterator) {
+                    // Temporary files belong to writes still in progress
+                    if (path.getFileName().toString().endsWith(".tmp")) {
+                        continue;
+                    }
+                    try {
+                        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                        if (attributes.isRegularFile()) {
+                            files.add(new CachedFile(path, attributes.lastModifiedTime().toMillis(), attributes.size()));
+                        }
+                    } catch (IOException e) {
+                        // Deleted by a concurrent read of an expired entry
+                    }
+                }
+            }
+            files.sort(Comparator.comparingLong(file -> file.modifiedAt));
+
+            long total = files.stream().mapToLong(file -> file.size).sum();
+            // Over the limit, down to 90% so the next few writes do not sweep again
+            long target = total > diskMaxBytes ? diskMaxBytes / 10 * 9 : Long.MAX_VALUE;
+            for (CachedFile file : files) {
+                // Sorted oldest first, so once a file has not expired no later one has either
+                if (file.modifiedAt + ttl.toMillis() > now && total <= target) {
+                    break;
+                }
+                if (Files.deleteIfExists(file.path)) {
+                    diskEvictions.incrementAndGet();
+                }
+                total -= file.size;
+            }
+            diskBytes.set(total);
+            lastSweep = now;
+        }
+    }
+
+    private static class CachedFile {
+        private final Path path;
+        private final long modifiedAt;
+        private final long size;
+
+        CachedFile(Path path, long modifiedAt, long size) {
+            this.path = path;
+            this.modifiedAt = modifiedAt;
+            this.size = size;
+        }
+    }
+
+    private static class Entry {
+        private final String value;
+        private final long expiresAt;
+
+        Entry(String value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.ai.projects.spreadsheetToSlides.service.llm;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Scheduler in front of every LLM call, shared by single conversions, jobs and batches. It caps in-flight
+ * calls ({@code llm.max-concurrent}) and, with {@code llm.scheduler.tokens-per-minute}, spends a token
+ * bucket refilled at the provider's quota, charging each call its prompt estimate plus {@code max_tokens}.
+ *
+ * <p>Waiting calls are parked without holding a thread and served by start-time fair queueing across
+ * tenants, weighted by {@code llm.scheduler.tenant-weights}, so one heavy tenant cannot starve the others.
+ * The tenant is read from the subscriber context ({@link #forTenant}). Calls beyond the queue limits fail
+ * at once with {@link LlmOverloadedException} rather than waiting out the request timeout.
+ */
+@Component
+public class LlmScheduler {
+
+    public static final String DEFAULT_TENANT = "default";
+
+    private static final String TENANT = LlmScheduler.class.getName() + ".tenant";
+    private static final double MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final int maxConcurrent;
+    private final long tokensPerMinute;
+    private final int maxQueued;
+    private final int maxQueuedPerTenant;
+    private final Map<String, Double> weights;
+    private final LongSupplier clock;
+    private final Scheduler timer;
+    private final Counter rejected;
+
+    private final Map<String, TenantQueue> queues = new HashMap<>();
+    private int inFlight;
+    private int waiting;
+    private long waitingTokens;
+    // Start tag of the call dispatched last; idle tenants rejoin here instead of replaying their credit
+    private double virtualTime;
+    private double tokens;
+    private long refilledAt;
+    private boolean refillPending;
+
+    @Autowired
+    public LlmScheduler(@Value("${llm.max-concurrent:16}") int maxConcurrent,
+                        @Value("${llm.scheduler.tokens-per-minute:0}") long tokensPerMinute,
+                        @Value("${llm.scheduler.max-queued:256}") int maxQueued,
+                        @Value("${llm.scheduler.max-queued-per-tenant:64}") int maxQueuedPerTenant,
+                        @Value("${llm.scheduler.tenant-weights:}") String tenantWeights,
+                        MeterRegistry meterRegistry) {
+        this(maxConcurrent, tokensPerMinute, maxQueued, maxQueuedPerTenant, tenantWeights, meterRegistry,
+                System::nanoTime, Schedulers.parallel());
+    }
+
+    // Clock and timer are replaceable so tests can step through refills
+    LlmScheduler(int maxConcurrent, long tokensPerMinute, int maxQueued, int maxQueuedPerTenant, String tenantWeights,
+                 MeterRegistry meterRegistry, LongSupplier clock, Scheduler timer) {
+        this.maxConcurrent = maxConcurrent;
+        this.tokensPerMinute = tokensPerMinute;
+        this.maxQueued = maxQueued;
+        this.maxQueuedPerTenant = maxQueuedPerTenant;
+        this.weights = parseWeights(tenantWeights);
+        this.clock = clock;
+        this.timer = timer;
+        // The bucket starts full: an idle minute's worth of quota is there to spend
+        this.tokens = tokensPerMinute;
+        this.refilledAt = clock.getAsLong();
+        this.rejected = meterRegistry.counter("llm.scheduler.rejected");
+        Gauge.builder("llm.client.in-flight", this, LlmScheduler::getInFlight).register(meterRegistry);
+        Gauge.builder("llm.client.waiting", this, LlmScheduler::getWaiting).register(meterRegistry);
+        Gauge.builder("llm.scheduler.tenants", this, LlmScheduler::getTenants).register(meterRegistry);
+    }
+
+    // contextWrite argument that schedules the calls of a pipeline for the given tenant
+    public static Function<Context, Context> forTenant(String tenant) {
+        return context -> context.put(TENANT, tenantOrDefault(tenant));
+    }
+
+    // cost is the token estimate of the call: prompt plus the completion limit
+    public <T> Mono<T> limit(Mono<T> call, long cost) {
+        return Mono.usingWhen(acquire(cost), permit -> call, Permit::release, (permit, error) -> permit.release(), Permit::release);
+    }
+
+    public <T> Flux<T> limit(Flux<T> call, long cost) {
+        return Flux.usingWhen(acquire(cost), permit -> call, Permit::release, (permit, error) -> permit.release(), Permit::release);
+    }
+
+    // Rejects up front when the tenant could not queue another call, before its upload is even parsed
+    public void checkAdmission(String tenant) {
+        synchronized (this) {
+            if (isFull(tenantOrDefault(tenant))) {
+                throw overloaded();
+            }
+        }
+    }
+
+    synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    synchronized int getWaiting() {
+        return waiting;
+    }
+
+    synchronized int getTenants() {
+        return queues.size();
+    }
+
+    private Mono<Permit> acquire(long cost) {
+        return Mono.<Permit>create(sink -> {
+            String tenant = sink.contextView().getOrDefault(TENANT, DEFAULT_TENANT);
+            // A call dearer than the whole budget waits for a full bucket instead of forever
+            long charge = tokensPerMinute > 0 ? Math.min(cost, tokensPerMinute) : cost;
+            Waiter waiter = null;
+            LlmOverloadedException rejection = null;
+            synchronized (this) {
+                refill();
+                // Nobody may overtake a waiting call, even when a slot happens to be free
+                if (waiting == 0 && inFlight < maxConcurrent && hasTokens(charge)) {
+                    inFlight++;
+                    tokens -= charge;
+                } else if (isFull(tenant)) {
+                    rejection = overloaded();
+                } else {
+                    waiter = enqueue(tenant, charge, sink);
+                }
+            }
+            if (rejection != null) {
+                sink.error(rejection);
+                return;
+            }
+            if (waiter == null) {
+                sink.success(new Permit());
+                return;
+            }
+            Waiter queued = waiter;
+            sink.onCancel(() -> {
+                if (remove(queued)) {
+                    dispatch();
+                }
+            });
+            dispatch();
+        })
+                // A slot handed to a waiter that was cancelled in the meantime is passed on, not leaked
+                .doOnDiscard(Permit.class, permit -> permit.release().subscribe());
+    }
+
+    // Caller holds the lock
+    private Waiter enqueue(String tenant, long charge, MonoSink<Permit> sink) {
+        TenantQueue queue = queues.computeIfAbsent(tenant, name -> new TenantQueue(weights.getOrDefault(name, 1.0)));
+        double start = Math.max(virtualTime, queue.lastFinish);
+        queue.lastFinish = start + charge / queue.weight;
+        Waiter waiter = new Waiter(queue, sink, charge, start, queue.lastFinish);
+        queue.waiters.add(waiter);
+        waiting++;
+        waitingTokens += charge;
+        return waiter;
+    }
+
+    private synchronized boolean remove(Waiter waiter) {
+        if (!waiter.queue.waiters.remove(waiter)) {
+            return false;
+        }
+        waiting--;
+        waitingTokens -= waiter.charge;
+        return true;
+    }
+
+    // Hands free slots to the waiting calls with the smallest finish tags, as far as the token bucket allows
+    void dispatch() {
+        List<Waiter> granted = new ArrayList<>();
+        synchronized (this) {
+            refill();
+            while (inFlight < maxConcurrent && waiting > 0) {
+                Waiter next = null;
+                for (Iterator<TenantQueue> it = queues.values().iterator(); it.hasNext(); ) {
+                    TenantQueue queue = it.next();
+                    Waiter head = queue.waiters.peek();
+                    if (head == null) {
+                        if (queue.lastFinish <= virtualTime) {
+                            it.remove();
+                        }
+                        continue;
+                    }
+                    if (next == null || head.finish < next.finish) {
+                        next = head;
+                    }
+                }
+                if (!hasTokens(next.charge)) {
+                    scheduleRefill(next.charge);
+                    break;
+                }
+                next.queue.waiters.poll();
+                waiting--;
+                waitingTokens -= next.charge;
+                inFlight++;
+                tokens -= next.charge;
+                virtualTime = Math.max(virtualTime, next.start);
+                granted.add(next);
+            }
+        }
+        for (Waiter waiter : granted) {
+            waiter.sink.success(new Permit());
+        }
+    }
+
+    private void releaseSlot() {
+        synchronized (this) {
+            inFlight--;
+        }
+        dispatch();
+    }
+
+    // Caller holds the lock
+    private boolean isFull(String tenant) {
+        TenantQueue queue = queues.get(tenant);
+        return waiting >= maxQueued || queue != null && queue.waiters.size() >= maxQueuedPerTenant;
+    }
+
+    // Caller holds the lock
+    private boolean hasTokens(long charge) {
+        return tokensPerMinute <= 0 || tokens >= charge;
+    }
+
+    // Caller holds the lock
+    private void refill() {
+        if (tokensPerMinute <= 0) {
+            return;
+        }
+        long now = clock.getAsLong();
+        tokens = Math.min(tokensPerMinute, tokens + (now - refilledAt) * tokensPerMinute / MINUTE_NANOS);
+        refilledAt = now;
+    }
+
+    // Caller holds the lock
+    private void scheduleRefill(long charge) {
+        if (refillPending) {
+            return;
+        }
+        refillPending = true;
+        long delayNanos = (long) Math.ceil((charge - tokens) * MINUTE_NANOS / tokensPerMinute);
+        timer.schedule(() -> {
+            synchronized (this) {
+                refillPending = false;
+            }
+            dispatch();
+        }, Math.max(1, delayNanos), TimeUnit.NANOSECONDS);
+    }
+
+    // Caller holds the lock. With a budget, Retry-After is the time the bucket needs to pay for the queue
+    private LlmOverloadedException overloaded() {
+        rejected.increment();
+        long seconds = tokensPerMinute > 0 ? (long) Math.ceil((waitingTokens - tokens) * 60 / tokensPerMinute) : 1;
+        return new LlmOverloadedException(Duration.ofSeconds(Math.max(1, seconds)));
+    }
+
+    private static String tenantOrDefault(String tenant) {
+        return tenant != null && !tenant.isBlank() ? tenant : DEFAULT_TENANT;
+    }
+
+    // "tenant-a=4,tenant-b=2"; unlisted tenants weigh 1
+    private static Map<String, Double> parseWeights(String tenantWeights) {
+        Map<String, Double> weights = new HashMap<>();
+        for (String entry : tenantWeights.split(",")) {
+            int separator = entry.lastIndexOf('=');
+            if (separator > 0) {
+                double weight = Double.parseDouble(entry.substring(separator + 1).trim());
+                if (weight <= 0) {
+                    throw new IllegalArgumentException("Tenant weight must be positive: " + entry);
+                }
+                weights.put(entry.substring(0, separator).trim(), weight);
+            }
+        }
+        return weights;
+    }
+
+    private static final class TenantQueue {
+        private final double weight;
+        private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+        private double lastFinish;
+
+        private TenantQueue(double weight) {
+            this.weight = weight;
+        }
+    }
+
+    private static final class Waiter {
+        private final TenantQueue queue;
+        private final MonoSink<Permit> sink;
+        private final long charge;
+        private final double start;
+        private final double finish;
+
+        private Waiter(TenantQueue queue, MonoSink<Permit> sink, long charge, double start, double finish) {
+            this.queue = queue;
+            this.sink = sink;
+            this.charge = charge;
+            this.start = start;
+            this.finish = finish;
+        }
+    }
+
+    private final class Permit {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Mono<Void> release() {
+            return Mono.fromRunnable(() -> {
+                if (released.compareAndSet(false, true)) {
+                    releaseSlot();
+                }
+            });
+        }
+    }
+}
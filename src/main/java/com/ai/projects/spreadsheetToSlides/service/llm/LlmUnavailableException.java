@@ -0,0 +1,13 @@
+package com.ai.projects.spreadsheetToSlides.service.llm;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Raised without calling upstream while the circuit breaker is open
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class LlmUnavailableException extends RuntimeException {
+
+    public LlmUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,277 @@
+package com.ai.projects.spreadsheetToSlides.service.llm;
+
+import com.ai.projects.spreadsheetToSlides.service.PromptBuilder;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * OpenAI chat completions over the pooled {@code llmWebClient}. Each attempt goes through the
+ * circuit breaker; 429, 5xx and connection failures are retried with jittered exponential backoff,
+ * and with {@code llm.hedge.enabled} a second request is raced against a call that is slower
+ * than the recent p95. Request bodies are written and responses read with the application's
+ * {@link JsonFactory} as token streams, without building maps or trees.
+ */
+@Component
+@ConditionalOnProperty(name = "llm.client", havingValue = "openai", matchIfMissing = true)
+public class OpenAiLlmClient implements LlmClient {
+
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SERVER_SENT_EVENTS =
+            new ParameterizedTypeReference<>() { };
+
+    private final LatencyTracker latencies = new LatencyTracker(256);
+
+    private final WebClient llmWebClient;
+    private final JsonFactory jsonFactory;
+    private final LlmCircuitBreaker circuitBreaker;
+    private final LlmScheduler scheduler;
+    private final String model;
+    private final int maxTokens;
+    private final Duration overallTimeout;
+    private final int maxAttempts;
+    private final Duration minBackoff;
+    private final Duration maxBackoff;
+    private final boolean hedgeEnabled;
+    private final Duration hedgeMinDelay;
+    private final Counter retries;
+    private final Counter hedges;
+
+    public OpenAiLlmClient(WebClient llmWebClient, LlmCircuitBreaker circuitBreaker,
+                           LlmScheduler scheduler, MeterRegistry meterRegistry, ObjectMapper objectMapper,
+                           @Value("${llm.model:gpt-3.5-turbo}") String model,
+                           @Value("${llm.max-tokens:1000}") int maxTokens,
+                           @Value("${llm.timeout.overall:90s}") Duration overallTimeout,
+                           @Value("${llm.retry.max-attempts:3}") int maxAttempts,
+                           @Value("${llm.retry.min-backoff:500ms}") Duration minBackoff,
+                           @Value("${llm.retry.max-backoff:8s}") Duration maxBackoff,
+                           @Value("${llm.hedge.enabled:false}") boolean hedgeEnabled,
+                           @Value("${llm.hedge.min-delay:2s}") Duration hedgeMinDelay) {
+        this.llmWebClient = llmWebClient;
+        this.jsonFactory = objectMapper.getFactory();
+        this.circuitBreaker = circuitBreaker;
+        this.scheduler = scheduler;
+        this.model = model;
+        this.maxTokens = maxTokens;
+        this.overallTimeout = overallTimeout;
+        this.maxAttempts = maxAttempts;
+        this.minBackoff = minBackoff;
+        this.maxBackoff = maxBackoff;
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgeMinDelay = hedgeMinDelay;
+        this.retries = meterRegistry.counter("llm.client.retries");
+        this.hedges = meterRegistry.counter("llm.client.hedges");
+    }
+
+    @Override
+    public String getModel() {
+        return model;
+    }
+
+    @Override
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+
+    @Override
+    public Mono<String> complete(String prompt) {
+        // Written once, however many attempts are made
+        Mono<String> request = Mono.fromCallable(() -> requestBody(prompt, false)).cache();
+
+        // The slot is held per attempt, not across the backoff between retries, and only time spent
+        // upstream counts towards the hedging percentile. onUpstream runs once the attempt holds its slot.
+        long cost = cost(prompt);
+        Function<Runnable, Mono<String>> call = onUpstream -> scheduler.limit(Mono.defer(() -> {
+            onUpstream.run();
+            long start = System.nanoTime();
+            return circuitBreaker.protect(request
+                            .flatMap(requestBody -> llmWebClient.post()
+                                    .uri("/v1/chat/completions")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .bodyValue(requestBody)
+                                    .retrieve()
+                                    .bodyToMono(String.class)))
+                    .doOnNext(result -> latencies.record(System.nanoTime() - start));
+        }), cost).retryWhen(retry(error -> true));
+
+        return hedged(call)
+                .timeout(overallTimeout)
+                .map(this::extractContent);
+    }
+
+    // Completion with "stream": true; emits the content deltas of the server-sent events as they arrive.
+    // Only failures before the first delta are retried, a partially consumed stream cannot be replayed.
+    // The overall timeout bounds the whole stream, retries included, not just the gap between events.
+    @Override
+    public Flux<String> stream(String prompt) {
+        Mono<String> request = Mono.fromCallable(() -> requestBody(prompt, true)).cache();
+
+        return Flux.defer(() -> {
+            AtomicBoolean started = new AtomicBoolean();
+            // The sentinel ends the stream inside the breaker, so a finished stream counts as a success
+            // rather than a cancellation
+            Flux<String> events = circuitBreaker.protect(request
+                            .flatMapMany(requestBody -> llmWebClient.post()
+                                    .uri("/v1/chat/completions")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .accept(MediaType.TEXT_EVENT_STREAM)
+                                    .bodyValue(requestBody)
+                                    .retrieve()
+                                    .bodyToFlux(SERVER_SENT_EVENTS))
+                            .mapNotNull(ServerSentEvent::data)
+                            .takeWhile(data -> !"[DONE]".equals(data)));
+            Flux<String> deltas = scheduler.limit(events, cost(prompt))
+                    .handle((data, sink) -> {
+                        try {
+                            String delta = extractDelta(data);
+                            if (delta != null && !delta.isEmpty()) {
+                                sink.next(delta);
+                            }
+                        } catch (Exception e) {
+                            sink.error(e);
+                        }
+                    });
+            return deltas.doOnNext(delta -> started.set(true))
+                    .retryWhen(retry(error -> !started.get()));
+        }).takeUntilOther(Mono.delay(overallTimeout).then(Mono.error(
+                () -> new TimeoutException("LLM stream did not finish within " + overallTimeout))));
+    }
+
+    // What the call counts against the provider's tokens-per-minute quota: the prompt plus the completion limit
+    private long cost(String prompt) {
+        return PromptBuilder.estimateTokens(prompt) + maxTokens;
+    }
+
+    private Retry retry(Predicate<Throwable> allowed) {
+        return Retry.backoff(Math.max(0, maxAttempts - 1), minBackoff)
+                .maxBackoff(maxBackoff)
+                .jitter(0.5)
+                .filter(error -> isRetryable(error) && allowed.test(error))
+                .doBeforeRetry(signal -> retries.increment())
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    // Races a second request against one that has not answered within the recent p95 (never below the minimum delay).
+    // The delay runs from when the first request reaches the upstream, not from when it was queued for a slot,
+    // so calls waiting in the scheduler are not hedged; nor is a request that has already failed.
+    private Mono<String> hedged(Function<Runnable, Mono<String>> call) {
+        return Mono.defer(() -> {
+            Duration p95 = latencies.percentile(0.95);
+            if (!hedgeEnabled || p95 == null) {
+                return call.apply(() -> { });
+            }
+            Duration delay = p95.compareTo(hedgeMinDelay) > 0 ? p95 : hedgeMinDelay;
+            Sinks.One<Boolean> upstream = Sinks.one();
+            Sinks.One<Boolean> finished = Sinks.one();
+            Mono<String> first = call.apply(() -> upstream.tryEmitValue(true))
+                    .doFinally(signal -> {
+                        upstream.tryEmitValue(false);
+                        finished.tryEmitValue(true);
+                    });
+            Mono<String> hedge = upstream.asMono()
+                    .filter(Boolean::booleanValue)
+                    .flatMap(started -> Mono.delay(delay).takeUntilOther(finished.asMono()))
+                    .doOnNext(tick -> hedges.increment())
+                    .flatMap(tick -> call.apply(() -> { }));
+            // Both failed or the hedge never fired: surface the first request's own error
+            return Mono.firstWithValue(first, hedge)
+                    .onErrorMap(NoSuchElementException.class, e -> {
+                        List<Throwable> errors = Exceptions.unwrapMultiple(e.getCause());
+                        return errors.isEmpty() ? e : errors.get(0);
+                    });
+        });
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        if (error instanceof WebClientResponseException) {
+            int status = ((WebClientResponseException) error).getStatusCode().value();
+            return status == 429 || status >= 500;
+        }
+        return error instanceof WebClientRequestException;
+    }
+
+    private String requestBody(String prompt, boolean stream) throws IOException {
+        StringWriter body = new StringWriter(prompt.length() + 128);
+        try (JsonGenerator generator = jsonFactory.createGenerator(body)) {
+            generator.writeStartObject();
+            generator.writeStringField("model", model);
+            generator.writeArrayFieldStart("messages");
+            generator.writeStartObject();
+            generator.writeStringField("role", "user");
+            generator.writeStringField("content", prompt);
+            generator.writeEndObject();
+            generator.writeEndArray();
+            generator.writeNumberField("max_tokens", maxTokens);
+            if (stream) {
+                generator.writeBooleanField("stream", true);
+            }
+            generator.writeEndObject();
+        }
+        return body.toString();
+    }
+
+    private String extractDelta(String event) throws IOException {
+        return readContent(event, "delta");
+    }
+
+    private String extractContent(String result) {
+        try {
+            String content = readContent(result, "message");
+            return content != null ? content : "";
+        } catch (IOException e) {
+            throw new IllegalStateException("Unexpected LLM response", e);
+        }
+    }
+
+    // choices[0].<choice>.content when it is a string, else null; everything else is skipped unread
+    private String readContent(String json, String choice) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT || !enterField(parser, "choices", JsonToken.START_ARRAY)
+                    || parser.nextToken() != JsonToken.START_OBJECT || !enterField(parser, choice, JsonToken.START_OBJECT)
+                    || !enterField(parser, "content", JsonToken.VALUE_STRING)) {
+                return null;
+            }
+            return parser.getText();
+        }
+    }
+
+    // Moves to the value of the named field of the current object if it has the expected token
+    private static boolean enterField(JsonParser parser, String name, JsonToken expected) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            boolean match = name.equals(parser.currentName());
+            JsonToken value = parser.nextToken();
+            if (match) {
+                return value == expected;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+}
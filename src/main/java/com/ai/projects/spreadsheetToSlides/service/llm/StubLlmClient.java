@@ -0,0 +1,146 @@
+package com.ai.projects.spreadsheetToSlides.service.llm;
+
+import com.ai.projects.spreadsheetToSlides.service.PromptBuilder;
+import com.ai.projects.spreadsheetToSlides.service.slides.SlideOutlineFormat;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * In-process stand-in for the LLM ({@code llm.client=stub}) for load tests and benchmarks. Answers every
+ * prompt with the same canned slides (as JSON when the prompt asks for it) after a configurable latency, and fails a configurable fraction of
+ * calls with a 503 so the circuit breaker and error paths can be exercised without network access.
+ */
+@Component
+@ConditionalOnProperty(name = "llm.client", havingValue = "stub")
+public class StubLlmClient implements LlmClient {
+
+    private static final String DONE = "[DONE]";
+
+    private final LlmCircuitBreaker circuitBreaker;
+    private final LlmScheduler scheduler;
+    private final String model;
+    private final int maxTokens;
+    private final Duration latency;
+    private final Duration jitter;
+    private final double failureRate;
+    private final int chunkSize;
+    private final String response;
+    private final String jsonResponse;
+
+    public StubLlmClient(LlmCircuitBreaker circuitBreaker, LlmScheduler scheduler,
+                         @Value("${llm.model:gpt-3.5-turbo}") String model,
+                         @Value("${llm.max-tokens:1000}") int maxTokens,
+                         @Value("${llm.stub.latency:500ms}") Duration latency,
+                         @Value("${llm.stub.jitter:100ms}") Duration jitter,
+                         @Value("${llm.stub.failure-rate:0}") double failureRate,
+                         @Value("${llm.stub.slides:8}") int slides,
+                         @Value("${llm.stub.chunk-size:16}") int chunkSize) {
+        this.circuitBreaker = circuitBreaker;
+        this.scheduler = scheduler;
+        this.model = model;
+        this.maxTokens = maxTokens;
+        this.latency = latency;
+        this.jitter = jitter;
+        this.failureRate = failureRate;
+        this.chunkSize = chunkSize;
+        this.response = cannedResponse(slides);
+        this.jsonResponse = cannedJsonResponse(slides);
+    }
+
+    @Override
+    public String getModel() {
+        return model;
+    }
+
+    @Override
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+
+    @Override
+    public Mono<String> complete(String prompt) {
+        return scheduler.limit(circuitBreaker.protect(delay().then(outcome(prompt))), PromptBuilder.estimateTokens(prompt) + maxTokens);
+    }
+
+    // The latency is spent before the first chunk, the chunks themselves follow immediately. Like the chat
+    // completions API the chunks end with a [DONE] event, and the stream is cut there inside the breaker
+    @Override
+    public Flux<String> stream(String prompt) {
+        return scheduler.limit(circuitBreaker.protect(
+                delay().then(outcome(prompt))
+                        .flatMapMany(content -> Flux.fromIterable(chunks(content)).concatWithValues(DONE))
+                        .takeWhile(chunk -> !DONE.equals(chunk))), PromptBuilder.estimateTokens(prompt) + maxTokens);
+    }
+
+    // The markdown-ish shape the current prompts get back from the chat completions API
+    public static String cannedResponse(int slides) {
+        StringBuilder response = new StringBuilder();
+        for (int i = 1; i <= slides; i++) {
+            response.append("## Slide ").append(i).append(": Regional performance\n");
+            response.append("- Revenue grew ").append(i).append("% quarter over quarter\n");
+            response.append("- North and East regions lead the growth\n");
+            response.append("* Costs stayed flat across all regions\n");
+            if (i % 3 == 0) {
+                response.append("Suggested visual: bar chart of revenue by region\n");
+            } else if (i % 3 == 1) {
+                response.append("Suggested visual: pie chart of the regional share\n");
+            }
+            response.append('\n');
+        }
+        return response.toString();
+    }
+
+    // The same slides in the structured outline format
+    public static String cannedJsonResponse(int slides) {
+        StringBuilder response = new StringBuilder("{\"slides\": [");
+        for (int i = 1; i <= slides; i++) {
+            if (i > 1) {
+                response.append(',');
+            }
+            response.append("\n{\"title\": \"Slide ").append(i).append(": Regional performance\", \"bullets\": [")
+                    .append("\"Revenue grew ").append(i).append("% quarter over quarter\", ")
+                    .append("\"North and East regions lead the growth\", \"Costs stayed flat across all regions\"], ");
+            if (i % 3 == 0) {
+                response.append("\"chartType\": \"bar\", \"series\": \"Revenue\"}");
+            } else if (i % 3 == 1) {
+                response.append("\"chartType\": \"pie\", \"series\": null}");
+            } else {
+                response.append("\"chartType\": null, \"series\": null}");
+            }
+        }
+        return response.append("\n]}").toString();
+    }
+
+    private Mono<Long> delay() {
+        long nanos = latency.toNanos();
+        if (!jitter.isZero()) {
+            nanos += ThreadLocalRandom.current().nextLong(jitter.toNanos() + 1);
+        }
+        return nanos == 0 ? Mono.empty() : Mono.delay(Duration.ofNanos(nanos));
+    }
+
+    private Mono<String> outcome(String prompt) {
+        String content = prompt.endsWith(SlideOutlineFormat.JSON_INSTRUCTIONS) ? jsonResponse : response;
+        return Mono.defer(() -> ThreadLocalRandom.current().nextDouble() < failureRate
+                ? Mono.error(WebClientResponseException.create(503, "Service Unavailable (stub)", HttpHeaders.EMPTY, new byte[0], null))
+                : Mono.just(content));
+    }
+
+    private List<String> chunks(String content) {
+        List<String> chunks = new ArrayList<>();
+        for (int i = 0; i < content.length(); i += chunkSize) {
+            chunks.add(content.substring(i, Math.min(content.length(), i + chunkSize)));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,54 @@
+package com.ai.projects.spreadsheetToSlides.service.metrics;
+
+import com.ai.projects.spreadsheetToSlides.service.llm.LlmScheduler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Entry point for conversion instrumentation. Each conversion gets a {@link ConversionRecorder}
+ * whose stage observations become timers and, with tracing on, child spans of one conversion span.
+ * When disabled, recorders use no-op registries so the pipeline pays nothing for them.
+ */
+@Component
+public class ConversionMetrics {
+
+    private final boolean enabled;
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
+
+    public ConversionMetrics(MeterRegistry meterRegistry, ObservationRegistry observationRegistry,
+                             @Value("${conversion.metrics.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+        this.meterRegistry = meterRegistry;
+        this.observationRegistry = enabled ? observationRegistry : ObservationRegistry.NOOP;
+    }
+
+    // For callers outside Spring (benchmarks, tests)
+    public static ConversionMetrics disabled() {
+        return new ConversionMetrics(new SimpleMeterRegistry(), ObservationRegistry.NOOP, false);
+    }
+
+    public ConversionRecorder start(String flow) {
+        return start(flow, UUID.randomUUID().toString());
+    }
+
+    public ConversionRecorder start(String flow, String conversionId) {
+        return start(flow, conversionId, LlmScheduler.DEFAULT_TENANT);
+    }
+
+    // tenant is who the conversion's LLM calls are scheduled for; it is not used as a metric tag
+    public ConversionRecorder start(String flow, String conversionId, String tenant) {
+        return new ConversionRecorder(this, flow, conversionId, tenant != null ? tenant : LlmScheduler.DEFAULT_TENANT);
+    }
+
+    boolean isEnabled() { return enabled; }
+
+    MeterRegistry getMeterRegistry() { return meterRegistry; }
+
+    ObservationRegistry getObservationRegistry() { return observationRegistry; }
+}
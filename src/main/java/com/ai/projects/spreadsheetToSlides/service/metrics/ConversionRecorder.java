@@ -0,0 +1,224 @@
+package com.ai.projects.spreadsheetToSlides.service.metrics;
+
+import com.ai.projects.spreadsheetToSlides.service.PromptBuilder;
+import com.ai.projects.spreadsheetToSlides.service.llm.LlmOverloadedException;
+import com.ai.projects.spreadsheetToSlides.service.llm.LlmUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Instrumentation for a single conversion. Stages run inside {@code conversion.stage} observations
+ * (timers tagged by flow and stage, child spans of the {@code conversion} span carrying the
+ * conversion id); sizes are recorded as distribution summaries tagged by flow. The parse stage is
+ * also tagged {@code cache=hit|miss}, so workbooks answered from the parsed-workbook cache do not
+ * skew the parse timings; other stages carry {@code cache=none}.
+ */
+public class ConversionRecorder implements AutoCloseable {
+
+    public static final String PARSE = "parse";
+    public static final String PROMPT = "prompt";
+    public static final String LLM = "llm";
+    public static final String RENDER = "render";
+    public static final String WRITE = "write";
+
+    private final ConversionMetrics metrics;
+    private final String flow;
+    private final String conversionId;
+    private final String tenant;
+    private final Observation conversion;
+    private final long startNanos = System.nanoTime();
+    private volatile long parseNanos;
+    private volatile boolean parseCacheHit;
+
+    ConversionRecorder(ConversionMetrics metrics, String flow, String conversionId, String tenant) {
+        this.metrics = metrics;
+        this.flow = flow;
+        this.conversionId = conversionId;
+        this.tenant = tenant;
+        this.conversion = Observation.createNotStarted("conversion", metrics.getObservationRegistry())
+                .contextualName("conversion " + flow)
+                .lowCardinalityKeyValue("flow", flow)
+                .highCardinalityKeyValue("conversion.id", conversionId)
+                .start();
+    }
+
+    public String getConversionId() { return conversionId; }
+
+    public String getTenant() { return tenant; }
+
+    public <T, E extends Throwable> T observe(String stage, Observation.CheckedCallable<T, E> work) throws E {
+        Observation observation = stageObservation(stage).start();
+        long start = System.nanoTime();
+        try (Observation.Scope scope = observation.openScope()) {
+            return work.call();
+        } catch (Throwable e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            stageFinished(stage, System.nanoTime() - start, observation);
+            observation.stop();
+        }
+    }
+
+    public <T> Mono<T> observe(String stage, Mono<T> work) {
+        return Mono.defer(() -> {
+            Observation observation = stageObservation(stage).start();
+            long start = System.nanoTime();
+            return work.doOnError(observation::error)
+                    .doFinally(signal -> {
+                        stageFinished(stage, System.nanoTime() - start, observation);
+                        observation.stop();
+                    });
+        });
+    }
+
+    public <T> Flux<T> observe(String stage, Flux<T> work) {
+        return Flux.defer(() -> {
+            Observation observation = stageObservation(stage).start();
+            long start = System.nanoTime();
+            return work.doOnError(observation::error)
+                    .doFinally(signal -> {
+                        stageFinished(stage, System.nanoTime() - start, observation);
+                        observation.stop();
+                    });
+        });
+    }
+
+    // Call inside the parse stage when its model came from the parsed-workbook cache rather than the parser
+    public void recordParseCacheHit() {
+        parseCacheHit = true;
+    }
+
+    // Call after the parse stage; rates are derived from its duration, unless nothing was actually parsed
+    public void recordParse(int sheets, long rows, long cells) {
+        if (!metrics.isEnabled()) {
+            return;
+        }
+        summary("conversion.parse.sheets", "sheets").record(sheets);
+        summary("conversion.parse.rows", "rows").record(rows);
+        summary("conversion.parse.cells", "cells").record(cells);
+        long nanos = parseNanos;
+        if (nanos > 0 && !parseCacheHit) {
+            double seconds = nanos / (double) TimeUnit.SECONDS.toNanos(1);
+            summary("conversion.parse.rows.per.second", null).record(rows / seconds);
+            summary("conversion.parse.cells.per.second", null).record(cells / seconds);
+        }
+    }
+
+    public void recordPrompt(String prompt) {
+        if (!metrics.isEnabled()) {
+            return;
+        }
+        summary("conversion.prompt.chars", "characters").record(prompt.length());
+        summary("conversion.prompt.tokens", "tokens").record(PromptBuilder.estimateTokens(prompt));
+    }
+
+    // Status is "ok", "cached", an HTTP status code, "timeout" or "error"; response may be null on failure
+    public void recordLlm(String status, String response) {
+        if (!metrics.isEnabled()) {
+            return;
+        }
+        Counter.builder("conversion.llm.calls")
+                .tag("flow", flow)
+                .tag("status", status)
+                .register(metrics.getMeterRegistry())
+                .increment();
+        if (response != null) {
+            summary("conversion.llm.response.chars", "characters").record(response.length());
+        }
+    }
+
+    // Sheets of an incremental conversion taken from the previous snapshot, and those parsed and prompted again
+    public void recordIncremental(int reused, int converted) {
+        if (!metrics.isEnabled()) {
+            return;
+        }
+        incrementalSheets("reused").increment(reused);
+        incrementalSheets("converted").increment(converted);
+    }
+
+    public void recordSlides(int slides) {
+        if (metrics.isEnabled()) {
+            summary("conversion.slides", "slides").record(slides);
+        }
+    }
+
+    // Time from the start of the conversion until the first slide is in the deck
+    public void recordFirstSlide() {
+        if (metrics.isEnabled()) {
+            Timer.builder("conversion.first.slide")
+                    .tag("flow", flow)
+                    .register(metrics.getMeterRegistry())
+                    .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void recordOutput(long bytes) {
+        if (metrics.isEnabled()) {
+            summary("conversion.output.size", "bytes").record(bytes);
+        }
+    }
+
+    public static String llmStatus(Throwable failure) {
+        // block() wraps checked exceptions such as TimeoutException
+        Throwable error = Exceptions.unwrap(failure);
+        if (error instanceof LlmUnavailableException) {
+            return "circuit-open";
+        }
+        if (error instanceof LlmOverloadedException) {
+            return "rejected";
+        }
+        if (error instanceof WebClientResponseException) {
+            return String.valueOf(((WebClientResponseException) error).getStatusCode().value());
+        }
+        if (error instanceof TimeoutException) {
+            return "timeout";
+        }
+        return "error";
+    }
+
+    @Override
+    public void close() {
+        conversion.stop();
+    }
+
+    private Observation stageObservation(String stage) {
+        return Observation.createNotStarted("conversion.stage", metrics.getObservationRegistry())
+                .contextualName(stage)
+                .parentObservation(conversion)
+                .lowCardinalityKeyValue("flow", flow)
+                .lowCardinalityKeyValue("stage", stage)
+                .lowCardinalityKeyValue("cache", "none")
+                .highCardinalityKeyValue("conversion.id", conversionId);
+    }
+
+    private void stageFinished(String stage, long nanos, Observation observation) {
+        if (PARSE.equals(stage)) {
+            parseNanos = nanos;
+            observation.lowCardinalityKeyValue("cache", parseCacheHit ? "hit" : "miss");
+        }
+    }
+
+    private Counter incrementalSheets(String outcome) {
+        return Counter.builder("conversion.incremental.sheets")
+                .tag("flow", flow)
+                .tag("outcome", outcome)
+                .register(metrics.getMeterRegistry());
+    }
+
+    private DistributionSummary summary(String name, String baseUnit) {
+        return DistributionSummary.builder(name)
+                .baseUnit(baseUnit)
+                .tag("flow", flow)
+                .register(metrics.getMeterRegistry());
+    }
+}
@@ -0,0 +1,207 @@
+package com.ai.projects.spreadsheetToSlides.service.parser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encoding and delimiter of a CSV upload, guessed from its first 64 KB. A byte order mark decides the
+ * encoding; without one the sample is UTF-16 if every other byte is zero, UTF-8 if it decodes as such,
+ * and Windows-1252 (what Excel exports on Windows) otherwise. The delimiter is the candidate that splits
+ * the header line and most of the following lines into the same number of fields, ignoring quoted text.
+ */
+final class CsvDialect {
+
+    static final int SAMPLE_SIZE = 64 * 1024;
+    static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+
+    private static final char[] DELIMITERS = {',', ';', '\t', '|'};
+    private static final int SAMPLE_LINES = 50;
+
+    private final Charset charset;
+    private final int bomLength;
+    private final char delimiter;
+
+    CsvDialect(Charset charset, int bomLength, char delimiter) {
+        this.charset = charset;
+        this.bomLength = bomLength;
+        this.delimiter = delimiter;
+    }
+
+    Charset getCharset() { return charset; }
+
+    // Bytes of the byte order mark to skip before decoding
+    int getBomLength() { return bomLength; }
+
+    char getDelimiter() { return delimiter; }
+
+    static CsvDialect sniff(ReadableByteChannel channel) throws IOException {
+        ByteBuffer sample = sample(channel);
+        boolean complete = sample.remaining() < SAMPLE_SIZE;
+        CsvDialect encoding = encoding(sample, complete);
+        return new CsvDialect(encoding.charset, encoding.bomLength, guessDelimiter(encoding.decode(sample), complete));
+    }
+
+    // Binary content decodes to NULs, control characters and undecodable bytes, which text exports hardly contain
+    static boolean isText(ReadableByteChannel channel) throws IOException {
+        ByteBuffer sample = sample(channel);
+        CharBuffer text = encoding(sample, sample.remaining() < SAMPLE_SIZE).decode(sample);
+        int suspicious = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == 0) {
+                return false;
+            }
+            if ((c < ' ' && c != '\t' && c != '\n' && c != '\r' && c != '\f') || c == 0x7F || c == '\uFFFD') {
+                suspicious++;
+            }
+        }
+        return suspicious <= text.length() / 20;
+    }
+
+    // The first SAMPLE_SIZE bytes, or the whole file if it is shorter
+    private static ByteBuffer sample(ReadableByteChannel channel) throws IOException {
+        ByteBuffer sample = ByteBuffer.allocate(SAMPLE_SIZE);
+        while (sample.hasRemaining() && channel.read(sample) >= 0) {
+            // Fill the sample or reach the end of the file
+        }
+        sample.flip();
+        return sample;
+    }
+
+    // Charset and byte order mark only; the delimiter is left unset
+    private static CsvDialect encoding(ByteBuffer sample, boolean complete) {
+        if (startsWith(sample, 0xEF, 0xBB, 0xBF)) {
+            return new CsvDialect(StandardCharsets.UTF_8, 3, (char) 0);
+        } else if (startsWith(sample, 0xFE, 0xFF)) {
+            return new CsvDialect(StandardCharsets.UTF_16BE, 2, (char) 0);
+        } else if (startsWith(sample, 0xFF, 0xFE)) {
+            return new CsvDialect(StandardCharsets.UTF_16LE, 2, (char) 0);
+        }
+        return new CsvDialect(guessCharset(sample, complete), 0, (char) 0);
+    }
+
+    private CharBuffer decode(ByteBuffer sample) throws CharacterCodingException {
+        return charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                .decode(sample.duplicate().position(bomLength));
+    }
+
+    private static Charset guessCharset(ByteBuffer sample, boolean complete) {
+        int pairs = Math.min(sample.remaining(), 256) / 2;
+        int evenZeros = 0;
+        int oddZeros = 0;
+        for (int i = 0; i < pairs; i++) {
+            evenZeros += sample.get(i * 2) == 0 ? 1 : 0;
+            oddZeros += sample.get(i * 2 + 1) == 0 ? 1 : 0;
+        }
+        // ASCII text in UTF-16 has a zero in every high byte
+        if (pairs > 0 && oddZeros > pairs * 0.9) {
+            return StandardCharsets.UTF_16LE;
+        }
+        if (pairs > 0 && evenZeros > pairs * 0.9) {
+            return StandardCharsets.UTF_16BE;
+        }
+        try {
+            StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(complete ? sample.duplicate() : trimIncompleteSequence(sample));
+            return StandardCharsets.UTF_8;
+        } catch (CharacterCodingException e) {
+            return WINDOWS_1252;
+        }
+    }
+
+    // The sample may end in the middle of a multi-byte sequence; drop the partial character
+    private static ByteBuffer trimIncompleteSequence(ByteBuffer sample) {
+        int end = sample.limit();
+        for (int i = end - 1; i >= Math.max(0, end - 3); i--) {
+            int b = sample.get(i) & 0xFF;
+            if (b < 0x80) {
+                break;
+            }
+            if (b >= 0xC0) {
+                end = i;
+                break;
+            }
+        }
+        return sample.duplicate().limit(end);
+    }
+
+    private static char guessDelimiter(CharBuffer text, boolean complete) {
+        int[][] counts = new int[DELIMITERS.length][SAMPLE_LINES];
+        int lines = 0;
+        boolean quoted = false;
+        boolean blank = true;
+        for (int i = 0; i < text.length() && lines < SAMPLE_LINES; i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+                blank = false;
+            } else if (!quoted && c == '\n') {
+                // Blank lines are skipped by the reader, so they do not count here either
+                if (!blank) {
+                    lines++;
+                } else {
+                    for (int[] delimiterCounts : counts) {
+                        delimiterCounts[lines] = 0;
+                    }
+                }
+                blank = true;
+            } else if (!quoted) {
+                blank &= c <= ' ';
+                for (int d = 0; d < DELIMITERS.length; d++) {
+                    if (c == DELIMITERS[d]) {
+                        counts[d][lines]++;
+                    }
+                }
+            }
+        }
+        // A cut-off last line would look inconsistent; only a complete file's last line counts
+        if (complete && !blank && lines < SAMPLE_LINES) {
+            lines++;
+        }
+        lines = Math.max(lines, 1);
+
+        char best = ',';
+        double bestScore = 0;
+        for (int d = 0; d < DELIMITERS.length; d++) {
+            int fields = counts[d][0];
+            if (fields == 0) {
+                continue;
+            }
+            int consistent = 0;
+            for (int line = 0; line < lines; line++) {
+                if (counts[d][line] == fields) {
+                    consistent++;
+                }
+            }
+            // Consistency first, then the delimiter that splits the header into more fields
+            double score = (double) consistent / lines + fields / 1000.0;
+            if (score > bestScore) {
+                bestScore = score;
+                best = DELIMITERS[d];
+            }
+        }
+        return best;
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int... bytes) {
+        if (buffer.remaining() < bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if ((buffer.get(i) & 0xFF) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
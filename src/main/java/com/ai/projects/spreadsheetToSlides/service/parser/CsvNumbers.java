@@ -0,0 +1,166 @@
+package com.ai.projects.spreadsheetToSlides.service.parser;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/**
+ * Reads numbers and ISO dates straight from a CSV field's characters, so numeric cells never become
+ * a {@code String}. Plain decimals of up to 15 significant digits with a small exponent are exact in a
+ * double and take the fast path; anything longer goes through {@link Double#parseDouble} to stay
+ * correctly rounded. Both return {@link Double#NaN} for a field that is not of their kind.
+ */
+final class CsvNumbers {
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final int MAX_EXACT_DIGITS = 15;
+    // Excel's day 0 in the 1900 date system
+    private static final long EXCEL_EPOCH_DAY = LocalDate.of(1899, 12, 30).toEpochDay();
+
+    private CsvNumbers() {
+    }
+
+    // [+-]digits[.digits][(e|E)[+-]digits], at least one digit in the mantissa
+    static double parseNumber(char[] chars, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int significantDigits = 0;
+        int scale = 0;
+        boolean digits = false;
+        boolean exact = true;
+        for (; i < to && isDigit(chars[i]); i++) {
+            digits = true;
+            if (mantissa == 0 && chars[i] == '0') {
+                continue;
+            }
+            if (significantDigits < MAX_EXACT_DIGITS) {
+                mantissa = mantissa * 10 + (chars[i] - '0');
+                significantDigits++;
+            } else {
+                scale++;
+                exact = false;
+            }
+        }
+        if (i < to && chars[i] == '.') {
+            for (i++; i < to && isDigit(chars[i]); i++) {
+                digits = true;
+                if (mantissa == 0 && chars[i] == '0') {
+                    scale--;
+                    continue;
+                }
+                if (significantDigits < MAX_EXACT_DIGITS) {
+                    mantissa = mantissa * 10 + (chars[i] - '0');
+                    significantDigits++;
+                    scale--;
+                } else {
+                    exact = false;
+                }
+            }
+        }
+        if (!digits) {
+            return Double.NaN;
+        }
+        if (i < to && (chars[i] == 'e' || chars[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (chars[i] == '-' || chars[i] == '+')) {
+                negativeExponent = chars[i] == '-';
+                i++;
+            }
+            int exponent = 0;
+            boolean exponentDigits = false;
+            for (; i < to && isDigit(chars[i]); i++) {
+                exponentDigits = true;
+                exponent = Math.min(exponent * 10 + (chars[i] - '0'), 100_000);
+            }
+            if (!exponentDigits) {
+                return Double.NaN;
+            }
+            scale += negativeExponent ? -exponent : exponent;
+        }
+        if (i != to) {
+            return Double.NaN;
+        }
+
+        double value;
+        if (mantissa == 0) {
+            value = 0;
+        } else if (exact && scale >= 0 && scale < POWERS_OF_TEN.length) {
+            value = mantissa * POWERS_OF_TEN[scale];
+        } else if (exact && scale < 0 && -scale < POWERS_OF_TEN.length) {
+            value = mantissa / POWERS_OF_TEN[-scale];
+        } else {
+            // Rare: too many digits or a large exponent
+            return Double.parseDouble(new String(chars, from, to - from));
+        }
+        return negative ? -value : value;
+    }
+
+    // yyyy-MM-dd, optionally followed by 'T' or ' ' and HH:mm[:ss], as an Excel date serial
+    static double parseIsoDate(char[] chars, int from, int to) {
+        int length = to - from;
+        if (length != 10 && length != 16 && length != 19) {
+            return Double.NaN;
+        }
+        if (chars[from + 4] != '-' || chars[from + 7] != '-') {
+            return Double.NaN;
+        }
+        int year = digits(chars, from, 4);
+        int month = digits(chars, from + 5, 2);
+        int day = digits(chars, from + 8, 2);
+        if (year < 1900 || month < 1 || month > 12 || day < 1 || day > 28 + (month == 2 ? 1 : 3)) {
+            return Double.NaN;
+        }
+        int seconds = 0;
+        if (length > 10) {
+            char separator = chars[from + 10];
+            if ((separator != 'T' && separator != ' ') || chars[from + 13] != ':'
+                    || (length == 19 && chars[from + 16] != ':')) {
+                return Double.NaN;
+            }
+            int hour = digits(chars, from + 11, 2);
+            int minute = digits(chars, from + 14, 2);
+            int second = length == 19 ? digits(chars, from + 17, 2) : 0;
+            if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+                return Double.NaN;
+            }
+            seconds = hour * 3600 + minute * 60 + second;
+        }
+        LocalDate date;
+        try {
+            date = LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            // 31 April and the like
+            return Double.NaN;
+        }
+        long serial = date.toEpochDay() - EXCEL_EPOCH_DAY;
+        // Excel counts a 29 February 1900 that never was
+        if (serial < 61) {
+            serial--;
+        }
+        return serial + seconds / 86400.0;
+    }
+
+    // -1 unless all count characters are digits
+    private static int digits(char[] chars, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            if (!isDigit(chars[i])) {
+                return -1;
+            }
+            value = value * 10 + (chars[i] - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,278 @@
+package com.ai.projects.spreadsheetToSlides.service.parser;
+
+import com.ai.projects.spreadsheetToSlides.service.SpooledUpload;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A CSV upload read as a one-sheet workbook. The file is read through a channel into one byte buffer and
+ * decoded into one char buffer, both reused to the end, and records are tokenized in place: memory stays
+ * constant whatever the file size. Numbers, booleans and ISO dates are typed straight from the characters
+ * the way Excel would on opening the file; only text cells allocate a {@code String}. Quoted fields follow
+ * RFC 4180 and may span lines; blank lines are skipped.
+ */
+public class CsvWorkbookSource implements WorkbookSource {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Excel's limit; longer text is cut, so an unbalanced quote cannot pull the rest of the file into one cell
+    private static final int MAX_CELL_LENGTH = 32767;
+
+    private final SpooledUpload upload;
+    private final CsvDialect dialect;
+    private final List<SheetSource> sheets;
+
+    public CsvWorkbookSource(SpooledUpload upload) throws IOException {
+        this.upload = upload;
+        try (ReadableByteChannel channel = upload.openChannel()) {
+            this.dialect = CsvDialect.sniff(channel);
+        }
+        this.sheets = List.of(new CsvSheetSource(sheetName(upload.getFilename())));
+    }
+
+    @Override
+    public List<SheetSource> getSheets() {
+        return sheets;
+    }
+
+    @Override
+    public void close() {
+        // Every read opens and closes its own channel
+    }
+
+    // "exports/Sales 2024.csv" is sheet "Sales 2024"
+    static String sheetName(String filename) {
+        if (filename == null || filename.isBlank()) {
+            return "Sheet1";
+        }
+        String name = filename.substring(Math.max(filename.lastIndexOf('/'), filename.lastIndexOf('\\')) + 1);
+        int extension = name.lastIndexOf('.');
+        return extension > 0 ? name.substring(0, extension) : name;
+    }
+
+    private class CsvSheetSource implements SheetSource {
+
+        private final String sheetName;
+
+        CsvSheetSource(String sheetName) {
+            this.sheetName = sheetName;
+        }
+
+        @Override
+        public String getSheetName() {
+            return sheetName;
+        }
+
+        @Override
+        public void readRows(SheetRowHandler handler) throws IOException {
+            new RecordReader(dialect, Integer.MAX_VALUE, handler).read(upload);
+        }
+
+        @Override
+        public SheetRow readHeaderRow() throws IOException {
+            SheetRow[] header = new SheetRow[1];
+            new RecordReader(dialect, 0, row -> header[0] = row).read(upload);
+            return header[0];
+        }
+    }
+
+    // One pass over the file; the field, row and coding buffers are reused for every record
+    private static class RecordReader {
+
+        private final CsvDialect dialect;
+        private final int lastRow;
+        private final SheetRowHandler handler;
+        private final SheetRow row = new SheetRow();
+
+        private char[] field = new char[256];
+        private int fieldLength;
+        private boolean fieldQuoted;
+        private boolean inQuotes;
+        // A quote inside a quoted field: either the closing one or the first of an escaped pair
+        private boolean quotePending;
+        private boolean skipLineFeed;
+        private int column;
+        private int rowNum;
+        private boolean stopped;
+
+        RecordReader(CsvDialect dialect, int lastRow, SheetRowHandler handler) {
+            this.dialect = dialect;
+            this.lastRow = lastRow;
+            this.handler = handler;
+            row.reset(0, false);
+        }
+
+        void read(SpooledUpload upload) throws IOException {
+            CharsetDecoder decoder = dialect.getCharset().newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+            CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+            int skip = dialect.getBomLength();
+            boolean endOfInput = false;
+            try (ReadableByteChannel channel = upload.openChannel()) {
+                while (!stopped) {
+                    if (!endOfInput && channel.read(bytes) < 0) {
+                        endOfInput = true;
+                    }
+                    bytes.flip();
+                    if (skip > 0) {
+                        int skipped = Math.min(skip, bytes.remaining());
+                        bytes.position(bytes.position() + skipped);
+                        skip -= skipped;
+                    }
+                    boolean drained = decoder.decode(bytes, chars, endOfInput).isUnderflow();
+                    bytes.compact();
+                    if (endOfInput && drained) {
+                        decoder.flush(chars);
+                    }
+                    chars.flip();
+                    tokenize(chars.array(), chars.position(), chars.limit());
+                    chars.clear();
+                    if (endOfInput && drained) {
+                        break;
+                    }
+                }
+            }
+            if (!stopped && (column > 0 || fieldLength > 0 || fieldQuoted)) {
+                // Last record without a line break
+                endRecord();
+            }
+        }
+
+        private void tokenize(char[] chars, int from, int to) {
+            char delimiter = dialect.getDelimiter();
+            for (int i = from; i < to && !stopped; i++) {
+                char c = chars[i];
+                if (inQuotes) {
+                    if (c == '"') {
+                        inQuotes = false;
+                        quotePending = true;
+                    } else {
+                        append(c);
+                    }
+                    continue;
+                }
+                if (quotePending) {
+                    quotePending = false;
+                    if (c == '"') {
+                        append('"');
+                        inQuotes = true;
+                        continue;
+                    }
+                }
+                if (skipLineFeed) {
+                    skipLineFeed = false;
+                    if (c == '\n') {
+                        continue;
+                    }
+                }
+                if (c == delimiter) {
+                    endField();
+                } else if (c == '\n' || c == '\r') {
+                    skipLineFeed = c == '\r';
+                    endRecord();
+                } else if (c == '"' && !fieldQuoted && isBlankField()) {
+                    // Spaces before the opening quote are not part of the value
+                    fieldLength = 0;
+                    inQuotes = true;
+                    fieldQuoted = true;
+                } else if (!fieldQuoted || c > ' ') {
+                    // Nor are spaces after the closing quote
+                    append(c);
+                }
+            }
+        }
+
+        private boolean isBlankField() {
+            for (int i = 0; i < fieldLength; i++) {
+                if (field[i] > ' ') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void append(char c) {
+            if (fieldLength == MAX_CELL_LENGTH) {
+                return;
+            }
+            if (fieldLength == field.length) {
+                field = Arrays.copyOf(field, Math.min(field.length * 2, MAX_CELL_LENGTH));
+            }
+            field[fieldLength++] = c;
+        }
+
+        private void endField() {
+            int from = 0;
+            int to = fieldLength;
+            while (from < to && field[from] <= ' ') {
+                from++;
+            }
+            while (to > from && field[to - 1] <= ' ') {
+                to--;
+            }
+            if (from < to) {
+                setCell(from, to);
+            }
+            column++;
+            fieldLength = 0;
+            fieldQuoted = false;
+        }
+
+        // Empty fields are missing cells, as they would be in a workbook saved from the CSV
+        private void setCell(int from, int to) {
+            double number = CsvNumbers.parseNumber(field, from, to);
+            if (!Double.isNaN(number)) {
+                row.setNumeric(column, number, false);
+                return;
+            }
+            double date = CsvNumbers.parseIsoDate(field, from, to);
+            if (!Double.isNaN(date)) {
+                row.setNumeric(column, date, true);
+                return;
+            }
+            if (isWord(from, to, "true") || isWord(from, to, "false")) {
+                row.setBoolean(column, to - from == 4);
+                return;
+            }
+            // Text keeps its surrounding spaces, as a workbook cell would
+            row.setString(column, new String(field, 0, fieldLength));
+        }
+
+        private boolean isWord(int from, int to, String word) {
+            if (to - from != word.length()) {
+                return false;
+            }
+            for (int i = 0; i < word.length(); i++) {
+                if (Character.toLowerCase(field[from + i]) != word.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void endRecord() {
+            endField();
+            if (row.getLastCellNum() < 0) {
+                // Blank line, or only delimiters and spaces
+                column = 0;
+                return;
+            }
+            handler.handleRow(row);
+            if (rowNum >= lastRow) {
+                stopped = true;
+                return;
+            }
+            rowNum++;
+            row.reset(rowNum, false);
+            column = 0;
+        }
+    }
+}
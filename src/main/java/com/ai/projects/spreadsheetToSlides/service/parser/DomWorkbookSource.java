@@ -0,0 +1,79 @@
+package com.ai.projects.spreadsheetToSlides.service.parser;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads the whole workbook into an {@link XSSFWorkbook}. Kept as the reference implementation
+ * for comparing output and throughput against {@link StreamingWorkbookSource}.
+ */
+public class DomWorkbookSource implements WorkbookSource {
+
+    private final OPCPackage pkg;
+    private final XSSFWorkbook workbook;
+    private final List<SheetSource> sheets = new ArrayList<>();
+
+    public DomWorkbookSource(OPCPackage pkg) throws Exception {
+        this.pkg = pkg;
+        try {
+            this.workbook = new XSSFWorkbook(pkg);
+        } catch (Exception e) {
+            // A corrupt upload: the caller never gets a source to close, so the package is discarded here
+            pkg.revert();
+            throw e;
+        }
+        for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
+            sheets.add(new DomSheetSource(workbook.getSheetAt(i)));
+        }
+    }
+
+    @Override
+    public List<SheetSource> getSheets() {
+        return sheets;
+    }
+
+    @Override
+    public void close() {
+        // The package may be read-only, so discard it rather than closing (which would try to save)
+        pkg.revert();
+    }
+
+    private class DomSheetSource implements SheetSource {
+
+        private final Sheet sheet;
+
+        DomSheetSource(Sheet sheet) {
+            this.sheet = sheet;
+        }
+
+        @Override
+        public String getSheetName() {
+            return sheet.getSheetName();
+        }
+
+        @Override
+        public void readRows(SheetRowHandler handler) {
+            SheetRow buffer = new SheetRow();
+            for (Row row : sheet) {
+                buffer.fill(row, workbook.isDate1904());
+                handler.handleRow(buffer);
+            }
+        }
+
+        @Override
+        public SheetRow readHeaderRow() {
+            Row row = sheet.getRow(0);
+            if (row == null) {
+                return null;
+            }
+            SheetRow buffer = new SheetRow();
+            buffer.fill(row, workbook.isDate1904());
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.ai.projects.spreadsheetToSlides.service.parser;
+
+import org.apache.poi.hssf.eventusermodel.AbortableHSSFListener;
+import org.apache.poi.hssf.eventusermodel.EventWorkbookBuilder;
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.model.HSSFFormulaParser;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BlankRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.DateWindow1904Record;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.MulBlankRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RowRecord;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.FormulaError;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Legacy .xls workbooks read with HSSF's event API: the BIFF record stream is replayed from the start
+ * for every read and only the records of the wanted sheet become cells, so no {@code HSSFWorkbook} is
+ * ever built. Fills the same {@link SheetRow} as the XLSX readers, including date detection from the
+ * cell formats and formula text with the cached result type.
+ */
+public class HssfWorkbookSource implements WorkbookSource {
+
+    private final POIFSFileSystem fileSystem;
+    private final boolean date1904;
+    private final List<SheetSource> sheets = new ArrayList<>();
+
+    public HssfWorkbookSource(POIFSFileSystem fileSystem) throws Exception {
+        this.fileSystem = fileSystem;
+        // The workbook globals come first: sheet names and the date system, then stop at the first sheet
+        List<BoundSheetRecord> boundSheets = new ArrayList<>();
+        boolean[] windowing1904 = new boolean[1];
+        try {
+            process(new AbortableHSSFListener() {
+                @Override
+                public short abortableProcessRecord(Record record) {
+                    if (record instanceof BoundSheetRecord) {
+                        boundSheets.add((BoundSheetRecord) record);
+                    } else if (record instanceof DateWindow1904Record) {
+                        windowing1904[0] = ((DateWindow1904Record) record).getWindowing() == 1;
+                    } else if (record instanceof EOFRecord) {
+                        return 1;
+                    }
+                    return 0;
+                }
+            });
+        } catch (Exception e) {
+            // A corrupt upload: the caller never gets a source to close, so the file system is closed here
+            fileSystem.close();
+            throw e;
+        }
+        this.date1904 = windowing1904[0];
+        BoundSheetRecord[] ordered = BoundSheetRecord.orderByBofPosition(boundSheets);
+        for (int i = 0; i < ordered.length; i++) {
+            sheets.add(new HssfSheetSource(ordered[i].getSheetname(), i));
+        }
+    }
+
+    @Override
+    public List<SheetSource> getSheets() {
+        return sheets;
+    }
+
+    @Override
+    public void close() throws IOException {
+        fileSystem.close();
+    }
+
+    private void process(AbortableHSSFListener listener) throws Exception {
+        HSSFRequest request = new HSSFRequest();
+        request.addListenerForAllRecords(listener);
+        new HSSFEventFactory().abortableProcessWorkbookEvents(request, fileSystem);
+    }
+
+    private class HssfSheetSource implements SheetSource {
+
+        private final String sheetName;
+        private final int index;
+
+        HssfSheetSource(String sheetName, int index) {
+            this.sheetName = sheetName;
+            this.index = index;
+        }
+
+        @Override
+        public String getSheetName() {
+            return sheetName;
+        }
+
+        @Override
+        public void readRows(SheetRowHandler handler) throws Exception {
+            process(new SheetListener(index, Integer.MAX_VALUE, handler));
+        }
+
+        @Override
+        public SheetRow readHeaderRow() throws Exception {
+            SheetRow[] header = new SheetRow[1];
+            process(new SheetListener(index, 0, row -> header[0] = row));
+            return header[0];
+        }
+    }
+
+    // Cells arrive one record at a time in row order; a row is handed on once a cell of a later row shows up.
+    // Each block of row records precedes its cells, so rows present without cells are reported in order too
+    private class SheetListener extends AbortableHSSFListener {
+
+        private final int sheetIndex;
+        private final int lastRow;
+        private final SheetRowHandler handler;
+        private final SheetRow row = new SheetRow();
+        private final FormatTrackingHSSFListener formats = new FormatTrackingHSSFListener(null);
+        // Stub workbook for turning formula tokens back into text
+        private final EventWorkbookBuilder.SheetRecordCollectingListener workbookBuilder =
+                new EventWorkbookBuilder.SheetRecordCollectingListener(null);
+
+        private SSTRecord sharedStrings;
+        private int depth;
+        private int substream = -1;
+        private boolean inSheet;
+        private int currentRow = -1;
+        // Rows announced by row records and not handed on yet, ascending
+        private int[] pendingRows = new int[32];
+        private int pendingHead;
+        private int pendingTail;
+
+        SheetListener(int sheetIndex, int lastRow, SheetRowHandler handler) {
+            this.sheetIndex = sheetIndex;
+            this.lastRow = lastRow;
+            this.handler = handler;
+        }
+
+        @Override
+        public short abortableProcessRecord(Record record) {
+            if (substream < 0) {
+                formats.processRecordInternally(record);
+                workbookBuilder.processRecordInternally(record);
+            }
+            switch (record.getSid()) {
+                case BOFRecord.sid:
+                    depth++;
+                    // Charts embedded in a sheet open nested substreams
+                    if (depth == 1 && ((BOFRecord) record).getType() != BOFRecord.TYPE_WORKBOOK) {
+                        substream++;
+                        inSheet = substream == sheetIndex;
+                    }
+                    return 0;
+                case EOFRecord.sid:
+                    depth--;
+                    if (depth == 0 && inSheet) {
+                        flush();
+                        emitEmptyRowsBefore(Integer.MAX_VALUE);
+                        return 1;
+                    }
+                    return 0;
+                case SSTRecord.sid:
+                    sharedStrings = (SSTRecord) record;
+                    return 0;
+                default:
+                    break;
+            }
+            if (!inSheet || depth != 1) {
+                return 0;
+            }
+            return cell(record) ? 0 : (short) 1;
+        }
+
+        // False once every wanted row has been read
+        private boolean cell(Record record) {
+            switch (record.getSid()) {
+                case RowRecord.sid:
+                    addPendingRow(((RowRecord) record).getRowNumber());
+                    return true;
+                case NumberRecord.sid: {
+                    NumberRecord number = (NumberRecord) record;
+                    if (!startCell(number.getRow())) {
+                        return false;
+                    }
+                    // As DateUtil.isCellDateFormatted decides for a workbook cell
+                    row.setNumeric(number.getColumn(), number.getValue(), DateUtil.isValidExcelDate(number.getValue())
+                            && DateUtil.isADateFormat(formats.getFormatIndex(number), formats.getFormatString(number)));
+                    return true;
+                }
+                case LabelSSTRecord.sid: {
+                    LabelSSTRecord label = (LabelSSTRecord) record;
+                    if (!startCell(label.getRow())) {
+                        return false;
+                    }
+                    row.setString(label.getColumn(), sharedStrings.getString(label.getSSTIndex()).getString());
+                    return true;
+                }
+                case LabelRecord.sid: {
+                    LabelRecord label = (LabelRecord) record;
+                    if (!startCell(label.getRow())) {
+                        return false;
+                    }
+                    row.setString(label.getColumn(), label.getValue());
+                    return true;
+                }
+                case BoolErrRecord.sid: {
+                    BoolErrRecord value = (BoolErrRecord) record;
+                    if (!startCell(value.getRow())) {
+                        return false;
+                    }
+                    if (value.isBoolean()) {
+                        row.setBoolean(value.getColumn(), value.getBooleanValue());
+                    } else {
+                        row.setError(value.getColumn(), FormulaError.forInt(value.getErrorValue()).getString());
+                    }
+                    return true;
+                }
+                case FormulaRecord.sid: {
+                    FormulaRecord formula = (FormulaRecord) record;
+                    if (!startCell(formula.getRow())) {
+                        return false;
+                    }
+                    CellType cachedType = formula.getCachedResultTypeEnum();
+                    String text = HSSFFormulaParser.toFormulaString(workbookBuilder.getStubHSSFWorkbook(), formula.getParsedExpression());
+                    row.setFormula(formula.getColumn(), text, cachedType, cachedType == CellType.NUMERIC ? formula.getValue() : 0);
+                    return true;
+                }
+                case BlankRecord.sid: {
+                    BlankRecord blank = (BlankRecord) record;
+                    if (!startCell(blank.getRow())) {
+                        return false;
+                    }
+                    row.setBlank(blank.getColumn());
+                    return true;
+                }
+                case MulBlankRecord.sid: {
+                    MulBlankRecord blanks = (MulBlankRecord) record;
+                    if (!startCell(blanks.getRow())) {
+                        return false;
+                    }
+                    for (int column = blanks.getFirstColumn(); column <= blanks.getLastColumn(); column++) {
+                        row.setBlank(column);
+                    }
+                    return true;
+                }
+                default:
+                    return true;
+            }
+        }
+
+        // Hands on the previous row when a new one starts; false past the last wanted row
+        private boolean startCell(int rowNum) {
+            if (rowNum == currentRow) {
+                return true;
+            }
+            flush();
+            if (!emitEmptyRowsBefore(rowNum) || rowNum > lastRow) {
+                return false;
+            }
+            row.reset(rowNum, date1904);
+            currentRow = rowNum;
+            return true;
+        }
+
+        private void addPendingRow(int rowNum) {
+            if (pendingHead == pendingTail) {
+                pendingHead = 0;
+                pendingTail = 0;
+            } else if (pendingTail == pendingRows.length) {
+                pendingRows = Arrays.copyOf(pendingRows, pendingRows.length * 2);
+            }
+            pendingRows[pendingTail++] = rowNum;
+        }
+
+        // False if a row past the last wanted one was reached
+        private boolean emitEmptyRowsBefore(int rowNum) {
+            while (pendingHead < pendingTail && pendingRows[pendingHead] <= rowNum) {
+                int empty = pendingRows[pendingHead++];
+                if (empty == rowNum) {
+                    break;
+                }
+                if (empty > lastRow) {
+                    return false;
+                }
+                row.reset(empty, date1904);
+                handler.handleRow(row);
+            }
+            return true;
+        }
+
+        private void flush() {
+            if (currentRow >= 0) {
+                handler.handleRow(row);
+                currentRow = -1;
+            }
+        }
+    }
+}
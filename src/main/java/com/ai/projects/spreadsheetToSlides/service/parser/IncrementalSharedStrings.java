@@ -0,0 +1,103 @@
+package com.ai.projects.spreadsheetToSlides.service.parser;
+
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pull-parses the shared strings part only as far as the highest index requested so far.
+ * Header cells are usually the first strings written, so a header-only read rarely touches
+ * more than the first few {@code <si>} entries of a table that may hold millions.
+ */
+class IncrementalSharedStrings implements SharedStrings, AutoCloseable {
+
+    private final InputStream in;
+    private final XMLStreamReader reader;
+    private final List<String> items = new ArrayList<>();
+    private int count;
+    private int uniqueCount;
+    private boolean exhausted;
+
+    IncrementalSharedStrings(InputStream in) throws XMLStreamException {
+        this.in = in;
+        this.reader = in != null ? XMLHelper.newXMLInputFactory().createXMLStreamReader(in) : null;
+        this.exhausted = in == null;
+    }
+
+    @Override
+    public RichTextString getItemAt(int idx) {
+        try {
+            while (items.size() <= idx && !exhausted) {
+                readNextItem();
+            }
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("Failed to read shared strings", e);
+        }
+        return new XSSFRichTextString(idx < items.size() ? items.get(idx) : "");
+    }
+
+    @Override
+    public int getCount() { return count; }
+
+    @Override
+    public int getUniqueCount() { return uniqueCount; }
+
+    @Override
+    public void close() throws IOException, XMLStreamException {
+        if (reader != null) {
+            reader.close();
+            in.close();
+        }
+    }
+
+    private void readNextItem() throws XMLStreamException {
+        StringBuilder text = null;
+        boolean inPhonetic = false;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (reader.getLocalName()) {
+                    case "sst":
+                        count = intAttribute("count");
+                        uniqueCount = intAttribute("uniqueCount");
+                        break;
+                    case "si":
+                        text = new StringBuilder();
+                        break;
+                    case "rPh":
+                        inPhonetic = true;
+                        break;
+                    case "t":
+                        if (text != null && !inPhonetic) {
+                            text.append(reader.getElementText());
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                if ("rPh".equals(reader.getLocalName())) {
+                    inPhonetic = false;
+                } else if ("si".equals(reader.getLocalName()) && text != null) {
+                    items.add(text.toString());
+                    return;
+                }
+            }
+        }
+        exhausted = true;
+    }
+
+    private int intAttribute(String name) {
+        String value = reader.getAttributeValue(null, name);
+        return value != null ? Integer.parseInt(value) : 0;
+    }
+}
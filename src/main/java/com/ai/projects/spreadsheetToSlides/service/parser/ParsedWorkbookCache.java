@@ -0,0 +1,114 @@
+package com.ai.projects.spreadsheetToSlides.service.parser;
+
+import com.ai.projects.spreadsheetToSlides.service.SpooledUpload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * Parsed workbook models keyed by the SHA-256 of the upload, so re-submitting the same workbook
+ * (for another audience, say) skips straight to the prompt and render stages. Each flow caches its
+ * own view of the workbook under its own name. The cache is an LRU bounded by the estimated heap
+ * weight of the models; cached models are shared between conversions and must not be modified.
+ */
+@Component
+public class ParsedWorkbookCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ParsedWorkbookCache.class);
+
+    private final boolean enabled;
+    private final long maxWeight;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ParsedWorkbookCache(@Value("${conversion.parse-cache.enabled:true}") boolean enabled,
+                               @Value("${conversion.parse-cache.max-weight:256MB}") DataSize maxWeight) {
+        this.enabled = enabled;
+        this.maxWeight = maxWeight.toBytes();
+    }
+
+    // The model parsed from this upload's content under this view, parsing and caching it on a miss
+    public <T> T get(SpooledUpload upload, String view, Callable<T> parser, ToLongFunction<T> weigher) throws Exception {
+        if (!enabled) {
+            return parser.call();
+        }
+        String key = upload.getContentHash() + '/' + view;
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                hits.incrementAndGet();
+                @SuppressWarnings("unchecked")
+                T model = (T) entry.model;
+                return model;
+            }
+        }
+        misses.incrementAndGet();
+
+        T model = parser.call();
+        put(key, model, weigher.applyAsLong(model));
+        return model;
+    }
+
+    public long getHits() { return hits.get(); }
+
+    public long getMisses() { return misses.get(); }
+
+    public long getEvictions() { return evictions.get(); }
+
+    public long getWeight() {
+        synchronized (entries) {
+            return weight;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void put(String key, Object model, long modelWeight) {
+        if (modelWeight > maxWeight) {
+            log.debug("Parsed workbook {} weighs {} bytes, more than the whole cache; not cached", key, modelWeight);
+            return;
+        }
+        synchronized (entries) {
+            Entry previous = entries.put(key, new Entry(model, modelWeight));
+            weight += modelWeight - (previous != null ? previous.weight : 0);
+            // Least recently used first
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (weight > maxWeight && eldest.hasNext()) {
+                Map.Entry<String, Entry> evicted = eldest.next();
+                if (evicted.getKey().equals(key)) {
+                    continue;
+                }
+                weight -= evicted.getValue().weight;
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private static class Entry {
+        private final Object model;
+        private final long weight;
+
+        Entry(Object model, long weight) {
+            this.model = model;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.ai.projects.spreadsheetToSlides.service.parser;
+
+import com.ai.projects.spreadsheetToSlides.model.CellKind;
+import com.ai.projects.spreadsheetToSlides.model.ColumnData;
+import com.ai.projects.spreadsheetToSlides.model.SheetData;
+import com.ai.projects.spreadsheetToSlides.service.aggregate.Aggregation;
+import com.ai.projects.spreadsheetToSlides.service.aggregate.GroupByAggregator;
+import com.ai.projects.spreadsheetToSlides.service.aggregate.GroupedTable;
+import org.apache.poi.ss.usermodel.CellType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds a {@link SheetData} in a single pass over the rows of a sheet. Column types are promoted
+ * as values arrive, so nothing needs to be replayed once the last row has been seen.
+ */
+public class SheetDataBuilder implements SheetRowHandler {
+
+    private final String sheetName;
+    private SheetData sheetData;
+
+    public SheetDataBuilder(String sheetName) {
+        this.sheetName = sheetName;
+    }
+
+    @Override
+    public void handleRow(SheetRow row) {
+        if (sheetData == null) {
+            // The first present row holds the headers
+            List<String> headers = new ArrayList<>();
+            for (int cellIndex = 0; cellIndex < row.getLastCellNum(); cellIndex++) {
+                headers.add(row.hasCell(cellIndex) ? row.toString(cellIndex).trim() : "Column" + (cellIndex + 1));
+            }
+            sheetData = new SheetData(sheetName, headers, row.isDate1904());
+            return;
+        }
+
+        List<ColumnData> columns = sheetData.getColumns();
+        for (int cellIndex = 0; cellIndex < columns.size(); cellIndex++) {
+            ColumnData column = columns.get(cellIndex);
+            CellType type = row.getCellType(cellIndex);
+            if (type == null) {
+                column.appendMissing();
+                continue;
+            }
+            switch (type) {
+                case NUMERIC:
+                    column.appendNumber(row.isDateFormatted(cellIndex) ? CellKind.DATE : CellKind.NUMERIC,
+                            row.getNumericValue(cellIndex));
+                    break;
+                case STRING:
+                    column.appendText(CellKind.STRING, row.getStringValue(cellIndex).trim());
+                    break;
+                case BOOLEAN:
+                    column.appendNumber(CellKind.BOOLEAN, row.getNumericValue(cellIndex));
+                    break;
+                case FORMULA:
+                    if (row.getCachedFormulaResultType(cellIndex) == CellType.NUMERIC) {
+                        column.appendNumber(CellKind.FORMULA_NUMERIC, row.getNumericValue(cellIndex));
+                    } else {
+                        column.appendText(CellKind.FORMULA_TEXT, row.getFormula(cellIndex));
+                    }
+                    break;
+                case ERROR:
+                    column.appendText(CellKind.ERROR, row.getStringValue(cellIndex));
+                    break;
+                default:
+                    column.appendMissing();
+                    break;
+            }
+        }
+        sheetData.completeRow();
+    }
+
+    public SheetData build() {
+        if (sheetData == null) {
+            return new SheetData(sheetName, new ArrayList<>(), false);
+        }
+        // Charts show aggregates, one point per group, not one per row
+        GroupedTable series = GroupByAggregator.chartSeries(sheetData);
+        if (series != null) {
+            sheetData.setChartSeries(series.getLabels(), series.getValues(Aggregation.SUM));
+        }
+        return sheetData;
+    }
+}
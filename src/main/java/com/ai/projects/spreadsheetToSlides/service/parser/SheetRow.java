@@ -0,0 +1,200 @@
+package com.ai.projects.spreadsheetToSlides.service.parser;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.util.LocaleUtil;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * Reusable buffer holding the cells of one spreadsheet row.
+ * Both the streaming and the DOM readers fill the same instance for every row of a sheet,
+ * so memory is bounded by the row width rather than the row count.
+ */
+public class SheetRow {
+
+    private int rowNum;
+    private int lastCellNum = -1;
+    private boolean date1904;
+
+    private CellType[] types = new CellType[16];
+    private CellType[] cachedTypes = new CellType[16];
+    private double[] numbers = new double[16];
+    private String[] texts = new String[16];
+    private String[] formulas = new String[16];
+    private boolean[] dateFormatted = new boolean[16];
+
+    public int getRowNum() { return rowNum; }
+
+    // Same contract as Row.getLastCellNum(): index of the last cell plus one, or -1 for an empty row
+    public int getLastCellNum() { return lastCellNum; }
+
+    public boolean hasCell(int column) {
+        return column < lastCellNum && types[column] != null;
+    }
+
+    public CellType getCellType(int column) {
+        return column < lastCellNum ? types[column] : null;
+    }
+
+    public CellType getCachedFormulaResultType(int column) { return cachedTypes[column]; }
+
+    public double getNumericValue(int column) { return numbers[column]; }
+
+    public boolean getBooleanValue(int column) { return numbers[column] != 0; }
+
+    public String getStringValue(int column) { return texts[column] != null ? texts[column] : ""; }
+
+    public String getFormula(int column) { return formulas[column] != null ? formulas[column] : ""; }
+
+    public boolean isDateFormatted(int column) { return dateFormatted[column]; }
+
+    public boolean isDate1904() { return date1904; }
+
+    public Date getDateValue(int column) {
+        return DateUtil.getJavaDate(numbers[column], date1904);
+    }
+
+    // Mirrors XSSFCell.toString() so both readers render headers identically
+    public String toString(int column) {
+        CellType type = getCellType(column);
+        if (type == null) {
+            return "";
+        }
+        switch (type) {
+            case NUMERIC:
+                if (dateFormatted[column]) {
+                    DateFormat sdf = new SimpleDateFormat("dd-MMM-yyyy", LocaleUtil.getUserLocale());
+                    sdf.setTimeZone(LocaleUtil.getUserTimeZone());
+                    return sdf.format(getDateValue(column));
+                }
+                return Double.toString(numbers[column]);
+            case STRING:
+            case ERROR:
+                return getStringValue(column);
+            case FORMULA:
+                return getFormula(column);
+            case BOOLEAN:
+                return getBooleanValue(column) ? "TRUE" : "FALSE";
+            default:
+                return "";
+        }
+    }
+
+    // Value as it appears in the prompt's row text; unlike toString(), formulas show their cached number
+    public String formatValue(int column) {
+        CellType type = getCellType(column);
+        if (type == null) {
+            return "";
+        }
+        switch (type) {
+            case NUMERIC:
+                return dateFormatted[column] ? getDateValue(column).toString() : String.valueOf(numbers[column]);
+            case STRING:
+                return getStringValue(column).trim();
+            case BOOLEAN:
+                return String.valueOf(getBooleanValue(column));
+            case FORMULA:
+                return cachedTypes[column] == CellType.NUMERIC ? String.valueOf(numbers[column]) : getFormula(column);
+            case ERROR:
+                return getStringValue(column);
+            default:
+                return "";
+        }
+    }
+
+    void reset(int rowNum, boolean date1904) {
+        if (lastCellNum > 0) {
+            Arrays.fill(types, 0, lastCellNum, null);
+            Arrays.fill(cachedTypes, 0, lastCellNum, null);
+            Arrays.fill(texts, 0, lastCellNum, null);
+            Arrays.fill(formulas, 0, lastCellNum, null);
+            Arrays.fill(dateFormatted, 0, lastCellNum, false);
+        }
+        this.rowNum = rowNum;
+        this.date1904 = date1904;
+        this.lastCellNum = -1;
+    }
+
+    void setNumeric(int column, double value, boolean isDate) {
+        touch(column, CellType.NUMERIC);
+        numbers[column] = value;
+        dateFormatted[column] = isDate;
+    }
+
+    void setString(int column, String value) {
+        touch(column, CellType.STRING);
+        texts[column] = value;
+    }
+
+    void setBoolean(int column, boolean value) {
+        touch(column, CellType.BOOLEAN);
+        numbers[column] = value ? 1 : 0;
+    }
+
+    void setError(int column, String errorText) {
+        touch(column, CellType.ERROR);
+        texts[column] = errorText;
+    }
+
+    void setBlank(int column) {
+        touch(column, CellType.BLANK);
+    }
+
+    void setFormula(int column, String formula, CellType cachedType, double numericResult) {
+        touch(column, CellType.FORMULA);
+        formulas[column] = formula;
+        cachedTypes[column] = cachedType;
+        numbers[column] = numericResult;
+    }
+
+    void fill(Row row, boolean date1904) {
+        reset(row.getRowNum(), date1904);
+        for (Cell cell : row) {
+            int column = cell.getColumnIndex();
+            switch (cell.getCellType()) {
+                case NUMERIC:
+                    setNumeric(column, cell.getNumericCellValue(), DateUtil.isCellDateFormatted(cell));
+                    break;
+                case STRING:
+                    setString(column, cell.getStringCellValue());
+                    break;
+                case BOOLEAN:
+                    setBoolean(column, cell.getBooleanCellValue());
+                    break;
+                case ERROR:
+                    setError(column, cell.toString());
+                    break;
+                case FORMULA:
+                    CellType cachedType = cell.getCachedFormulaResultType();
+                    setFormula(column, cell.getCellFormula(), cachedType,
+                            cachedType == CellType.NUMERIC ? cell.getNumericCellValue() : 0);
+                    break;
+                default:
+                    setBlank(column);
+                    break;
+            }
+        }
+    }
+
+    private void touch(int column, CellType type) {
+        if (column >= types.length) {
+            int capacity = Math.max(column + 1, types.length * 2);
+            types = Arrays.copyOf(types, capacity);
+            cachedTypes = Arrays.copyOf(cachedTypes, capacity);
+            numbers = Arrays.copyOf(numbers, capacity);
+            texts = Arrays.copyOf(texts, capacity);
+            formulas = Arrays.copyOf(formulas, capacity);
+            dateFormatted = Arrays.copyOf(dateFormatted, capacity);
+        }
+        if (column >= lastCellNum) {
+            lastCellNum = column + 1;
+        }
+        types[column] = type;
+    }
+}
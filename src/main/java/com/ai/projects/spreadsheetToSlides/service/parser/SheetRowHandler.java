@@ -0,0 +1,8 @@
+package com.ai.projects.spreadsheetToSlides.service.parser;
+
+@FunctionalInterface
+public interface SheetRowHandler {
+
+    // The row buffer is reused between calls, so implementations must copy anything they keep
+    void handleRow(SheetRow row);
+}
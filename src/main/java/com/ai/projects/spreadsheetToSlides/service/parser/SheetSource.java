@@ -0,0 +1,12 @@
+package com.ai.projects.spreadsheetToSlides.service.parser;
+
+public interface SheetSource {
+
+    String getSheetName();
+
+    // Replays every physically present row of the sheet in order; may be called more than once
+    void readRows(SheetRowHandler handler) throws Exception;
+
+    // Reads only row 0 and stops as soon as any later row begins; null if the sheet has no row 0
+    SheetRow readHeaderRow() throws Exception;
+}
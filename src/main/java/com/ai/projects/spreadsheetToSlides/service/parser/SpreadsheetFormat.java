@@ -0,0 +1,59 @@
+package com.ai.projects.spreadsheetToSlides.service.parser;
+
+import com.ai.projects.spreadsheetToSlides.service.SpooledUpload;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * What an upload holds, told from its first bytes rather than its name: BI tools export CSV
+ * under all sorts of extensions, and .xls files are often renamed to .xlsx. Uploads that are
+ * none of these, such as PDFs or images, are rejected before anything is parsed or prompted.
+ */
+public enum SpreadsheetFormat {
+
+    XLSX,
+    // Legacy BIFF8 workbook in an OLE2 container
+    XLS,
+    // Any other text; delimiter and encoding are sniffed by CsvDialect
+    CSV;
+
+    public static SpreadsheetFormat detect(SpooledUpload upload) throws IOException {
+        byte[] header;
+        try (InputStream in = upload.getInputStream()) {
+            header = in.readNBytes(8);
+        }
+        switch (FileMagic.valueOf(header)) {
+            case OOXML:
+                return XLSX;
+            case OLE2:
+                return XLS;
+            case PDF:
+            case JPEG:
+            case GIF:
+            case PNG:
+            case TIFF:
+            case BMP:
+            case WMF:
+            case EMF:
+                throw unsupported(upload);
+            default:
+                break;
+        }
+        try (ReadableByteChannel channel = upload.openChannel()) {
+            if (!CsvDialect.isText(channel)) {
+                throw unsupported(upload);
+            }
+        }
+        return CSV;
+    }
+
+    private static ResponseStatusException unsupported(SpooledUpload upload) {
+        return new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                upload.getFilename() + " is not an Excel workbook or a CSV file");
+    }
+}
@@ -0,0 +1,29 @@
+package com.ai.projects.spreadsheetToSlides.service.parser;
+
+import com.ai.projects.spreadsheetToSlides.service.SpooledUpload;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SpreadsheetReader {
+
+    // "streaming" (SAX event model) or "dom" (XSSFWorkbook); applies to XLSX uploads
+    @Value("${spreadsheet.parser.mode:streaming}")
+    private String parserMode;
+
+    // The format is told from the upload's content; .xls and CSV always stream
+    public WorkbookSource open(SpooledUpload upload) throws Exception {
+        switch (SpreadsheetFormat.detect(upload)) {
+            case XLS:
+                return new HssfWorkbookSource(upload.openFileSystem());
+            case CSV:
+                return new CsvWorkbookSource(upload);
+            default:
+                break;
+        }
+        if ("dom".equalsIgnoreCase(parserMode)) {
+            return new DomWorkbookSource(upload.openPackage());
+        }
+        return new StreamingWorkbookSource(upload.openPackage());
+    }
+}
@@ -0,0 +1,11 @@
+package com.ai.projects.spreadsheetToSlides.service.parser;
+
+import org.xml.sax.SAXException;
+
+// Thrown from SAX callbacks to abandon the rest of a part once everything needed has been read
+class StopParsingException extends SAXException {
+
+    StopParsingException() {
+        super("Parsing stopped early");
+    }
+}
@@ -0,0 +1,219 @@
+package com.ai.projects.spreadsheetToSlides.service.parser;
+
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.ExcelNumberFormat;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.StylesTable;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * SAX handler for a worksheet part. Decodes the {@code <row>}/{@code <c>} elements into a single
+ * reusable {@link SheetRow} and hands each completed row to a {@link SheetRowHandler}.
+ * Parsing is abandoned as soon as a row beyond {@code lastRowNum} is reached.
+ */
+class StreamingSheetHandler extends DefaultHandler {
+
+    private final SharedStrings sharedStrings;
+    private final StylesTable styles;
+    private final boolean date1904;
+    private final int lastRowNum;
+    private final SheetRowHandler handler;
+
+    private final SheetRow row = new SheetRow();
+    private final StringBuilder value = new StringBuilder();
+    private final StringBuilder formula = new StringBuilder();
+    private Boolean[] dateStyles = new Boolean[0];
+
+    private int nextRowNum;
+    private int nextColumn;
+    private int column;
+    private String cellType;
+    private int styleIndex;
+    private boolean hasValue;
+    private boolean hasFormula;
+    private boolean inValue;
+    private boolean inFormula;
+    private boolean inInlineString;
+    private boolean inInlineText;
+    private boolean inPhonetic;
+
+    StreamingSheetHandler(SharedStrings sharedStrings, StylesTable styles, boolean date1904, int lastRowNum,
+                          SheetRowHandler handler) {
+        this.sharedStrings = sharedStrings;
+        this.styles = styles;
+        this.date1904 = date1904;
+        this.lastRowNum = lastRowNum;
+        this.handler = handler;
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+        switch (localName) {
+            case "row":
+                String rowRef = attributes.getValue("r");
+                int rowNum = rowRef != null ? Integer.parseInt(rowRef) - 1 : nextRowNum;
+                if (rowNum > lastRowNum) {
+                    throw new StopParsingException();
+                }
+                row.reset(rowNum, date1904);
+                nextColumn = 0;
+                break;
+            case "c":
+                String cellRef = attributes.getValue("r");
+                column = cellRef != null ? columnIndex(cellRef) : nextColumn;
+                String type = attributes.getValue("t");
+                cellType = type != null ? type : "n";
+                String style = attributes.getValue("s");
+                styleIndex = style != null ? Integer.parseInt(style) : 0;
+                value.setLength(0);
+                formula.setLength(0);
+                hasValue = false;
+                hasFormula = false;
+                break;
+            case "v":
+                inValue = true;
+                hasValue = true;
+                break;
+            case "f":
+                inFormula = true;
+                hasFormula = true;
+                break;
+            case "is":
+                inInlineString = true;
+                hasValue = true;
+                break;
+            case "rPh":
+                inPhonetic = true;
+                break;
+            case "t":
+                inInlineText = inInlineString && !inPhonetic;
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        switch (localName) {
+            case "row":
+                handler.handleRow(row);
+                if (row.getRowNum() >= lastRowNum) {
+                    throw new StopParsingException();
+                }
+                nextRowNum = row.getRowNum() + 1;
+                break;
+            case "c":
+                commitCell();
+                nextColumn = column + 1;
+                break;
+            case "v":
+                inValue = false;
+                break;
+            case "f":
+                inFormula = false;
+                break;
+            case "is":
+                inInlineString = false;
+                break;
+            case "rPh":
+                inPhonetic = false;
+                break;
+            case "t":
+                inInlineText = false;
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        if (inValue || inInlineText) {
+            value.append(ch, start, length);
+        } else if (inFormula) {
+            formula.append(ch, start, length);
+        }
+    }
+
+    private void commitCell() {
+        if (hasFormula) {
+            // Shared formulas only carry their text on the anchor cell; dependants report an empty formula
+            switch (cellType) {
+                case "str":
+                case "inlineStr":
+                    row.setFormula(column, formula.toString(), CellType.STRING, 0);
+                    break;
+                case "b":
+                    row.setFormula(column, formula.toString(), CellType.BOOLEAN, 0);
+                    break;
+                case "e":
+                    row.setFormula(column, formula.toString(), CellType.ERROR, 0);
+                    break;
+                default:
+                    row.setFormula(column, formula.toString(), CellType.NUMERIC,
+                            hasValue ? Double.parseDouble(value.toString()) : 0);
+                    break;
+            }
+            return;
+        }
+
+        switch (cellType) {
+            case "s":
+                row.setString(column, hasValue
+                        ? sharedStrings.getItemAt(Integer.parseInt(value.toString().trim())).getString()
+                        : "");
+                break;
+            case "inlineStr":
+            case "str":
+            case "d":
+                row.setString(column, value.toString());
+                break;
+            case "b":
+                row.setBoolean(column, value.length() > 0 && (value.charAt(0) == '1' || "true".contentEquals(value)));
+                break;
+            case "e":
+                row.setError(column, value.toString());
+                break;
+            default:
+                if (hasValue) {
+                    double number = Double.parseDouble(value.toString());
+                    row.setNumeric(column, number, isDateStyle(styleIndex) && DateUtil.isValidExcelDate(number));
+                } else {
+                    row.setBlank(column);
+                }
+                break;
+        }
+    }
+
+    private boolean isDateStyle(int index) {
+        if (styles == null || index >= styles.getNumCellStyles()) {
+            return false;
+        }
+        if (index >= dateStyles.length) {
+            dateStyles = new Boolean[styles.getNumCellStyles()];
+        }
+        Boolean isDate = dateStyles[index];
+        if (isDate == null) {
+            isDate = DateUtil.isADateFormat(ExcelNumberFormat.from(styles.getStyleAt(index)));
+            dateStyles[index] = isDate;
+        }
+        return isDate;
+    }
+
+    // "AB12" -> 27
+    static int columnIndex(String cellRef) {
+        int column = 0;
+        for (int i = 0; i < cellRef.length(); i++) {
+            char c = cellRef.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+}
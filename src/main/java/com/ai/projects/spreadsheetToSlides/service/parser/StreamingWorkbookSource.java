@@ -0,0 +1,153 @@
+package com.ai.projects.spreadsheetToSlides.service.parser;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Event-model reader built on {@link XSSFReader}. Sheet parts are SAX-parsed on demand and shared
+ * strings come from a {@link ReadOnlySharedStringsTable}, so no cell objects are ever materialised.
+ */
+public class StreamingWorkbookSource implements WorkbookSource {
+
+    private final OPCPackage pkg;
+    private final XSSFReader reader;
+    private final boolean date1904;
+    private final List<SheetSource> sheets = new ArrayList<>();
+
+    private SharedStrings sharedStrings;
+    private IncrementalSharedStrings headerStrings;
+    private StylesTable styles;
+
+    public StreamingWorkbookSource(OPCPackage pkg) throws Exception {
+        this.pkg = pkg;
+        try {
+            this.reader = new XSSFReader(pkg);
+            this.date1904 = readDate1904();
+
+            XSSFReader.SheetIterator iterator = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (iterator.hasNext()) {
+                try (InputStream ignored = iterator.next()) {
+                    sheets.add(new StreamingSheetSource(iterator.getSheetName(), iterator.getSheetPart()));
+                }
+            }
+        } catch (Exception e) {
+            // A corrupt upload: the caller never gets a source to close, so the package is discarded here
+            pkg.revert();
+            throw e;
+        }
+    }
+
+    @Override
+    public List<SheetSource> getSheets() {
+        return sheets;
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (headerStrings != null) {
+            headerStrings.close();
+        }
+        // Opened read-only; revert discards the package without trying to save it
+        pkg.revert();
+    }
+
+    private void parse(InputStream in, DefaultHandler handler) throws Exception {
+        XMLReader xmlReader = XMLHelper.newXMLReader();
+        xmlReader.setContentHandler(handler);
+        try {
+            xmlReader.parse(new InputSource(in));
+        } catch (StopParsingException ignored) {
+            // The handler has everything it needs
+        }
+    }
+
+    private boolean readDate1904() throws Exception {
+        boolean[] date1904 = new boolean[1];
+        try (InputStream in = reader.getWorkbookData()) {
+            parse(in, new DefaultHandler() {
+                @Override
+                public void startElement(String uri, String localName, String qName, Attributes attributes)
+                        throws StopParsingException {
+                    if ("workbookPr".equals(localName)) {
+                        String value = attributes.getValue("date1904");
+                        date1904[0] = "1".equals(value) || "true".equals(value);
+                        throw new StopParsingException();
+                    } else if ("sheets".equals(localName)) {
+                        throw new StopParsingException();
+                    }
+                }
+            });
+        }
+        return date1904[0];
+    }
+
+    private void loadSharedTables() throws Exception {
+        if (sharedStrings == null) {
+            sharedStrings = new ReadOnlySharedStringsTable(pkg, false);
+        }
+        loadStyles();
+    }
+
+    // Header reads only resolve the strings they reference instead of loading the whole table
+    private void loadHeaderTables() throws Exception {
+        if (headerStrings == null) {
+            List<PackagePart> parts = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+            headerStrings = new IncrementalSharedStrings(parts.isEmpty() ? null : parts.get(0).getInputStream());
+        }
+        loadStyles();
+    }
+
+    private void loadStyles() throws Exception {
+        if (styles == null) {
+            styles = reader.getStylesTable();
+        }
+    }
+
+    private class StreamingSheetSource implements SheetSource {
+
+        private final String sheetName;
+        private final PackagePart part;
+
+        StreamingSheetSource(String sheetName, PackagePart part) {
+            this.sheetName = sheetName;
+            this.part = part;
+        }
+
+        @Override
+        public String getSheetName() {
+            return sheetName;
+        }
+
+        @Override
+        public void readRows(SheetRowHandler handler) throws Exception {
+            loadSharedTables();
+            try (InputStream in = part.getInputStream()) {
+                parse(in, new StreamingSheetHandler(sharedStrings, styles, date1904, Integer.MAX_VALUE, handler));
+            }
+        }
+
+        @Override
+        public SheetRow readHeaderRow() throws Exception {
+            loadHeaderTables();
+            SheetRow[] header = new SheetRow[1];
+            try (InputStream in = part.getInputStream()) {
+                parse(in, new StreamingSheetHandler(headerStrings, styles, date1904, 0, row -> header[0] = row));
+            }
+            return header[0];
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.ai.projects.spreadsheetToSlides.service.parser;
+
+import java.util.List;
+
+public interface WorkbookSource extends AutoCloseable {
+
+    List<SheetSource> getSheets();
+}
@@ -0,0 +1,373 @@
+package com.ai.projects.spreadsheetToSlides.service.pipeline;
+
+import com.ai.projects.spreadsheetToSlides.model.ConversionStage;
+import com.ai.projects.spreadsheetToSlides.model.SlideData;
+import com.ai.projects.spreadsheetToSlides.service.ConversionProgress;
+import com.ai.projects.spreadsheetToSlides.service.SpooledUpload;
+import com.ai.projects.spreadsheetToSlides.service.UploadSpooler;
+import com.ai.projects.spreadsheetToSlides.service.generation.MapReduceGenerator;
+import com.ai.projects.spreadsheetToSlides.service.llm.LlmClient;
+import com.ai.projects.spreadsheetToSlides.service.llm.LlmResponseCache;
+import com.ai.projects.spreadsheetToSlides.service.llm.LlmScheduler;
+import com.ai.projects.spreadsheetToSlides.service.metrics.ConversionRecorder;
+import com.ai.projects.spreadsheetToSlides.service.slides.ParallelSlideRenderer;
+import com.ai.projects.spreadsheetToSlides.service.slides.SlideOutlineFormat;
+import com.ai.projects.spreadsheetToSlides.service.slides.SlideOutlineParser;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.poi.xslf.usermodel.XMLSlideShow;
+import org.apache.poi.xslf.usermodel.XSLFSlide;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a conversion as ingest → parse → profile → prompt → generate → render → emit, each stage on its
+ * own {@link StageExecutors} pool. A conversion holds no thread while its completion is generated, so the
+ * parse and render work of other requests fills the pools meanwhile. The flow-specific parts come from a
+ * {@link PipelineConfiguration}: {@link HeadersOnlyPipeline} or {@link FullDataPipeline}.
+ *
+ * <p>With streaming completions each slide is rendered as soon as its section is complete; workbooks with
+ * enough sheets are prompted per group of sheets (map-reduce) and the overview slide is put in front.
+ */
+@Component
+public class ConversionPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(ConversionPipeline.class);
+
+    private final UploadSpooler uploadSpooler;
+    private final LlmClient llmClient;
+    private final LlmResponseCache responseCache;
+    private final MapReduceGenerator mapReduceGenerator;
+    private final ParallelSlideRenderer slideRenderer;
+    private final StageExecutors executors;
+    private final SlideOutlineFormat outlineFormat;
+    private final boolean streamingCompletions;
+
+    public ConversionPipeline(UploadSpooler uploadSpooler, LlmClient llmClient, LlmResponseCache responseCache,
+                              MapReduceGenerator mapReduceGenerator, ParallelSlideRenderer slideRenderer, StageExecutors executors,
+                              SlideOutlineFormat outlineFormat,
+                              @Value("${conversion.llm.streaming:true}") boolean streamingCompletions) {
+        this.uploadSpooler = uploadSpooler;
+        this.llmClient = llmClient;
+        this.responseCache = responseCache;
+        this.mapReduceGenerator = mapReduceGenerator;
+        this.slideRenderer = slideRenderer;
+        this.executors = executors;
+        this.outlineFormat = outlineFormat;
+        this.streamingCompletions = streamingCompletions;
+    }
+
+    // All seven stages; the spooled upload is deleted as soon as it has been parsed
+    public <M, S> Mono<byte[]> convert(PipelineConfiguration<M, S> configuration, MultipartFile file, String instructions,
+                                       ConversionProgress progress, ConversionRecorder recorder) {
+        return Mono.usingWhen(executors.run(PipelineStage.INGEST, () -> uploadSpooler.spool(file)),
+                        upload -> parse(configuration, upload, progress, recorder),
+                        upload -> Mono.fromRunnable(upload::close))
+                .flatMap(model -> present(configuration, model, instructions, progress, recorder))
+                .flatMap(ppt -> emit(ppt, recorder));
+    }
+
+    // For callers that own the upload
+    public <M, S> Mono<byte[]> convert(PipelineConfiguration<M, S> configuration, SpooledUpload upload, String instructions,
+                                       ConversionProgress progress, ConversionRecorder recorder) {
+        return build(configuration, upload, instructions, progress, recorder).flatMap(ppt -> emit(ppt, recorder));
+    }
+
+    // Parse to render, leaving the deck for the caller to write, e.g. straight to a response
+    public <M, S> Mono<XMLSlideShow> build(PipelineConfiguration<M, S> configuration, SpooledUpload upload, String instructions,
+                                           ConversionProgress progress, ConversionRecorder recorder) {
+        return parse(configuration, upload, progress, recorder)
+                .flatMap(model -> present(configuration, model, instructions, progress, recorder));
+    }
+
+    public Mono<byte[]> emit(XMLSlideShow ppt, ConversionRecorder recorder) {
+        return executors.run(PipelineStage.EMIT, () -> {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            write(ppt, out, recorder);
+            return out.toByteArray();
+        }).doOnCancel(() -> closeQuietly(ppt));
+    }
+
+    // Writes the deck to a new temporary file on the emit stage, for results kept until someone downloads them
+    public Mono<Path> emitToFile(XMLSlideShow ppt, String prefix, ConversionRecorder recorder) {
+        return executors.run(PipelineStage.EMIT, () -> {
+            Path file = Files.createTempFile(prefix, ".pptx");
+            try (OutputStream out = Files.newOutputStream(file)) {
+                write(ppt, out, recorder);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(file);
+                throw e;
+            }
+            return file;
+        }).doOnCancel(() -> closeQuietly(ppt));
+    }
+
+    public void write(XMLSlideShow ppt, OutputStream out, ConversionRecorder recorder) throws IOException {
+        CountingOutputStream counting = new CountingOutputStream(out);
+        try {
+            recorder.observe(ConversionRecorder.WRITE, () -> {
+                ppt.write(counting);
+                return null;
+            });
+            recorder.recordOutput(counting.getByteCount());
+        } finally {
+            ppt.close();
+        }
+    }
+
+    // Whole-deck render on the calling thread, for outlines that were not generated by this pipeline
+    public <M> XMLSlideShow render(PipelineConfiguration<M, ?> configuration, M model, List<SlideData> slides) {
+        return slideRenderer.render(slides, configuration.slideRenderer(model), configuration.slideFinisher(model));
+    }
+
+    // Whole-deck render on the render stage, for outlines the caller assembled, e.g. from slides reused across uploads
+    public <M> Mono<XMLSlideShow> render(PipelineConfiguration<M, ?> configuration, M model, List<SlideData> slides,
+                                         ConversionProgress progress, ConversionRecorder recorder) {
+        return executors.run(PipelineStage.RENDER, () -> {
+            recorder.recordSlides(slides.size());
+            progress.stage(ConversionStage.RENDERING);
+            XMLSlideShow ppt = recorder.observe(ConversionRecorder.RENDER, () -> render(configuration, model, slides));
+            recorder.recordFirstSlide();
+            return ppt;
+        });
+    }
+
+    // One completion, answered from the response cache when the same prompt was seen before
+    public Mono<String> complete(String prompt, ConversionRecorder recorder) {
+        return Mono.defer(() -> {
+            String cacheKey = cacheKey(prompt);
+            String cached = responseCache.get(cacheKey);
+            if (cached != null) {
+                recorder.recordLlm("cached", cached);
+                return Mono.just(cached);
+            }
+            return recorder.observe(ConversionRecorder.LLM, llmClient.complete(prompt)
+                            .contextWrite(LlmScheduler.forTenant(recorder.getTenant())))
+                    .doOnError(e -> recorder.recordLlm(ConversionRecorder.llmStatus(e), null))
+                    // Off the event loop before touching the (possibly disk-backed) cache
+                    .flatMap(content -> executors.run(PipelineStage.GENERATE, () -> {
+                        recorder.recordLlm("ok", content);
+                        responseCache.put(cacheKey, content);
+                        return content;
+                    }));
+        });
+    }
+
+    // The slide prompt for the sections, in the configured outline format
+    public <S> String prompt(PipelineConfiguration<?, S> configuration, String instructions, List<S> sections) {
+        return configuration.prompt(instructions, sections) + outlineFormat.instructions();
+    }
+
+    public List<SlideData> parseSlides(String response) {
+        return outlineFormat.parse(response);
+    }
+
+    // Blocks for the result, rethrowing a stage's checked exception as itself
+    public static <T> T await(Mono<T> result) throws Exception {
+        try {
+            return result.block();
+        } catch (RuntimeException e) {
+            Throwable cause = Exceptions.unwrap(e);
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    private <M, S> Mono<M> parse(PipelineConfiguration<M, S> configuration, SpooledUpload upload,
+                                 ConversionProgress progress, ConversionRecorder recorder) {
+        return Mono.defer(() -> {
+            progress.stage(ConversionStage.PARSING);
+            return executors.run(PipelineStage.PARSE, () -> configuration.parse(upload, recorder));
+        });
+    }
+
+    private <M, S> Mono<XMLSlideShow> present(PipelineConfiguration<M, S> configuration, M model, String instructions,
+                                              ConversionProgress progress, ConversionRecorder recorder) {
+        return executors.run(PipelineStage.PROFILE, () -> configuration.profile(model, recorder))
+                .flatMap(sections -> executors.run(PipelineStage.PROMPT, () -> prompts(configuration, sections, instructions, recorder)))
+                .flatMap(prompts -> {
+                    progress.stage(ConversionStage.GENERATING);
+                    SlideLayout layout = new SlideLayout(configuration.slideRenderer(model), configuration.slideFinisher(model));
+                    if (prompts.labels != null) {
+                        return generateMapReduce(prompts, layout, progress, recorder);
+                    }
+                    return generate(prompts.texts.get(0), layout, progress, recorder);
+                });
+    }
+
+    private <M, S> Prompts prompts(PipelineConfiguration<M, S> configuration, List<S> sections, String instructions,
+                                   ConversionRecorder recorder) {
+        Prompts prompts = recorder.observe(ConversionRecorder.PROMPT, () -> {
+            if (!mapReduceGenerator.applies(sections.size())) {
+                return new Prompts(List.of(prompt(configuration, instructions, sections)), null);
+            }
+            // Large workbooks: one bounded prompt per group of sheets, sent concurrently
+            List<String> texts = new ArrayList<>();
+            List<String> labels = new ArrayList<>();
+            for (List<S> group : mapReduceGenerator.partition(sections)) {
+                texts.add(prompt(configuration, instructions, group));
+                labels.add(group.stream().map(configuration::label).collect(Collectors.joining(", ")));
+            }
+            return new Prompts(texts, labels);
+        });
+        prompts.texts.forEach(recorder::recordPrompt);
+        return prompts;
+    }
+
+    private Mono<XMLSlideShow> generate(String prompt, SlideLayout layout, ConversionProgress progress, ConversionRecorder recorder) {
+        if (!streamingCompletions) {
+            return complete(prompt, recorder)
+                    .flatMap(response -> executors.run(PipelineStage.RENDER, () -> {
+                        List<SlideData> slides = outlineFormat.parse(response);
+                        recorder.recordSlides(slides.size());
+                        progress.stage(ConversionStage.RENDERING);
+                        XMLSlideShow ppt = recorder.observe(ConversionRecorder.RENDER,
+                                () -> slideRenderer.render(slides, layout.renderer, layout.finisher));
+                        recorder.recordFirstSlide();
+                        return ppt;
+                    }));
+        }
+
+        // Each slide is rendered on the render pool as soon as its section is complete,
+        // so rendering overlaps with the model generating the following slides
+        return Mono.defer(() -> {
+            SlideOutlineParser parser = outlineFormat.newParser();
+            XMLSlideShow ppt = new XMLSlideShow();
+            return stream(prompt, recorder)
+                    .concatMapIterable(parser::accept)
+                    .concatWith(Flux.defer(() -> {
+                        progress.stage(ConversionStage.RENDERING);
+                        return Flux.fromIterable(parser.finish());
+                    }))
+                    .concatMap(slideData -> executors.run(PipelineStage.RENDER,
+                            () -> renderIncrementally(ppt, slideData, layout, progress, recorder)))
+                    .then(Mono.fromCallable(() -> {
+                        recorder.recordSlides(ppt.getSlides().size());
+                        return ppt;
+                    }))
+                    .doOnError(e -> closeQuietly(ppt))
+                    .doOnCancel(() -> closeQuietly(ppt));
+        });
+    }
+
+    // Each group's slides are rendered in sheet order as soon as they are available,
+    // and the overview slide is put in front at the end
+    private Mono<XMLSlideShow> generateMapReduce(Prompts prompts, SlideLayout layout, ConversionProgress progress,
+                                                 ConversionRecorder recorder) {
+        return Mono.defer(() -> {
+            XMLSlideShow ppt = new XMLSlideShow();
+            List<List<SlideData>> outlines = new ArrayList<>();
+            return mapReduceGenerator.map(prompts.texts, prompt -> complete(prompt, recorder))
+                    .concatMap(response -> executors.run(PipelineStage.RENDER, () -> {
+                        List<SlideData> slides = outlineFormat.parse(response);
+                        outlines.add(slides);
+                        for (SlideData slideData : slides) {
+                            renderIncrementally(ppt, slideData, layout, progress, recorder);
+                        }
+                        return slides;
+                    }))
+                    .then(Mono.defer(() -> mapReduceGenerator.reduce(prompts.labels, outlines, prompt -> complete(prompt, recorder))))
+                    .flatMap(overview -> executors.run(PipelineStage.RENDER, () -> {
+                        progress.stage(ConversionStage.RENDERING);
+                        XSLFSlide slide = recorder.observe(ConversionRecorder.RENDER, () -> renderSlide(ppt, overview, layout));
+                        ppt.setSlideOrder(slide, 0);
+                        recorder.recordSlides(ppt.getSlides().size());
+                        return ppt;
+                    }))
+                    .doOnError(e -> closeQuietly(ppt))
+                    .doOnCancel(() -> closeQuietly(ppt));
+        });
+    }
+
+    private Flux<String> stream(String prompt, ConversionRecorder recorder) {
+        return Flux.defer(() -> {
+            String cacheKey = cacheKey(prompt);
+            String cached = responseCache.get(cacheKey);
+            if (cached != null) {
+                recorder.recordLlm("cached", cached);
+                return Flux.just(cached);
+            }
+
+            StringBuilder content = new StringBuilder();
+            return recorder.observe(ConversionRecorder.LLM, llmClient.stream(prompt)
+                            .contextWrite(LlmScheduler.forTenant(recorder.getTenant())))
+                    .doOnNext(content::append)
+                    .doOnError(e -> recorder.recordLlm(ConversionRecorder.llmStatus(e), null))
+                    // As in complete(), off the event loop before touching the (possibly disk-backed) cache
+                    .concatWith(Mono.defer(() -> executors.<String>run(PipelineStage.GENERATE, () -> {
+                        recorder.recordLlm("ok", content.toString());
+                        responseCache.put(cacheKey, content.toString());
+                        return null;
+                    })));
+        });
+    }
+
+    private XSLFSlide renderIncrementally(XMLSlideShow ppt, SlideData slideData, SlideLayout layout,
+                                          ConversionProgress progress, ConversionRecorder recorder) {
+        XSLFSlide slide = recorder.observe(ConversionRecorder.RENDER, () -> renderSlide(ppt, slideData, layout));
+        int rendered = ppt.getSlides().size();
+        if (rendered == 1) {
+            recorder.recordFirstSlide();
+        }
+        progress.slideRendered(rendered);
+        return slide;
+    }
+
+    private static XSLFSlide renderSlide(XMLSlideShow ppt, SlideData slideData, SlideLayout layout) {
+        XSLFSlide slide = ppt.createSlide();
+        layout.renderer.accept(slide, slideData);
+        layout.finisher.accept(slide, slideData);
+        return slide;
+    }
+
+    private String cacheKey(String prompt) {
+        return responseCache.key(llmClient.getModel(), prompt, Map.of("max_tokens", llmClient.getMaxTokens()));
+    }
+
+    private static void closeQuietly(XMLSlideShow ppt) {
+        try {
+            ppt.close();
+        } catch (IOException e) {
+            log.warn("Could not close presentation", e);
+        }
+    }
+
+    // Without labels there is a single prompt and no overview slide
+    private static class Prompts {
+        private final List<String> texts;
+        private final List<String> labels;
+
+        Prompts(List<String> texts, List<String> labels) {
+            this.texts = texts;
+            this.labels = labels;
+        }
+    }
+
+    private static class SlideLayout {
+        private final BiConsumer<XSLFSlide, SlideData> renderer;
+        private final BiConsumer<XSLFSlide, SlideData> finisher;
+
+        SlideLayout(BiConsumer<XSLFSlide, SlideData> renderer, BiConsumer<XSLFSlide, SlideData> finisher) {
+            this.renderer = renderer;
+            this.finisher = finisher;
+        }
+    }
+}
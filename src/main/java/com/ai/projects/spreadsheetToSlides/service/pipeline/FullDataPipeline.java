@@ -0,0 +1,217 @@
+package com.ai.projects.spreadsheetToSlides.service.pipeline;
+
+import com.ai.projects.spreadsheetToSlides.model.ColumnProfile;
+import com.ai.projects.spreadsheetToSlides.model.SheetData;
+import com.ai.projects.spreadsheetToSlides.model.SheetProfile;
+import com.ai.projects.spreadsheetToSlides.model.SlideData;
+import com.ai.projects.spreadsheetToSlides.model.WorkbookData;
+import com.ai.projects.spreadsheetToSlides.service.PromptBuilder;
+import com.ai.projects.spreadsheetToSlides.service.SpooledUpload;
+import com.ai.projects.spreadsheetToSlides.service.aggregate.Aggregation;
+import com.ai.projects.spreadsheetToSlides.service.aggregate.GroupByAggregator;
+import com.ai.projects.spreadsheetToSlides.service.aggregate.GroupedTable;
+import com.ai.projects.spreadsheetToSlides.service.metrics.ConversionRecorder;
+import com.ai.projects.spreadsheetToSlides.service.parser.ParsedWorkbookCache;
+import com.ai.projects.spreadsheetToSlides.service.parser.SheetDataBuilder;
+import com.ai.projects.spreadsheetToSlides.service.parser.SheetSource;
+import com.ai.projects.spreadsheetToSlides.service.parser.SpreadsheetReader;
+import com.ai.projects.spreadsheetToSlides.service.parser.WorkbookSource;
+import com.ai.projects.spreadsheetToSlides.service.profile.SheetProfiler;
+import com.ai.projects.spreadsheetToSlides.service.slides.ChartRenderer;
+import com.ai.projects.spreadsheetToSlides.service.slides.SlideText;
+import org.apache.poi.xslf.usermodel.XSLFSlide;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * The charts flow: every row is read, prompts are built from column profiles, and slides that suggest
+ * a chart get a native one. Profiles are accumulated in the parse pass so each sheet is read once;
+ * the profile stage hands them on as the prompt sections.
+ */
+@Component
+public class FullDataPipeline implements PipelineConfiguration<WorkbookData, SheetProfile> {
+
+    private final SpreadsheetReader spreadsheetReader;
+    private final ParsedWorkbookCache parsedWorkbookCache;
+    private final PromptBuilder promptBuilder;
+    private final ChartRenderer chartRenderer;
+    private final int profileTopK;
+    private final int profileSampleRows;
+
+    public FullDataPipeline(SpreadsheetReader spreadsheetReader, ParsedWorkbookCache parsedWorkbookCache,
+                            PromptBuilder promptBuilder, ChartRenderer chartRenderer,
+                            @Value("${conversion.profile.top-k:5}") int profileTopK,
+                            @Value("${conversion.profile.sample-rows:20}") int profileSampleRows) {
+        this.spreadsheetReader = spreadsheetReader;
+        this.parsedWorkbookCache = parsedWorkbookCache;
+        this.promptBuilder = promptBuilder;
+        this.chartRenderer = chartRenderer;
+        this.profileTopK = profileTopK;
+        this.profileSampleRows = profileSampleRows;
+    }
+
+    @Override
+    public WorkbookData parse(SpooledUpload upload, ConversionRecorder recorder) throws Exception {
+        // The profile settings shape the model, so they are part of the cache key
+        String view = "data/" + getProfileSettings();
+        return recorder.observe(ConversionRecorder.PARSE, () -> {
+            boolean[] parsed = new boolean[1];
+            WorkbookData model = parsedWorkbookCache.get(upload, view, () -> {
+                parsed[0] = true;
+                return parseSpreadsheetData(upload);
+            }, WorkbookData::getEstimatedBytes);
+            if (!parsed[0]) {
+                recorder.recordParseCacheHit();
+            }
+            return model;
+        });
+    }
+
+    // Row and cell counts come from the profiles, so the parse loop itself carries no extra counters
+    @Override
+    public List<SheetProfile> profile(WorkbookData data, ConversionRecorder recorder) {
+        long rows = 0;
+        long cells = 0;
+        for (SheetProfile profile : data.getProfiles()) {
+            rows += profile.getRowCount();
+            for (ColumnProfile column : profile.getColumns()) {
+                cells += column.getCount();
+            }
+        }
+        recorder.recordParse(data.getProfiles().size(), rows, cells);
+        return data.getProfiles();
+    }
+
+    // Bounded by the token budget rather than the row count
+    @Override
+    public String prompt(String instructions, List<SheetProfile> profiles) {
+        return promptBuilder.buildDataPrompt(instructions, profiles);
+    }
+
+    @Override
+    public String label(SheetProfile profile) {
+        return profile.getSheetName();
+    }
+
+    @Override
+    public BiConsumer<XSLFSlide, SlideData> slideRenderer(WorkbookData data) {
+        boolean hasChartData = hasChartData(data);
+        return (slide, slideData) -> {
+            SlideText.createTitle(slide, slideData.getTitle());
+            // Slides without chart data fall back to text as well
+            if (slideData.getChartType() == null || !hasChartData) {
+                SlideText.createTextContent(slide, slideData);
+            }
+        };
+    }
+
+    @Override
+    public BiConsumer<XSLFSlide, SlideData> slideFinisher(WorkbookData data) {
+        boolean hasChartData = hasChartData(data);
+        return (slide, slideData) -> {
+            if (slideData.getChartType() == null || !hasChartData) {
+                return;
+            }
+            // A slide naming its series charts that column; otherwise, or if no sheet has it, the workbook totals
+            GroupedTable series = slideData.getChartSeries() == null ? null : namedSeries(data, slideData.getChartSeries());
+            if (series != null) {
+                chartRenderer.render(slide, slideData.getChartType(), slideData.getTitle(),
+                        series.getLabels(), series.getValues(Aggregation.SUM));
+            } else {
+                chartRenderer.render(slide, slideData.getChartType(), slideData.getTitle(), data.getCategories(), data.getValues());
+            }
+        };
+    }
+
+    // "top-k=5/sample-rows=20": conversions with other settings produce other models
+    public String getProfileSettings() {
+        return "top-k=" + profileTopK + "/sample-rows=" + profileSampleRows;
+    }
+
+    public WorkbookData parseSpreadsheetData(SpooledUpload file) throws Exception {
+        WorkbookData workbookData = parseSpreadsheetData(file, sheetName -> true);
+        workbookData.setChartRecommendations(generateChartRecommendations(workbookData));
+        return workbookData;
+    }
+
+    public WorkbookData parseSpreadsheetData(SpooledUpload file, Predicate<String> sheetFilter) throws Exception {
+        WorkbookData workbookData = new WorkbookData();
+
+        // Process all sheets in a single pass each, building the columns and the profile together
+        try (WorkbookSource workbook = spreadsheetReader.open(file)) {
+            for (SheetSource sheet : workbook.getSheets()) {
+                if (!sheetFilter.test(sheet.getSheetName())) {
+                    continue;
+                }
+                SheetDataBuilder builder = new SheetDataBuilder(sheet.getSheetName());
+                SheetProfiler profiler = new SheetProfiler(sheet.getSheetName(), profileTopK, profileSampleRows);
+                sheet.readRows(row -> {
+                    builder.handleRow(row);
+                    profiler.handleRow(row);
+                });
+                workbookData.addSheet(builder.build());
+                workbookData.addProfile(profiler.build());
+            }
+        }
+        return workbookData;
+    }
+
+    public List<String> generateChartRecommendations(WorkbookData data) {
+        List<String> recommendations = new ArrayList<>();
+        List<String> categories = data.getCategories();
+        Map<String, double[]> seriesData = data.getSeriesData();
+
+        // Basic recommendations based on data structure
+        if (!categories.isEmpty() && data.getValues().length > 0) {
+            if (categories.size() <= 6) {
+                recommendations.add("pie chart for " + categories.size() + " categories");
+            }
+            recommendations.add("bar chart for categorical comparison");
+
+            if (categories.size() > 10) {
+                recommendations.add("line chart for trend analysis");
+            }
+        }
+
+        // Advanced recommendations based on series data
+        if (seriesData.size() > 1) {
+            recommendations.add("multi-series bar chart for comparison");
+            recommendations.add("stacked bar chart for composition");
+        }
+
+        // Time series detection
+        boolean hasTimeData = seriesData.keySet().stream()
+                .anyMatch(header -> header.toLowerCase().contains("date") ||
+                        header.toLowerCase().contains("time") ||
+                        header.toLowerCase().contains("year") ||
+                        header.toLowerCase().contains("month"));
+
+        if (hasTimeData) {
+            recommendations.add("line chart for time series data");
+            recommendations.add("area chart for cumulative trends");
+        }
+
+        return recommendations;
+    }
+
+    // From the first sheet with a numeric column of that header
+    private static GroupedTable namedSeries(WorkbookData data, String valueHeader) {
+        for (SheetData sheet : data.getSheets()) {
+            GroupedTable series = GroupByAggregator.chartSeries(sheet, valueHeader);
+            if (series != null && series.size() > 0) {
+                return series;
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasChartData(WorkbookData data) {
+        return !data.getCategories().isEmpty() && data.getValues().length > 0;
+    }
+}
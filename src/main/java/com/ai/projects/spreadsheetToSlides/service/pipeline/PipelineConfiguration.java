@@ -0,0 +1,38 @@
+package com.ai.projects.spreadsheetToSlides.service.pipeline;
+
+import com.ai.projects.spreadsheetToSlides.model.SlideData;
+import com.ai.projects.spreadsheetToSlides.service.SpooledUpload;
+import com.ai.projects.spreadsheetToSlides.service.metrics.ConversionRecorder;
+import org.apache.poi.xslf.usermodel.XSLFSlide;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * What a flow contributes to the {@link ConversionPipeline}: how the upload is parsed into a model,
+ * which per-sheet sections of it are prompted, and how slides are drawn. Everything else (executors,
+ * LLM calls and caching, map-reduce, streaming render, serialisation) is the engine's.
+ *
+ * @param <M> workbook model produced by the parse stage
+ * @param <S> per-sheet section the prompts are built from
+ */
+public interface PipelineConfiguration<M, S> {
+
+    M parse(SpooledUpload upload, ConversionRecorder recorder) throws Exception;
+
+    // Records the parse counters and picks the sections to prompt, one per sheet
+    List<S> profile(M model, ConversionRecorder recorder);
+
+    String prompt(String instructions, List<S> sections);
+
+    // Names the sections of a map-reduce group on the overview slide
+    String label(S section);
+
+    // Self-contained shapes only; may run on a scratch deck on another thread
+    BiConsumer<XSLFSlide, SlideData> slideRenderer(M model);
+
+    // Shapes that add package parts, such as charts, drawn on the slide of the final deck
+    default BiConsumer<XSLFSlide, SlideData> slideFinisher(M model) {
+        return (slide, slideData) -> { };
+    }
+}
@@ -0,0 +1,42 @@
+package com.ai.projects.spreadsheetToSlides.service.pipeline;
+
+import com.ai.projects.spreadsheetToSlides.model.ConversionStage;
+
+import java.util.Locale;
+
+/**
+ * Stages of a conversion, in order. Each runs on its own executor ({@link StageExecutors}). Stages before
+ * the LLM call turn work away when their queue is full; later ones wait for room instead, so a conversion
+ * whose completion has already been paid for is never dropped.
+ */
+public enum PipelineStage {
+    INGEST(ConversionStage.PARSING, true),
+    PARSE(ConversionStage.PARSING, true),
+    PROFILE(ConversionStage.PARSING, true),
+    PROMPT(ConversionStage.PARSING, true),
+    // Cache lookups and response handling; the LLM calls themselves wait in LlmScheduler without a thread
+    GENERATE(ConversionStage.GENERATING, false),
+    RENDER(ConversionStage.RENDERING, false),
+    EMIT(ConversionStage.RENDERING, false);
+
+    private final ConversionStage progress;
+    private final boolean admission;
+
+    PipelineStage(ConversionStage progress, boolean admission) {
+        this.progress = progress;
+        this.admission = admission;
+    }
+
+    public ConversionStage getProgress() { return progress; }
+
+    public boolean isAdmission() { return admission; }
+
+    // Name used in properties and metric tags
+    public String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static PipelineStage fromKey(String key) {
+        return valueOf(key.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,231 @@
+package com.ai.projects.spreadsheetToSlides.service.pipeline;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * One fixed-size pool with a bounded queue per {@link PipelineStage}, so a burst of parsing cannot take the
+ * threads rendering needs, and CPU work of one conversion overlaps with others waiting on the LLM.
+ * Queue depth, active threads, saturation (queue fill, 0 to 1) and work waiting for room are published per stage.
+ */
+@Component
+public class StageExecutors {
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 256;
+    private static final Duration SHUTDOWN_GRACE = Duration.ofSeconds(5);
+    // Context key: how long admission stages wait for room instead of rejecting, for work that was already accepted
+    private static final String ADMISSION_WAIT = StageExecutors.class.getName() + ".admissionWait";
+
+    private final Duration handoffTimeout;
+    private final Map<PipelineStage, ThreadPoolExecutor> executors = new EnumMap<>(PipelineStage.class);
+    private final Map<PipelineStage, Counter> rejected = new EnumMap<>(PipelineStage.class);
+    // Work of the stages after the LLM call that found the queue full, oldest first; each deque is its own lock
+    private final Map<PipelineStage, Deque<Waiter>> waiting = new EnumMap<>(PipelineStage.class);
+
+    public StageExecutors(@Value("${conversion.pipeline.threads:}") String threads,
+                          @Value("${conversion.pipeline.queue-capacity:}") String queueCapacity,
+                          @Value("${conversion.pipeline.handoff-timeout:30s}") Duration handoffTimeout,
+                          MeterRegistry meterRegistry) {
+        this.handoffTimeout = handoffTimeout;
+        Map<PipelineStage, Integer> stageThreads = parseStageSizes(threads);
+        Map<PipelineStage, Integer> stageQueues = parseStageSizes(queueCapacity);
+        for (PipelineStage stage : PipelineStage.values()) {
+            int size = stageThreads.getOrDefault(stage, 0);
+            if (size <= 0) {
+                size = Runtime.getRuntime().availableProcessors();
+            }
+            int capacity = Math.max(1, stageQueues.getOrDefault(stage, DEFAULT_QUEUE_CAPACITY));
+            AtomicInteger threadCount = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(capacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "pipeline-" + stage.key() + "-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy());
+            executors.put(stage, executor);
+            Deque<Waiter> stageWaiting = new ArrayDeque<>();
+            waiting.put(stage, stageWaiting);
+            Gauge.builder("conversion.pipeline.waiting", stageWaiting, deque -> {
+                        synchronized (deque) {
+                            return deque.size();
+                        }
+                    })
+                    .tag("stage", stage.key()).register(meterRegistry);
+            rejected.put(stage, Counter.builder("conversion.pipeline.rejected").tag("stage", stage.key()).register(meterRegistry));
+            Gauge.builder("conversion.pipeline.queued", executor, pool -> pool.getQueue().size())
+                    .tag("stage", stage.key()).register(meterRegistry);
+            Gauge.builder("conversion.pipeline.active", executor, ThreadPoolExecutor::getActiveCount)
+                    .tag("stage", stage.key()).register(meterRegistry);
+            Gauge.builder("conversion.pipeline.saturation", executor, pool -> (double) pool.getQueue().size() / capacity)
+                    .tag("stage", stage.key()).register(meterRegistry);
+        }
+    }
+
+    /**
+     * Runs the task on the stage's pool. A full queue fails an admission stage with
+     * {@link StageSaturatedException} straight away. Later stages already hold a conversion that got past
+     * the LLM call, so their work waits for room instead: it is handed to the pool as soon as a queued task
+     * starts, oldest first, and fails with the same exception if no room came up within the handoff timeout.
+     * Admission stages wait the same way when the subscriber's context carries {@link #waitForAdmission}.
+     */
+    public <T> Mono<T> run(PipelineStage stage, Callable<T> task) {
+        return Mono.create(sink -> {
+            ThreadPoolExecutor executor = executors.get(stage);
+            Runnable work = () -> {
+                // Taking this task off the queue made room for one that is waiting
+                handOff(stage);
+                try {
+                    sink.success(task.call());
+                } catch (Throwable e) {
+                    sink.error(e);
+                }
+            };
+            if (offer(executor, work)) {
+                // A cancelled conversion gives its queue slot back
+                sink.onCancel(() -> executor.remove(work));
+                return;
+            }
+            rejected.get(stage).increment();
+            Duration timeout = stage.isAdmission() ? sink.contextView().getOrDefault(ADMISSION_WAIT, null) : handoffTimeout;
+            if (timeout == null) {
+                sink.error(new StageSaturatedException(stage));
+                return;
+            }
+            Deque<Waiter> stageWaiting = waiting.get(stage);
+            Waiter waiter = new Waiter(work);
+            synchronized (stageWaiting) {
+                stageWaiting.add(waiter);
+                waiter.timeout = Schedulers.parallel().schedule(
+                        () -> expire(stage, waiter, sink), timeout.toMillis(), TimeUnit.MILLISECONDS);
+            }
+            sink.onCancel(() -> {
+                cancel(stage, waiter);
+                executor.remove(work);
+            });
+            // The queue may have drained between the rejection and joining the waiting line
+            handOff(stage);
+        });
+    }
+
+    // For queued background work, e.g. conversion jobs: admission stages wait up to the timeout for room
+    public static Function<Context, Context> waitForAdmission(Duration timeout) {
+        return context -> context.put(ADMISSION_WAIT, timeout);
+    }
+
+    public int getQueued(PipelineStage stage) {
+        return executors.get(stage).getQueue().size();
+    }
+
+    public int getActive(PipelineStage stage) {
+        return executors.get(stage).getActiveCount();
+    }
+
+    public double getRejected(PipelineStage stage) {
+        return rejected.get(stage).count();
+    }
+
+    private void handOff(PipelineStage stage) {
+        Deque<Waiter> stageWaiting = waiting.get(stage);
+        ThreadPoolExecutor executor = executors.get(stage);
+        synchronized (stageWaiting) {
+            Waiter next;
+            while ((next = stageWaiting.peek()) != null && offer(executor, next.work)) {
+                stageWaiting.poll();
+                next.timeout.dispose();
+            }
+        }
+    }
+
+    private void expire(PipelineStage stage, Waiter waiter, MonoSink<?> sink) {
+        Deque<Waiter> stageWaiting = waiting.get(stage);
+        synchronized (stageWaiting) {
+            if (!stageWaiting.remove(waiter)) {
+                // Handed to the pool in the meantime
+                return;
+            }
+        }
+        sink.error(new StageSaturatedException(stage));
+    }
+
+    private void cancel(PipelineStage stage, Waiter waiter) {
+        Deque<Waiter> stageWaiting = waiting.get(stage);
+        synchronized (stageWaiting) {
+            if (stageWaiting.remove(waiter)) {
+                waiter.timeout.dispose();
+            }
+        }
+    }
+
+    private static boolean offer(ThreadPoolExecutor executor, Runnable work) {
+        try {
+            executor.execute(work);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    // "parse=4,render=8"; unlisted stages and 0 fall back to the defaults
+    private static Map<PipelineStage, Integer> parseStageSizes(String sizes) {
+        Map<PipelineStage, Integer> stageSizes = new HashMap<>();
+        for (String entry : sizes.split(",")) {
+            int separator = entry.lastIndexOf('=');
+            if (separator > 0) {
+                stageSizes.put(PipelineStage.fromKey(entry.substring(0, separator)),
+                        Integer.parseInt(entry.substring(separator + 1).trim()));
+            }
+        }
+        return stageSizes;
+    }
+
+    // Lets running and queued tasks finish for a few seconds before interrupting them
+    @PreDestroy
+    public void shutdown() {
+        executors.values().forEach(ThreadPoolExecutor::shutdown);
+        long deadline = System.nanoTime() + SHUTDOWN_GRACE.toNanos();
+        for (ThreadPoolExecutor executor : executors.values()) {
+            try {
+                if (!executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private static class Waiter {
+        private final Runnable work;
+        private Disposable timeout;
+
+        Waiter(Runnable work) {
+            this.work = work;
+        }
+    }
+}
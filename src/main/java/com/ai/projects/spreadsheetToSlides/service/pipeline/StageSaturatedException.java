@@ -0,0 +1,27 @@
+package com.ai.projects.spreadsheetToSlides.service.pipeline;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+// Raised when an admission stage's queue is full; answered with 503 and Retry-After
+public class StageSaturatedException extends ResponseStatusException {
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final PipelineStage stage;
+
+    public StageSaturatedException(PipelineStage stage) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Conversion pipeline is saturated at the " + stage.key() + " stage");
+        this.stage = stage;
+    }
+
+    public PipelineStage getStage() { return stage; }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(RETRY_AFTER_SECONDS));
+        return headers;
+    }
+}
@@ -0,0 +1,91 @@
+package com.ai.projects.spreadsheetToSlides.service.profile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Mergeable-summary quantile sketch (Manku-Rajagopalan-Lindsay style compactors).
+ * Each level holds at most {@code k} values; a full level is sorted and every other value is
+ * promoted to the next level with twice the weight. Memory is O(k log(n / k)) and the rank
+ * error is roughly proportional to log(n / k) / k.
+ */
+public class QuantileSketch {
+
+    private final int k;
+    private final List<double[]> levels = new ArrayList<>();
+    private final List<Integer> sizes = new ArrayList<>();
+    private boolean offset;
+    private long count;
+
+    public QuantileSketch(int k) {
+        this.k = k;
+    }
+
+    public long getCount() { return count; }
+
+    public void add(double value) {
+        count++;
+        insert(0, value);
+    }
+
+    // Value at the given rank fraction in [0, 1], or NaN if nothing was added
+    public double quantile(double fraction) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        int total = 0;
+        for (int size : sizes) total += size;
+        double[] values = new double[total];
+        long[] weights = new long[total];
+        int n = 0;
+        for (int level = 0; level < levels.size(); level++) {
+            double[] buffer = levels.get(level);
+            for (int i = 0; i < sizes.get(level); i++) {
+                values[n] = buffer[i];
+                weights[n++] = 1L << level;
+            }
+        }
+
+        Integer[] order = new Integer[total];
+        for (int i = 0; i < total; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+
+        long totalWeight = 0;
+        for (long weight : weights) totalWeight += weight;
+        double target = fraction * totalWeight;
+        long cumulative = 0;
+        for (Integer i : order) {
+            cumulative += weights[i];
+            if (cumulative >= target) {
+                return values[i];
+            }
+        }
+        return values[order[total - 1]];
+    }
+
+    private void insert(int level, double value) {
+        if (level == levels.size()) {
+            levels.add(new double[k]);
+            sizes.add(0);
+        }
+        double[] buffer = levels.get(level);
+        int size = sizes.get(level);
+        buffer[size++] = value;
+        sizes.set(level, size);
+        if (size == k) {
+            compact(level);
+        }
+    }
+
+    private void compact(int level) {
+        double[] buffer = levels.get(level);
+        Arrays.sort(buffer, 0, k);
+        sizes.set(level, 0);
+        // Alternating the kept half avoids a systematic bias without needing randomness
+        offset = !offset;
+        for (int i = offset ? 1 : 0; i < k; i += 2) {
+            insert(level + 1, buffer[i]);
+        }
+    }
+}
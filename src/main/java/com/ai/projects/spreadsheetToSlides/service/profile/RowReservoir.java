@@ -0,0 +1,49 @@
+package com.ai.projects.spreadsheetToSlides.service.profile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Algorithm R reservoir of row indexes; seeded so the same sheet always yields the same sample
+public class RowReservoir {
+
+    private final int capacity;
+    private final Random random = new Random(42);
+    private final List<Integer> rows = new ArrayList<>();
+    private final List<String> values = new ArrayList<>();
+    private long seen;
+
+    public RowReservoir(int capacity) {
+        this.capacity = capacity;
+    }
+
+    // Slot the next row should replace, or -1 to skip it
+    public int offer(int row) {
+        seen++;
+        if (rows.size() < capacity) {
+            rows.add(row);
+            values.add(null);
+            return rows.size() - 1;
+        }
+        long slot = (long) (random.nextDouble() * seen);
+        if (slot < capacity) {
+            rows.set((int) slot, row);
+            return (int) slot;
+        }
+        return -1;
+    }
+
+    public void set(int slot, String value) {
+        values.set(slot, value);
+    }
+
+    // Sampled values in their original row order
+    public List<String> getSample() {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) order.add(i);
+        order.sort((a, b) -> Integer.compare(rows.get(a), rows.get(b)));
+        List<String> sample = new ArrayList<>();
+        for (int i : order) sample.add(values.get(i));
+        return sample;
+    }
+}
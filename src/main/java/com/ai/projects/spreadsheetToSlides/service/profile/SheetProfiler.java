@@ -0,0 +1,173 @@
+package com.ai.projects.spreadsheetToSlides.service.profile;
+
+import com.ai.projects.spreadsheetToSlides.model.ColumnProfile;
+import com.ai.projects.spreadsheetToSlides.model.ColumnType;
+import com.ai.projects.spreadsheetToSlides.model.SheetProfile;
+import com.ai.projects.spreadsheetToSlides.service.parser.SheetRow;
+import com.ai.projects.spreadsheetToSlides.service.parser.SheetRowHandler;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams the rows of a sheet into a {@link SheetProfile}. Every column keeps a fixed-size state
+ * (running moments, a quantile sketch and a top-k counter) and the sample is a bounded reservoir,
+ * so memory does not grow with the row count.
+ */
+public class SheetProfiler implements SheetRowHandler {
+
+    private static final int SKETCH_SIZE = 128;
+    private static final int TOP_K_CAPACITY = 64;
+
+    private final String sheetName;
+    private final int topK;
+    private final RowReservoir reservoir;
+    private final List<ColumnAccumulator> columns = new ArrayList<>();
+    private boolean date1904;
+    private boolean headerSeen;
+    private int rowCount;
+
+    public SheetProfiler(String sheetName, int topK, int sampleRows) {
+        this.sheetName = sheetName;
+        this.topK = topK;
+        this.reservoir = new RowReservoir(sampleRows);
+    }
+
+    @Override
+    public void handleRow(SheetRow row) {
+        if (!headerSeen) {
+            for (int cellIndex = 0; cellIndex < row.getLastCellNum(); cellIndex++) {
+                columns.add(new ColumnAccumulator(
+                        row.hasCell(cellIndex) ? row.toString(cellIndex).trim() : "Column" + (cellIndex + 1)));
+            }
+            date1904 = row.isDate1904();
+            headerSeen = true;
+            return;
+        }
+
+        for (int cellIndex = 0; cellIndex < columns.size(); cellIndex++) {
+            columns.get(cellIndex).add(row, cellIndex);
+        }
+
+        int slot = reservoir.offer(rowCount++);
+        if (slot >= 0) {
+            StringBuilder rowText = new StringBuilder();
+            for (int cellIndex = 0; cellIndex < columns.size(); cellIndex++) {
+                rowText.append(row.formatValue(cellIndex)).append(' ');
+            }
+            reservoir.set(slot, rowText.toString().trim());
+        }
+    }
+
+    public SheetProfile build() {
+        SheetProfile profile = new SheetProfile();
+        profile.setSheetName(sheetName);
+        profile.setRowCount(rowCount);
+        List<ColumnProfile> columnProfiles = new ArrayList<>();
+        for (ColumnAccumulator column : columns) {
+            columnProfiles.add(column.toProfile());
+        }
+        profile.setColumns(columnProfiles);
+        List<String> sample = new ArrayList<>();
+        for (String rowText : reservoir.getSample()) {
+            if (!rowText.isEmpty()) sample.add(rowText);
+        }
+        profile.setSampleRows(sample);
+        return profile;
+    }
+
+    private class ColumnAccumulator {
+        private final String header;
+        private ColumnType type = ColumnType.UNKNOWN;
+        private long count;
+        private long nulls;
+        private long numericCount;
+        private double sum;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private double firstDate = Double.POSITIVE_INFINITY;
+        private double lastDate = Double.NEGATIVE_INFINITY;
+        private QuantileSketch sketch;
+        private TopKCounter topValues;
+
+        ColumnAccumulator(String header) {
+            this.header = header;
+        }
+
+        void add(SheetRow row, int cellIndex) {
+            CellType cellType = row.getCellType(cellIndex);
+            if (cellType == null || cellType == CellType.BLANK) {
+                nulls++;
+                return;
+            }
+            switch (cellType) {
+                case NUMERIC:
+                    type = type.promote(ColumnType.NUMERIC);
+                    if (row.isDateFormatted(cellIndex)) {
+                        firstDate = Math.min(firstDate, row.getNumericValue(cellIndex));
+                        lastDate = Math.max(lastDate, row.getNumericValue(cellIndex));
+                    } else {
+                        addNumber(row.getNumericValue(cellIndex));
+                    }
+                    break;
+                case FORMULA:
+                    if (row.getCachedFormulaResultType(cellIndex) == CellType.NUMERIC) {
+                        addNumber(row.getNumericValue(cellIndex));
+                    }
+                    break;
+                case STRING:
+                    String value = row.getStringValue(cellIndex).trim();
+                    if (value.isEmpty()) {
+                        nulls++;
+                        return;
+                    }
+                    type = type.promote(ColumnType.TEXT);
+                    addText(value);
+                    break;
+                default:
+                    addText(row.formatValue(cellIndex));
+                    break;
+            }
+            count++;
+        }
+
+        private void addNumber(double value) {
+            if (sketch == null) sketch = new QuantileSketch(SKETCH_SIZE);
+            numericCount++;
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sketch.add(value);
+        }
+
+        private void addText(String value) {
+            if (topValues == null) topValues = new TopKCounter(TOP_K_CAPACITY);
+            topValues.add(value);
+        }
+
+        ColumnProfile toProfile() {
+            ColumnProfile profile = new ColumnProfile();
+            profile.setHeader(header);
+            profile.setType(type);
+            profile.setCount(count);
+            profile.setNulls(nulls);
+            profile.setNumericCount(numericCount);
+            if (numericCount > 0) {
+                profile.setMin(min);
+                profile.setMax(max);
+                profile.setMean(sum / numericCount);
+                profile.setP25(sketch.quantile(0.25));
+                profile.setMedian(sketch.quantile(0.5));
+                profile.setP75(sketch.quantile(0.75));
+            }
+            if (firstDate <= lastDate) {
+                profile.setFirstDate(DateUtil.getJavaDate(firstDate, date1904));
+                profile.setLastDate(DateUtil.getJavaDate(lastDate, date1904));
+            }
+            profile.setTopValues(topValues != null ? topValues.top(topK) : List.of());
+            return profile;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.ai.projects.spreadsheetToSlides.service.profile;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy hitters: keeps at most {@code capacity} counters. When a new value arrives
+ * and all counters are taken, the smallest counter is reassigned to it, so counts are upper bounds
+ * that are exact for values that were never evicted.
+ */
+public class TopKCounter {
+
+    private final int capacity;
+    private final Map<String, long[]> counters = new HashMap<>();
+
+    public TopKCounter(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void add(String value) {
+        long[] counter = counters.get(value);
+        if (counter != null) {
+            counter[0]++;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(value, new long[]{1});
+            return;
+        }
+        String smallest = null;
+        long smallestCount = Long.MAX_VALUE;
+        for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+            if (entry.getValue()[0] < smallestCount) {
+                smallest = entry.getKey();
+                smallestCount = entry.getValue()[0];
+            }
+        }
+        counters.remove(smallest);
+        counters.put(value, new long[]{smallestCount + 1});
+    }
+
+    public int size() { return counters.size(); }
+
+    public List<Map.Entry<String, Long>> top(int n) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>();
+        for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+            entries.add(Map.entry(entry.getKey(), entry.getValue()[0]));
+        }
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        return entries.subList(0, Math.min(n, entries.size()));
+    }
+}
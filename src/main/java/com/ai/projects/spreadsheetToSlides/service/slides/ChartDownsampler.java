@@ -0,0 +1,132 @@
+package com.ai.projects.spreadsheetToSlides.service.slides;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reduces a category/value series to a bounded number of chart points, so the size of a chart
+ * part does not grow with the number of rows in the sheet.
+ */
+public final class ChartDownsampler {
+
+    static final String OTHER = "Other";
+
+    private ChartDownsampler() {
+    }
+
+    /**
+     * Sums the values of repeated categories and, when more than {@code maxPoints} remain, keeps the
+     * {@code maxPoints - 1} largest and folds the rest into {@value #OTHER}. Small series keep their
+     * first-seen order; folded series are ordered by value, largest first.
+     */
+    public static Series topN(List<String> categories, double[] values, int maxPoints) {
+        Map<String, Double> totals = new LinkedHashMap<>();
+        int points = Math.min(categories.size(), values.length);
+        for (int i = 0; i < points; i++) {
+            totals.merge(categories.get(i), values[i], Double::sum);
+        }
+        List<Map.Entry<String, Double>> entries = new ArrayList<>(totals.entrySet());
+        if (entries.size() <= maxPoints) {
+            return Series.of(entries);
+        }
+
+        entries.sort(Map.Entry.<String, Double>comparingByValue(Comparator.reverseOrder()));
+        List<Map.Entry<String, Double>> kept = new ArrayList<>(entries.subList(0, maxPoints - 1));
+        double other = 0;
+        for (Map.Entry<String, Double> entry : entries.subList(maxPoints - 1, entries.size())) {
+            other += entry.getValue();
+        }
+        kept.add(Map.entry(OTHER, other));
+        return Series.of(kept);
+    }
+
+    // Keeps the row order and thins it with largest-triangle-three-buckets, which preserves peaks and troughs
+    public static Series lttb(List<String> categories, double[] values, int maxPoints) {
+        int points = Math.min(categories.size(), values.length);
+        int[] indices = lttbIndices(Arrays.copyOf(values, points), maxPoints);
+        String[] sampledCategories = new String[indices.length];
+        double[] sampledValues = new double[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            sampledCategories[i] = categories.get(indices[i]);
+            sampledValues[i] = values[indices[i]];
+        }
+        return new Series(sampledCategories, sampledValues);
+    }
+
+    // Indices of the points LTTB keeps, with x being the row position; always includes the first and last point
+    static int[] lttbIndices(double[] values, int threshold) {
+        int n = values.length;
+        // First, last and at least one point in between
+        threshold = Math.max(threshold, 3);
+        if (threshold >= n) {
+            int[] all = new int[n];
+            Arrays.setAll(all, i -> i);
+            return all;
+        }
+
+        int[] sampled = new int[threshold];
+        double every = (double) (n - 2) / (threshold - 2);
+        int a = 0;
+        sampled[0] = 0;
+        for (int i = 0; i < threshold - 2; i++) {
+            // Average of the next bucket is the third corner of the triangle
+            int avgStart = (int) Math.floor((i + 1) * every) + 1;
+            int avgEnd = Math.min((int) Math.floor((i + 2) * every) + 1, n);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = avgStart; j < avgEnd; j++) {
+                avgX += j;
+                avgY += values[j];
+            }
+            int avgLength = avgEnd - avgStart;
+            avgX /= avgLength;
+            avgY /= avgLength;
+
+            int rangeStart = (int) Math.floor(i * every) + 1;
+            int rangeEnd = (int) Math.floor((i + 1) * every) + 1;
+            double maxArea = -1;
+            int next = rangeStart;
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                double area = Math.abs((a - avgX) * (values[j] - values[a]) - (a - j) * (avgY - values[a]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+            sampled[i + 1] = next;
+            a = next;
+        }
+        sampled[threshold - 1] = n - 1;
+        return sampled;
+    }
+
+    public static final class Series {
+        private final String[] categories;
+        private final double[] values;
+
+        Series(String[] categories, double[] values) {
+            this.categories = categories;
+            this.values = values;
+        }
+
+        private static Series of(List<Map.Entry<String, Double>> entries) {
+            String[] categories = new String[entries.size()];
+            double[] values = new double[entries.size()];
+            for (int i = 0; i < entries.size(); i++) {
+                categories[i] = entries.get(i).getKey();
+                values[i] = entries.get(i).getValue();
+            }
+            return new Series(categories, values);
+        }
+
+        public String[] getCategories() { return categories; }
+
+        public double[] getValues() { return values; }
+
+        public int size() { return values.length; }
+    }
+}
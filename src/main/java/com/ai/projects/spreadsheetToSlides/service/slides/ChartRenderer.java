@@ -0,0 +1,92 @@
+package com.ai.projects.spreadsheetToSlides.service.slides;
+
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xddf.usermodel.chart.AxisCrossBetween;
+import org.apache.poi.xddf.usermodel.chart.AxisPosition;
+import org.apache.poi.xddf.usermodel.chart.BarDirection;
+import org.apache.poi.xddf.usermodel.chart.ChartTypes;
+import org.apache.poi.xddf.usermodel.chart.LegendPosition;
+import org.apache.poi.xddf.usermodel.chart.MarkerStyle;
+import org.apache.poi.xddf.usermodel.chart.XDDFBarChartData;
+import org.apache.poi.xddf.usermodel.chart.XDDFCategoryAxis;
+import org.apache.poi.xddf.usermodel.chart.XDDFChartData;
+import org.apache.poi.xddf.usermodel.chart.XDDFDataSource;
+import org.apache.poi.xddf.usermodel.chart.XDDFDataSourcesFactory;
+import org.apache.poi.xddf.usermodel.chart.XDDFLineChartData;
+import org.apache.poi.xddf.usermodel.chart.XDDFNumericalDataSource;
+import org.apache.poi.xddf.usermodel.chart.XDDFValueAxis;
+import org.apache.poi.xslf.usermodel.XSLFChart;
+import org.apache.poi.xslf.usermodel.XSLFSlide;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Native pie, bar and line charts (XDDF) with an embedded data sheet, so the chart stays editable in
+ * PowerPoint. Pie and bar charts are summed per category and cut to the top categories plus "Other";
+ * line charts keep the row order and are downsampled with LTTB. Either way a chart holds at most the
+ * configured number of points, however many rows the sheet has.
+ *
+ * <p>Charts are separate package parts, so this must run on the final slide, not a scratch one.
+ */
+@Component
+public class ChartRenderer {
+
+    private static final Rectangle CHART_ANCHOR = new Rectangle(50, 100, 600, 400);
+
+    private final int maxCategories;
+    private final int maxLinePoints;
+
+    public ChartRenderer(@Value("${conversion.chart.max-categories:12}") int maxCategories,
+                         @Value("${conversion.chart.max-line-points:200}") int maxLinePoints) {
+        this.maxCategories = Math.max(2, maxCategories);
+        this.maxLinePoints = Math.max(3, maxLinePoints);
+    }
+
+    // chartType is "pie", "bar" or "line"; anything else is drawn as a bar chart
+    public void render(XSLFSlide slide, String chartType, String seriesTitle, List<String> categories, double[] values) {
+        ChartDownsampler.Series series = "line".equals(chartType)
+                ? ChartDownsampler.lttb(categories, values, maxLinePoints)
+                : ChartDownsampler.topN(categories, values, maxCategories);
+
+        XSLFChart chart = slide.getSlideShow().createChart(slide);
+        slide.addChart(chart, CHART_ANCHOR);
+
+        // The series is also written to the embedded workbook: categories in column A, values in column B
+        int rows = series.size();
+        XDDFDataSource<String> categoryData = XDDFDataSourcesFactory.fromArray(series.getCategories(),
+                chart.formatRange(new CellRangeAddress(1, rows, 0, 0)), 0);
+        XDDFNumericalDataSource<Double> valueData = XDDFDataSourcesFactory.fromArray(
+                Arrays.stream(series.getValues()).boxed().toArray(Double[]::new),
+                chart.formatRange(new CellRangeAddress(1, rows, 1, 1)), 1);
+
+        XDDFChartData data;
+        if ("pie".equals(chartType)) {
+            data = chart.createData(ChartTypes.PIE, null, null);
+            data.setVaryColors(true);
+            chart.getOrAddLegend().setPosition(LegendPosition.RIGHT);
+        } else {
+            XDDFCategoryAxis categoryAxis = chart.createCategoryAxis(AxisPosition.BOTTOM);
+            XDDFValueAxis valueAxis = chart.createValueAxis(AxisPosition.LEFT);
+            valueAxis.setCrossBetween(AxisCrossBetween.BETWEEN);
+            if ("line".equals(chartType)) {
+                data = chart.createData(ChartTypes.LINE, categoryAxis, valueAxis);
+            } else {
+                data = chart.createData(ChartTypes.BAR, categoryAxis, valueAxis);
+                ((XDDFBarChartData) data).setBarDirection(BarDirection.COL);
+            }
+            data.setVaryColors(false);
+        }
+
+        XDDFChartData.Series chartSeries = data.addSeries(categoryData, valueData);
+        chartSeries.setTitle(seriesTitle, chart.setSheetTitle(seriesTitle, 1));
+        if (chartSeries instanceof XDDFLineChartData.Series) {
+            // Hundreds of markers only add clutter
+            ((XDDFLineChartData.Series) chartSeries).setMarkerStyle(MarkerStyle.NONE);
+        }
+        chart.plot(data);
+    }
+}
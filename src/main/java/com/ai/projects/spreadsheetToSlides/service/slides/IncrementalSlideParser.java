@@ -0,0 +1,178 @@
+package com.ai.projects.spreadsheetToSlides.service.slides;
+
+import com.ai.projects.spreadsheetToSlides.model.SlideData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Splits free-form LLM output into slides as it arrives. Sections are separated by a blank line, exactly
+ * like {@code response.split("\n\n")}, so feeding the whole response at once gives the same slides as the
+ * original batch parser. A single pass over the characters: no line arrays, regexes or lower-cased copies,
+ * only the title and bullet strings themselves are allocated. Not thread-safe; one instance per completion.
+ */
+public class IncrementalSlideParser implements SlideOutlineParser {
+
+    private final StringBuilder buffer = new StringBuilder();
+    // Characters of the buffer already searched for a separator
+    private int scanned;
+    private int emitted;
+
+    @Override
+    public List<SlideData> accept(CharSequence chunk) {
+        buffer.append(chunk);
+        List<SlideData> slides = new ArrayList<>(0);
+        int start = splitSections(buffer, Math.max(1, scanned), slides);
+        buffer.delete(0, start);
+        scanned = buffer.length();
+        emitted += slides.size();
+        return slides.isEmpty() ? Collections.emptyList() : slides;
+    }
+
+    // Flushes the last section; falls back to a summary slide if the response had no sections at all
+    @Override
+    public List<SlideData> finish() {
+        List<SlideData> slides = new ArrayList<>();
+        addSection(buffer, 0, buffer.length(), slides);
+        buffer.setLength(0);
+        scanned = 0;
+        emitted += slides.size();
+        if (emitted == 0) {
+            slides.add(fallbackSlide());
+            emitted++;
+        }
+        return slides;
+    }
+
+    public static List<SlideData> parse(String response) {
+        List<SlideData> slides = new ArrayList<>();
+        int start = splitSections(response, 1, slides);
+        addSection(response, start, response.length(), slides);
+        if (slides.isEmpty()) {
+            slides.add(fallbackSlide());
+        }
+        return slides;
+    }
+
+    static SlideData fallbackSlide() {
+        SlideData fallbackSlide = new SlideData();
+        fallbackSlide.setTitle("Data Summary");
+        fallbackSlide.setContent(List.of("Data visualization"));
+        fallbackSlide.setChartType("pie");
+        return fallbackSlide;
+    }
+
+    // Parses every section ended by a blank line and returns where the unfinished one starts.
+    // Separators do not overlap: in "a\n\n\nb" the second section is "\nb", as with split()
+    private static int splitSections(CharSequence text, int from, List<SlideData> slides) {
+        int start = 0;
+        for (int i = from; i < text.length(); i++) {
+            if (text.charAt(i) == '\n' && i - 1 >= start && text.charAt(i - 1) == '\n') {
+                addSection(text, start, i - 1, slides);
+                start = i + 1;
+            }
+        }
+        return start;
+    }
+
+    private static void addSection(CharSequence text, int start, int end, List<SlideData> slides) {
+        int from = start;
+        while (from < end && text.charAt(from) <= ' ') {
+            from++;
+        }
+        if (from < end) {
+            slides.add(parseSection(text, start, end));
+        }
+    }
+
+    // First line is the title, minus leading '#'s; later lines are bullets or chart suggestions
+    private static SlideData parseSection(CharSequence text, int start, int end) {
+        SlideData slide = new SlideData();
+        int lineEnd = indexOf(text, '\n', start, end);
+        int from = start;
+        while (from < lineEnd && text.charAt(from) == '#') {
+            from++;
+        }
+        slide.setTitle(trimmed(text, from, lineEnd));
+
+        List<String> content = new ArrayList<>();
+        String chartType = null;
+        for (int lineStart = lineEnd + 1; lineStart < end; lineStart = lineEnd + 1) {
+            lineEnd = indexOf(text, '\n', lineStart, end);
+            from = lineStart;
+            int to = lineEnd;
+            while (from < to && text.charAt(from) <= ' ') {
+                from++;
+            }
+            while (to > from && text.charAt(to - 1) <= ' ') {
+                to--;
+            }
+            if (from == to) {
+                continue;
+            }
+
+            // Check for chart suggestions
+            if (containsIgnoreCase(text, from, to, "pie chart")) {
+                chartType = "pie";
+            } else if (containsIgnoreCase(text, from, to, "bar chart")) {
+                chartType = "bar";
+            } else if (containsIgnoreCase(text, from, to, "line chart")) {
+                chartType = "line";
+            } else {
+                // One bullet marker and the whitespace after it
+                char first = text.charAt(from);
+                if (first == '•' || first == '-' || first == '*') {
+                    from++;
+                    while (from < to && isRegexSpace(text.charAt(from))) {
+                        from++;
+                    }
+                }
+                content.add(text.subSequence(from, to).toString());
+            }
+        }
+
+        slide.setContent(content.isEmpty() ? List.of("No content available") : content);
+        slide.setChartType(chartType);
+        return slide;
+    }
+
+    private static String trimmed(CharSequence text, int from, int to) {
+        while (from < to && text.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && text.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        return text.subSequence(from, to).toString();
+    }
+
+    private static int indexOf(CharSequence text, char c, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    // needle is lower-case ASCII
+    private static boolean containsIgnoreCase(CharSequence text, int from, int to, String needle) {
+        int last = to - needle.length();
+        for (int i = from; i <= last; i++) {
+            int j = 0;
+            while (j < needle.length() && Character.toLowerCase(text.charAt(i + j)) == needle.charAt(j)) {
+                j++;
+            }
+            if (j == needle.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // \s of java.util.regex
+    private static boolean isRegexSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
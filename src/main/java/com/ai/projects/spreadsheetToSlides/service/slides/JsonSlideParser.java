@@ -0,0 +1,232 @@
+package com.ai.projects.spreadsheetToSlides.service.slides;
+
+import com.ai.projects.spreadsheetToSlides.model.SlideData;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads slides in the {@link SlideOutlineFormat#JSON_INSTRUCTIONS} schema with Jackson's non-blocking
+ * parser, token by token straight into {@link SlideData}, so each slide is emitted as soon as its object
+ * closes and no tree is built. Text before the first brace or bracket (a code fence, a preamble) and after
+ * the root value is ignored; unknown fields are skipped. A response that is not valid JSON is parsed as
+ * free text instead, so a model ignoring the format still yields slides. Not thread-safe.
+ */
+public class JsonSlideParser implements SlideOutlineParser {
+
+    private static final Logger log = LoggerFactory.getLogger(JsonSlideParser.class);
+
+    private enum State { START, ROOT, ROOT_VALUE, SLIDES, SLIDE, SLIDE_VALUE, BULLETS, DONE, FAILED }
+
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    // Kept for the free-text fallback
+    private final StringBuilder response = new StringBuilder();
+
+    private State state = State.START;
+    private boolean started;
+    // Depth inside a value that is being skipped
+    private int skipping;
+    private String field;
+    private SlideData slide;
+    private List<String> bullets;
+    private int emitted;
+
+    public JsonSlideParser(JsonFactory jsonFactory) {
+        try {
+            this.parser = jsonFactory.createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    public static List<SlideData> parse(JsonFactory jsonFactory, String response) {
+        JsonSlideParser parser = new JsonSlideParser(jsonFactory);
+        List<SlideData> slides = new ArrayList<>(parser.accept(response));
+        slides.addAll(parser.finish());
+        return slides;
+    }
+
+    @Override
+    public List<SlideData> accept(CharSequence chunk) {
+        response.append(chunk);
+        if (state == State.DONE || state == State.FAILED) {
+            return Collections.emptyList();
+        }
+        int from = 0;
+        if (!started) {
+            while (from < chunk.length() && chunk.charAt(from) != '{' && chunk.charAt(from) != '[') {
+                from++;
+            }
+            if (from == chunk.length()) {
+                return Collections.emptyList();
+            }
+            started = true;
+        }
+        // Chunks are whole strings, so each encodes to complete UTF-8 sequences
+        byte[] bytes = chunk.subSequence(from, chunk.length()).toString().getBytes(StandardCharsets.UTF_8);
+        List<SlideData> slides = new ArrayList<>(0);
+        try {
+            feeder.feedInput(bytes, 0, bytes.length);
+            readTokens(slides);
+        } catch (IOException e) {
+            fail(e);
+        }
+        return slides;
+    }
+
+    @Override
+    public List<SlideData> finish() {
+        List<SlideData> slides = new ArrayList<>();
+        if (started && state != State.DONE && state != State.FAILED) {
+            try {
+                feeder.endOfInput();
+                readTokens(slides);
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+        if (emitted == 0) {
+            // Valid but empty gets the summary slide; anything else was not JSON after all
+            return state == State.DONE ? List.of(IncrementalSlideParser.fallbackSlide())
+                    : IncrementalSlideParser.parse(response.toString());
+        }
+        if (slide != null) {
+            log.warn("Dropped a slide truncated at the end of the JSON response");
+        }
+        return slides;
+    }
+
+    private void readTokens(List<SlideData> slides) throws IOException {
+        JsonToken token;
+        while (state != State.DONE && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            handle(token, slides);
+        }
+    }
+
+    private void handle(JsonToken token, List<SlideData> slides) throws IOException {
+        if (skipping > 0) {
+            if (token.isStructStart()) {
+                skipping++;
+            } else if (token.isStructEnd()) {
+                skipping--;
+            }
+            return;
+        }
+        switch (state) {
+            case START:
+                // {"slides": [...]} or a bare array of slides
+                state = token == JsonToken.START_OBJECT ? State.ROOT : State.SLIDES;
+                break;
+            case ROOT:
+                if (token == JsonToken.FIELD_NAME) {
+                    field = parser.currentName();
+                    state = State.ROOT_VALUE;
+                } else {
+                    state = State.DONE;
+                }
+                break;
+            case ROOT_VALUE:
+                if ("slides".equals(field) && token == JsonToken.START_ARRAY) {
+                    state = State.SLIDES;
+                } else {
+                    skip(token);
+                    state = State.ROOT;
+                }
+                break;
+            case SLIDES:
+                if (token == JsonToken.START_OBJECT) {
+                    slide = new SlideData();
+                    slide.setTitle("");
+                    bullets = new ArrayList<>();
+                    state = State.SLIDE;
+                } else if (token == JsonToken.END_ARRAY) {
+                    state = State.DONE;
+                } else {
+                    skip(token);
+                }
+                break;
+            case SLIDE:
+                if (token == JsonToken.FIELD_NAME) {
+                    field = parser.currentName();
+                    state = State.SLIDE_VALUE;
+                } else {
+                    slide.setContent(bullets.isEmpty() ? List.of("No content available") : bullets);
+                    slides.add(slide);
+                    emitted++;
+                    slide = null;
+                    state = State.SLIDES;
+                }
+                break;
+            case SLIDE_VALUE:
+                state = State.SLIDE;
+                if ("bullets".equals(field) && token == JsonToken.START_ARRAY) {
+                    state = State.BULLETS;
+                } else if (token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+                    setField(parser.getText());
+                } else {
+                    skip(token);
+                }
+                break;
+            case BULLETS:
+                if (token == JsonToken.END_ARRAY) {
+                    state = State.SLIDE;
+                } else if (token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+                    bullets.add(parser.getText().trim());
+                } else {
+                    skip(token);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void setField(String value) {
+        switch (field) {
+            case "title":
+                slide.setTitle(value.trim());
+                break;
+            case "chartType":
+                slide.setChartType(chartType(value));
+                break;
+            case "series":
+                slide.setChartSeries(value.isBlank() ? null : value.trim());
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void skip(JsonToken token) {
+        if (token.isStructStart()) {
+            skipping = 1;
+        }
+    }
+
+    private void fail(IOException e) {
+        log.debug("LLM response is not valid JSON, reading it as text", e);
+        if (emitted > 0) {
+            log.warn("LLM response turned invalid after {} slides: {}", emitted, e.getMessage());
+        }
+        state = State.FAILED;
+    }
+
+    // Only the chart kinds the renderer draws; anything else means no chart
+    private static String chartType(String value) {
+        String type = value.trim().toLowerCase(Locale.ROOT);
+        return type.equals("pie") || type.equals("bar") || type.equals("line") ? type : null;
+    }
+}
@@ -0,0 +1,140 @@
+package com.ai.projects.spreadsheetToSlides.service.slides;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.poi.xslf.usermodel.XMLSlideShow;
+import org.apache.poi.xslf.usermodel.XSLFSlide;
+import org.openxmlformats.schemas.presentationml.x2006.main.CTGroupShape;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Renders a deck on several threads even though XSLF is not thread-safe. The slides are split into
+ * contiguous chunks; each chunk is drawn on its own scratch {@link XMLSlideShow} and handed back as
+ * detached shape trees. A single thread then creates the real slides in order and sets their trees,
+ * so the result is the same XML the serial loop produces, whatever the thread count.
+ *
+ * <p>Only self-contained shapes (text boxes, autoshapes, tables) can be rendered this way: anything
+ * that adds a part to the package, such as pictures or charts, is drawn by the finisher on the final slide.
+ */
+@Component
+public class ParallelSlideRenderer {
+
+    private final int parallelism;
+    private final int minSlidesPerTask;
+    private final ThreadPoolExecutor executor;
+
+    public ParallelSlideRenderer(@Value("${conversion.render.parallelism:0}") int parallelism,
+                                 @Value("${conversion.render.min-slides-per-task:4}") int minSlidesPerTask) {
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.minSlidesPerTask = Math.max(1, minSlidesPerTask);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(this.parallelism, this.parallelism, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "slide-render-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public <T> XMLSlideShow render(List<T> slides, BiConsumer<XSLFSlide, T> renderer) {
+        return render(slides, renderer, (slide, slideData) -> { });
+    }
+
+    // finisher runs on the calling thread against each assembled slide, in order, for content that needs the real package
+    public <T> XMLSlideShow render(List<T> slides, BiConsumer<XSLFSlide, T> renderer, BiConsumer<XSLFSlide, T> finisher) {
+        XMLSlideShow ppt = new XMLSlideShow();
+        try {
+            List<CTGroupShape> shapeTrees = renderShapeTrees(slides, renderer);
+            for (int i = 0; i < shapeTrees.size(); i++) {
+                XSLFSlide slide = ppt.createSlide();
+                // Set before anything reads the new slide's shapes, so XSLF never caches the empty tree
+                slide.getXmlObject().getCSld().setSpTree(shapeTrees.get(i));
+                finisher.accept(slide, slides.get(i));
+            }
+            return ppt;
+        } catch (RuntimeException e) {
+            closeQuietly(ppt);
+            throw e;
+        }
+    }
+
+    private <T> List<CTGroupShape> renderShapeTrees(List<T> slides, BiConsumer<XSLFSlide, T> renderer) {
+        int tasks = Math.min(parallelism, slides.size() / minSlidesPerTask);
+        if (tasks <= 1) {
+            return renderChunk(slides, renderer);
+        }
+
+        List<FutureTask<List<CTGroupShape>>> chunks = new ArrayList<>();
+        for (int i = 1; i < tasks; i++) {
+            List<T> chunk = slides.subList(slides.size() * i / tasks, slides.size() * (i + 1) / tasks);
+            FutureTask<List<CTGroupShape>> task = new FutureTask<>(() -> renderChunk(chunk, renderer));
+            chunks.add(task);
+            executor.execute(task);
+        }
+
+        // The calling thread takes the first chunk, then any chunk no worker has picked up yet
+        List<CTGroupShape> shapeTrees = new ArrayList<>(renderChunk(slides.subList(0, slides.size() / tasks), renderer));
+        for (FutureTask<List<CTGroupShape>> task : chunks) {
+            if (executor.remove(task)) {
+                task.run();
+            }
+            shapeTrees.addAll(await(task));
+        }
+        return shapeTrees;
+    }
+
+    private static <T> List<CTGroupShape> renderChunk(List<T> chunk, BiConsumer<XSLFSlide, T> renderer) {
+        List<CTGroupShape> shapeTrees = new ArrayList<>(chunk.size());
+        try (XMLSlideShow scratch = new XMLSlideShow()) {
+            for (T slideData : chunk) {
+                XSLFSlide slide = scratch.createSlide();
+                renderer.accept(slide, slideData);
+                // copy() detaches the tree into its own document, independent of the scratch package
+                shapeTrees.add((CTGroupShape) slide.getXmlObject().getCSld().getSpTree().copy());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return shapeTrees;
+    }
+
+    private static List<CTGroupShape> await(FutureTask<List<CTGroupShape>> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rendering slides", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Slide rendering failed", e.getCause());
+        }
+    }
+
+    private static void closeQuietly(XMLSlideShow ppt) {
+        try {
+            ppt.close();
+        } catch (IOException ignored) {
+            // nothing was written, there is nothing to flush
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,49 @@
+package com.ai.projects.spreadsheetToSlides.service.slides;
+
+import com.ai.projects.spreadsheetToSlides.model.SlideData;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * How the model is asked to lay out slides: {@code text} (the original free-form outline) or {@code json},
+ * a fixed schema read by {@link JsonSlideParser}. The instructions go at the end of every slide prompt and
+ * the matching parser reads the completion.
+ */
+@Component
+public class SlideOutlineFormat {
+
+    public static final String JSON_INSTRUCTIONS = "\n\nReply with JSON only, no prose and no code fences, in exactly this shape:\n"
+            + "{\"slides\": [{\"title\": \"...\", \"bullets\": [\"...\"], \"chartType\": \"bar\" | \"pie\" | \"line\" | null, "
+            + "\"series\": \"<column header the chart plots>\" | null}]}";
+
+    private final JsonFactory jsonFactory;
+    private final boolean json;
+
+    public SlideOutlineFormat(ObjectMapper objectMapper, @Value("${conversion.slides.format:text}") String format) {
+        this.jsonFactory = objectMapper.getFactory();
+        if (!format.equalsIgnoreCase("text") && !format.equalsIgnoreCase("json")) {
+            throw new IllegalArgumentException("conversion.slides.format must be text or json, got " + format);
+        }
+        this.json = format.equalsIgnoreCase("json");
+    }
+
+    public boolean isJson() {
+        return json;
+    }
+
+    public String instructions() {
+        return json ? JSON_INSTRUCTIONS : "";
+    }
+
+    public SlideOutlineParser newParser() {
+        return json ? new JsonSlideParser(jsonFactory) : new IncrementalSlideParser();
+    }
+
+    public List<SlideData> parse(String response) {
+        return json ? JsonSlideParser.parse(jsonFactory, response) : IncrementalSlideParser.parse(response);
+    }
+}
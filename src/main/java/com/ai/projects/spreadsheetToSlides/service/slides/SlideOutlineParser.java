@@ -0,0 +1,15 @@
+package com.ai.projects.spreadsheetToSlides.service.slides;
+
+import com.ai.projects.spreadsheetToSlides.model.SlideData;
+
+import java.util.List;
+
+// Turns a completion into slides as it streams in. Not thread-safe; one instance per completion
+public interface SlideOutlineParser {
+
+    // Returns the slides completed by this chunk
+    List<SlideData> accept(CharSequence chunk);
+
+    // Returns the remaining slides; never leaves a response without any
+    List<SlideData> finish();
+}
@@ -0,0 +1,39 @@
+package com.ai.projects.spreadsheetToSlides.service.slides;
+
+import com.ai.projects.spreadsheetToSlides.model.SlideData;
+import org.apache.poi.xslf.usermodel.XSLFSlide;
+import org.apache.poi.xslf.usermodel.XSLFTextBox;
+import org.apache.poi.xslf.usermodel.XSLFTextParagraph;
+import org.apache.poi.xslf.usermodel.XSLFTextRun;
+
+import java.awt.Rectangle;
+
+// Title and bullet text boxes shared by every slide layout; self-contained shapes, so safe on scratch decks
+public final class SlideText {
+
+    private SlideText() {
+    }
+
+    public static void createTitle(XSLFSlide slide, String title) {
+        XSLFTextBox titleShape = slide.createTextBox();
+        titleShape.setAnchor(new Rectangle(50, 20, 600, 60));
+        XSLFTextParagraph titleParagraph = titleShape.addNewTextParagraph();
+        XSLFTextRun titleRun = titleParagraph.addNewTextRun();
+        titleRun.setText(title);
+        titleRun.setFontSize(24.0);
+        titleRun.setBold(true);
+    }
+
+    public static void createTextContent(XSLFSlide slide, SlideData slideData) {
+        XSLFTextBox contentShape = slide.createTextBox();
+        contentShape.setAnchor(new Rectangle(50, 100, 600, 400));
+
+        for (String contentLine : slideData.getContent()) {
+            XSLFTextParagraph paragraph = contentShape.addNewTextParagraph();
+            XSLFTextRun run = paragraph.addNewTextRun();
+            run.setText("• " + contentLine);
+            run.setFontSize(16.0);
+            paragraph.setLeftMargin(20.0);
+        }
+    }
+}
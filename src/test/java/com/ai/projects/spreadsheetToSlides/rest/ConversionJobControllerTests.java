@@ -0,0 +1,89 @@
+package com.ai.projects.spreadsheetToSlides.rest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"llm.client=stub", "llm.stub.latency=500ms", "llm.stub.jitter=0", "llm.cache.enabled=false"})
+@AutoConfigureMockMvc
+class ConversionJobControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void jobIsAcceptedThenPolledUntilItsDeckCanBeDownloaded() throws Exception {
+		MvcResult submitted = mockMvc.perform(multipart("/api/convert/jobs").file(workbook()).param("targetAudience", "executives"))
+				.andExpect(status().isAccepted())
+				.andReturn();
+		String location = submitted.getResponse().getHeader("Location");
+		JsonNode job = objectMapper.readTree(submitted.getResponse().getContentAsString());
+		assertEquals("/api/convert/jobs/" + job.get("id").asText(), location);
+
+		// The stub answers after 500ms, so the job is still in progress
+		mockMvc.perform(get(location + "/result")).andExpect(status().isConflict());
+
+		String status = null;
+		for (int i = 0; i < 100 && !"SUCCEEDED".equals(status); i++) {
+			Thread.sleep(100);
+			JsonNode polled = objectMapper.readTree(mockMvc.perform(get(location))
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsString());
+			status = polled.get("status").asText();
+			assertTrue(!"FAILED".equals(status), polled.toString());
+		}
+		assertEquals("SUCCEEDED", status);
+
+		byte[] deck = mockMvc.perform(get(location + "/result"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Content-Disposition", "form-data; name=\"attachment\"; filename=\"presentation.pptx\""))
+				.andReturn().getResponse().getContentAsByteArray();
+		// A pptx is a zip
+		assertEquals('P', deck[0]);
+		assertEquals('K', deck[1]);
+	}
+
+	@Test
+	void unknownJobIsNotFound() throws Exception {
+		mockMvc.perform(get("/api/convert/jobs/missing")).andExpect(status().isNotFound());
+		mockMvc.perform(get("/api/convert/jobs/missing/result")).andExpect(status().isNotFound());
+	}
+
+	private static MockMultipartFile workbook() throws Exception {
+		try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+			Sheet sheet = workbook.createSheet("Sales");
+			Row header = sheet.createRow(0);
+			header.createCell(0).setCellValue("Region");
+			header.createCell(1).setCellValue("Revenue");
+			for (int i = 1; i <= 3; i++) {
+				Row row = sheet.createRow(i);
+				row.createCell(0).setCellValue("Region " + i);
+				row.createCell(1).setCellValue(i * 100);
+			}
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			workbook.write(out);
+			return new MockMultipartFile("file", "sales.xlsx", null, out.toByteArray());
+		}
+	}
+}
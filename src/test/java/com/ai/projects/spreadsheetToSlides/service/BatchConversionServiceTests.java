@@ -0,0 +1,176 @@
+package com.ai.projects.spreadsheetToSlides.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"llm.client=stub", "llm.stub.latency=0", "llm.stub.jitter=0", "llm.cache.enabled=false"})
+class BatchConversionServiceTests {
+
+	private static final String CSV = "Region,Revenue\nNorth,100\nSouth,200\n";
+
+	@Autowired
+	private ConversionService conversionService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@TempDir
+	Path spoolDirectory;
+
+	private BatchConversionService batchConversionService;
+
+	@AfterEach
+	void shutDown() {
+		if (batchConversionService != null) {
+			batchConversionService.shutdown();
+		}
+	}
+
+	@Test
+	void zipsAreExpandedWithoutHiddenEntriesAndRepeatedNamesGetACounter() throws Exception {
+		Map<String, String> zipEntries = new LinkedHashMap<>();
+		zipEntries.put("North.csv", CSV);
+		zipEntries.put("reports/", null);
+		zipEntries.put("reports/North.csv", CSV);
+		zipEntries.put("__MACOSX/reports/._North.csv", "resource fork");
+		zipEntries.put("reports/.North.csv", CSV);
+		zipEntries.put("reports/notes.txt", "not a workbook");
+		List<MultipartFile> files = List.of(zip("regions.zip", zipEntries), csv("South.csv", CSV));
+
+		Map<String, byte[]> output;
+		try (BatchConversion batch = service(10, DataSize.ofMegabytes(1)).submit(files, "executives")) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			batch.writeTo(out);
+			output = unzip(out.toByteArray());
+		}
+
+		assertEquals(List.of("North.pptx", "North (2).pptx", "South.pptx", BatchConversion.MANIFEST).stream().sorted().toList(),
+				output.keySet().stream().sorted().toList());
+		for (String deck : List.of("North.pptx", "North (2).pptx", "South.pptx")) {
+			// Each deck is a pptx, which is a zip itself
+			assertEquals('P', output.get(deck)[0]);
+			assertEquals('K', output.get(deck)[1]);
+		}
+
+		JsonNode manifest = objectMapper.readTree(output.get(BatchConversion.MANIFEST));
+		assertEquals(3, manifest.get("succeeded").asInt());
+		assertEquals(0, manifest.get("failed").asInt());
+		List<String> decks = new ArrayList<>();
+		for (JsonNode entry : manifest.get("files")) {
+			decks.add(entry.get("file").asText() + " -> " + entry.get("deck").asText());
+			assertEquals("SUCCEEDED", entry.get("status").asText());
+			assertTrue(entry.get("slides").asInt() > 0, entry.toString());
+			assertTrue(!entry.has("resultFile"), entry.toString());
+		}
+		assertEquals(List.of("North.csv -> North.pptx", "North.csv -> North (2).pptx", "South.csv -> South.pptx"), decks);
+		assertEmpty(spoolDirectory);
+	}
+
+	@Test
+	void batchesOverTheFileCountAreRejectedWithoutLeavingFiles() throws Exception {
+		Map<String, String> zipEntries = new LinkedHashMap<>();
+		zipEntries.put("East.csv", CSV);
+		zipEntries.put("West.csv", CSV);
+		List<MultipartFile> files = List.of(csv("North.csv", CSV), csv("South.csv", CSV), zip("more.zip", zipEntries));
+
+		ResponseStatusException rejected = assertThrows(ResponseStatusException.class,
+				() -> service(3, DataSize.ofMegabytes(1)).submit(files, "executives"));
+		assertEquals(HttpStatus.BAD_REQUEST, rejected.getStatusCode());
+		assertEmpty(spoolDirectory);
+	}
+
+	@Test
+	void batchesOverTheTotalSizeAreRejectedWithoutLeavingFiles() throws Exception {
+		// Each workbook is within the limit on its own; the inflated zip entry takes the total over it
+		Map<String, String> zipEntries = new LinkedHashMap<>();
+		zipEntries.put("Large.csv", CSV.repeat(4));
+		List<MultipartFile> files = List.of(csv("North.csv", CSV), zip("large.zip", zipEntries));
+
+		assertThrows(MaxUploadSizeExceededException.class,
+				() -> service(10, DataSize.ofBytes(CSV.length() * 4L)).submit(files, "executives"));
+		assertEmpty(spoolDirectory);
+	}
+
+	@Test
+	void batchWithoutWorkbooksIsABadRequest() throws Exception {
+		Map<String, String> zipEntries = new LinkedHashMap<>();
+		zipEntries.put("__MACOSX/._North.csv", "resource fork");
+		zipEntries.put("readme.txt", "nothing to convert");
+
+		ResponseStatusException rejected = assertThrows(ResponseStatusException.class,
+				() -> service(10, DataSize.ofMegabytes(1)).submit(List.of(zip("empty.zip", zipEntries)), "executives"));
+		assertEquals(HttpStatus.BAD_REQUEST, rejected.getStatusCode());
+	}
+
+	// Every upload is spooled to disk, so leftovers show up in the spool directory
+	private BatchConversionService service(int maxFiles, DataSize maxTotalSize) {
+		UploadSpooler spooler = new UploadSpooler(DataSize.ofBytes(0), DataSize.ofMegabytes(1), spoolDirectory.toString());
+		batchConversionService = new BatchConversionService(conversionService, spooler, objectMapper, 2, 10, maxFiles, maxTotalSize);
+		return batchConversionService;
+	}
+
+	private static MockMultipartFile csv(String name, String content) {
+		return new MockMultipartFile("files", name, "text/csv", content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	// Entries with null content are directories
+	private static MockMultipartFile zip(String name, Map<String, String> entries) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ZipOutputStream zip = new ZipOutputStream(out)) {
+			for (Map.Entry<String, String> entry : entries.entrySet()) {
+				zip.putNextEntry(new ZipEntry(entry.getKey()));
+				if (entry.getValue() != null) {
+					zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+				}
+				zip.closeEntry();
+			}
+		}
+		return new MockMultipartFile("files", name, "application/zip", out.toByteArray());
+	}
+
+	private static Map<String, byte[]> unzip(byte[] bytes) throws Exception {
+		Map<String, byte[]> entries = new LinkedHashMap<>();
+		try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(bytes))) {
+			ZipEntry entry;
+			while ((entry = zip.getNextEntry()) != null) {
+				entries.put(entry.getName(), zip.readAllBytes());
+			}
+		}
+		return entries;
+	}
+
+	private static void assertEmpty(Path directory) throws Exception {
+		try (Stream<Path> files = Files.list(directory)) {
+			assertEquals(0, files.count());
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package com.ai.projects.spreadsheetToSlides.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UploadSpoolerTests {
+
+	private static final byte[] SMALL = "sixteen bytes...".getBytes(StandardCharsets.UTF_8);
+	private static final byte[] LARGE = "a workbook well over the sixteen-byte threshold".getBytes(StandardCharsets.UTF_8);
+
+	@TempDir
+	Path spoolDirectory;
+
+	@Test
+	void multipartUploadsAreKeptInMemoryUpToTheThresholdAndSpooledAbove() throws Exception {
+		UploadSpooler spooler = spooler(64);
+
+		try (SpooledUpload small = spooler.spool(new MockMultipartFile("file", "small.xlsx", null, SMALL))) {
+			assertNull(small.getFile());
+			assertEquals("small.xlsx", small.getFilename());
+			assertArrayEquals(SMALL, read(small));
+		}
+
+		SpooledUpload large = spooler.spool(new MockMultipartFile("file", "large.xlsx", null, LARGE));
+		Path file = large.getFile();
+		assertEquals(spoolDirectory, file.getParent());
+		assertEquals(LARGE.length, large.getSize());
+		assertArrayEquals(LARGE, read(large));
+
+		large.close();
+		assertFalse(Files.exists(file));
+	}
+
+	@Test
+	void streamsAreSpooledPastTheThresholdWithTheirHash() throws Exception {
+		UploadSpooler spooler = spooler(64);
+
+		try (SpooledUpload small = spooler.spool("small.xlsx", new ByteArrayInputStream(SMALL));
+			 SpooledUpload large = spooler.spool("large.xlsx", new ByteArrayInputStream(LARGE))) {
+			assertNull(small.getFile());
+			assertTrue(Files.exists(large.getFile()));
+			assertEquals(LARGE.length, large.getSize());
+			assertArrayEquals(LARGE, read(large));
+
+			// In memory the hash is computed on first use; spooling computes it while writing the file
+			assertEquals(sha256(SMALL), small.getContentHash());
+			assertEquals(sha256(LARGE), large.getContentHash());
+		}
+		assertEmpty(spoolDirectory);
+	}
+
+	@Test
+	void fileBackedHashIsComputedLazilyFromTheFile() throws Exception {
+		try (SpooledUpload upload = spooler(64).spool(new MockMultipartFile("file", "large.xlsx", null, LARGE))) {
+			String hash = upload.getContentHash();
+			assertEquals(sha256(LARGE), hash);
+			// Computed once: the file is not read again
+			Files.write(upload.getFile(), SMALL);
+			assertEquals(hash, upload.getContentHash());
+		}
+	}
+
+	@Test
+	void uploadsOverTheMaximumAreRejectedWithoutLeavingFiles() throws Exception {
+		UploadSpooler spooler = spooler(32);
+
+		assertThrows(MaxUploadSizeExceededException.class,
+				() -> spooler.spool(new MockMultipartFile("file", "large.xlsx", null, LARGE)));
+		assertThrows(MaxUploadSizeExceededException.class,
+				() -> spooler.spool("large.xlsx", new ByteArrayInputStream(LARGE)));
+		assertEmpty(spoolDirectory);
+	}
+
+	// A 16-byte threshold sends everything longer than SMALL to disk
+	private UploadSpooler spooler(long maxBytes) {
+		return new UploadSpooler(DataSize.ofBytes(16), DataSize.ofBytes(maxBytes), spoolDirectory.toString());
+	}
+
+	private static byte[] read(SpooledUpload upload) throws Exception {
+		try (InputStream in = upload.getInputStream()) {
+			return in.readAllBytes();
+		}
+	}
+
+	private static String sha256(byte[] bytes) throws Exception {
+		return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+	}
+
+	private static void assertEmpty(Path directory) throws Exception {
+		try (Stream<Path> files = Files.list(directory)) {
+			assertEquals(0, files.count());
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package com.ai.projects.spreadsheetToSlides.service.aggregate;
+
+import com.ai.projects.spreadsheetToSlides.model.CellKind;
+import com.ai.projects.spreadsheetToSlides.model.ColumnData;
+import com.ai.projects.spreadsheetToSlides.model.SheetData;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GroupByAggregatorTests {
+
+	// Excel serial of a date in the 1900 date system
+	private static double serial(String date) {
+		return LocalDate.parse(date).toEpochDay() + 25569;
+	}
+
+	private static SheetData sales() {
+		SheetData sheet = new SheetData("Sales", Arrays.asList("Date", "Region", "Revenue"), false);
+		Object[][] rows = {
+				{"2024-03-30", "South", 10.0},
+				{"2024-01-15", "North", 4.0},
+				{"2024-01-20", "South", 6.0},
+				{"2024-03-01", "North", null},
+				{"2024-01-31", "North", 8.0},
+				{null, "", 100.0},
+		};
+		for (Object[] row : rows) {
+			List<ColumnData> columns = sheet.getColumns();
+			if (row[0] == null) columns.get(0).appendMissing();
+			else columns.get(0).appendNumber(CellKind.DATE, serial((String) row[0]));
+			columns.get(1).appendText(CellKind.STRING, (String) row[1]);
+			if (row[2] == null) columns.get(2).appendMissing();
+			else columns.get(2).appendNumber(CellKind.NUMERIC, (Double) row[2]);
+			sheet.completeRow();
+		}
+		return sheet;
+	}
+
+	@Test
+	void groupsByRegionAndMonth() {
+		SheetData sheet = sales();
+		List<ColumnData> columns = sheet.getColumns();
+		GroupedTable table = GroupByAggregator.aggregate(
+				List.of(GroupKey.text(columns.get(1)), GroupKey.time(columns.get(0), TimeBucket.MONTH, false)),
+				columns.get(2), sheet.getRowCount());
+
+		assertEquals(Arrays.asList("South / 2024-01", "South / 2024-03", "North / 2024-01", "North / 2024-03"), table.getLabels());
+		assertArrayEquals(new double[]{6, 10, 12, 0}, table.getValues(Aggregation.SUM));
+		assertArrayEquals(new double[]{1, 1, 2, 0}, table.getValues(Aggregation.COUNT));
+		assertEquals(6.0, table.getValue(2, Aggregation.AVG));
+		assertEquals(4.0, table.getValue(2, Aggregation.MIN));
+		assertEquals(8.0, table.getValue(2, Aggregation.MAX));
+		assertTrue(Double.isNaN(table.getValue(3, Aggregation.AVG)));
+	}
+
+	@Test
+	void chartSeriesPrefersTextThenBucketedDates() {
+		SheetData sheet = sales();
+		GroupedTable byRegion = GroupByAggregator.chartSeries(sheet);
+		assertEquals(Arrays.asList("South", "North"), byRegion.getLabels());
+		assertArrayEquals(new double[]{16, 12}, byRegion.getValues(Aggregation.SUM));
+
+		SheetData dated = new SheetData("Daily", Arrays.asList("Date", "Units"), false);
+		for (int day = 0; day < 400; day++) {
+			dated.getColumns().get(0).appendNumber(CellKind.DATE, serial("2023-12-31") - day);
+			dated.getColumns().get(1).appendNumber(CellKind.NUMERIC, 1);
+			dated.completeRow();
+		}
+		GroupedTable byMonth = GroupByAggregator.chartSeries(dated);
+		assertEquals(14, byMonth.size());
+		assertEquals("2022-11", byMonth.getLabel(0));
+		assertEquals("2023-12", byMonth.getLabel(13));
+		assertEquals(400.0, Arrays.stream(byMonth.getValues(Aggregation.SUM)).sum());
+	}
+
+	@Test
+	void weeksStartOnMonday() {
+		long tuesday = LocalDate.parse("2024-03-05").toEpochDay();
+		assertEquals("2024-03-04", TimeBucket.WEEK.label(TimeBucket.WEEK.bucket(tuesday)));
+		assertEquals("2024-03-04", TimeBucket.WEEK.label(TimeBucket.WEEK.bucket(tuesday - 1)));
+		assertEquals("2024-02-26", TimeBucket.WEEK.label(TimeBucket.WEEK.bucket(tuesday - 2)));
+		assertEquals("2024-Q1", TimeBucket.QUARTER.label(TimeBucket.QUARTER.bucket(tuesday)));
+	}
+}
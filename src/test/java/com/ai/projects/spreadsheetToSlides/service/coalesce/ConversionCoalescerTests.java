@@ -0,0 +1,99 @@
+package com.ai.projects.spreadsheetToSlides.service.coalesce;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConversionCoalescerTests {
+
+	private final ConversionCoalescer coalescer = new ConversionCoalescer(true, Duration.ofMinutes(10), DataSize.ofKilobytes(1),
+			new SimpleMeterRegistry());
+
+	@Test
+	void concurrentIdenticalRequestsShareOneConversion() throws Exception {
+		AtomicInteger conversions = new AtomicInteger();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<byte[]> leader = executor.submit(() -> coalescer.execute("deck", null, () -> {
+				conversions.incrementAndGet();
+				started.countDown();
+				release.await();
+				return new byte[] {1, 2, 3};
+			}));
+			started.await(5, TimeUnit.SECONDS);
+			Future<byte[]> follower = executor.submit(() -> coalescer.execute("deck", null, () -> {
+				conversions.incrementAndGet();
+				return new byte[0];
+			}));
+			while (coalescer.getCoalesced() < 1) {
+				Thread.sleep(1);
+			}
+			release.countDown();
+
+			assertSame(leader.get(5, TimeUnit.SECONDS), follower.get(5, TimeUnit.SECONDS));
+			assertEquals(1, conversions.get());
+		} finally {
+			executor.shutdownNow();
+		}
+
+		// Once the flight has landed the next request converts again
+		coalescer.execute("deck", null, () -> new byte[] {(byte) conversions.incrementAndGet()});
+		assertEquals(2, conversions.get());
+	}
+
+	@Test
+	void idempotencyKeyReplaysTheDeckAndRejectsOtherRequests() throws Exception {
+		AtomicInteger conversions = new AtomicInteger();
+		byte[] deck = coalescer.execute("deck", "retry-1", () -> new byte[] {(byte) conversions.incrementAndGet()});
+
+		assertSame(deck, coalescer.execute("deck", "retry-1", () -> new byte[] {(byte) conversions.incrementAndGet()}));
+		assertEquals(1, conversions.get());
+		assertEquals(1, coalescer.getReplayed());
+		assertEquals(1, coalescer.getRetainedBytes());
+
+		ResponseStatusException reused = assertThrows(ResponseStatusException.class,
+				() -> coalescer.execute("other deck", "retry-1", () -> new byte[0]));
+		assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, reused.getStatusCode());
+	}
+
+	@Test
+	void byDefaultOnlyRequestsWithAnIdempotencyKeyAreCoalesced() throws Exception {
+		ConversionCoalescer keyedOnly = new ConversionCoalescer(false, Duration.ofMinutes(10), DataSize.ofKilobytes(1),
+				new SimpleMeterRegistry());
+
+		// Everything else streams its own deck
+		assertFalse(keyedOnly.applies(null));
+		assertTrue(keyedOnly.applies("retry-3"));
+
+		AtomicInteger conversions = new AtomicInteger();
+		byte[] deck = keyedOnly.execute("deck", "retry-3", () -> new byte[] {(byte) conversions.incrementAndGet()});
+		assertSame(deck, keyedOnly.execute("deck", "retry-3", () -> new byte[] {(byte) conversions.incrementAndGet()}));
+		assertEquals(1, conversions.get());
+	}
+
+	@Test
+	void failuresAreNotRetained() throws Exception {
+		assertThrows(IllegalStateException.class, () -> coalescer.execute("deck", "retry-2", () -> {
+			throw new IllegalStateException("LLM unavailable");
+		}));
+		assertEquals(2, coalescer.execute("deck", "retry-2", () -> new byte[] {1, 2}).length);
+	}
+}
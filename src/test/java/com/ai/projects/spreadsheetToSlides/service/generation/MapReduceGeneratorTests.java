@@ -0,0 +1,64 @@
+package com.ai.projects.spreadsheetToSlides.service.generation;
+
+import com.ai.projects.spreadsheetToSlides.model.SlideData;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MapReduceGeneratorTests {
+
+	@Test
+	void mapKeepsPromptOrderAndParallelismLimit() {
+		MapReduceGenerator generator = new MapReduceGenerator(true, 4, 2, 3, "deterministic");
+		AtomicInteger inFlight = new AtomicInteger();
+		AtomicInteger maxInFlight = new AtomicInteger();
+
+		List<String> prompts = List.of("a", "b", "c", "d", "e", "f");
+		List<String> results = generator.map(prompts, prompt -> Mono.defer(() -> {
+					maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+					// Later prompts finish first
+					return Mono.delay(Duration.ofMillis(60 - prompts.indexOf(prompt) * 10)).thenReturn(prompt.toUpperCase());
+				}).doOnSuccess(result -> inFlight.decrementAndGet()))
+				.collectList().block();
+
+		assertEquals(List.of("A", "B", "C", "D", "E", "F"), results);
+		assertEquals(3, maxInFlight.get());
+	}
+
+	@Test
+	void partitionAndApplies() {
+		MapReduceGenerator generator = new MapReduceGenerator(true, 4, 2, 4, "deterministic");
+		assertFalse(generator.applies(3));
+		assertTrue(generator.applies(4));
+		assertEquals(List.of(List.of(1, 2), List.of(3, 4), List.of(5)), generator.partition(List.of(1, 2, 3, 4, 5)));
+	}
+
+	@Test
+	void llmReduceFallsBackToDeterministicOverview() {
+		MapReduceGenerator generator = new MapReduceGenerator(true, 4, 2, 4, "llm");
+		List<List<SlideData>> outlines = List.of(List.of(slide("Sales up"), slide("Regions")), List.of(slide("Costs")));
+
+		SlideData fromLlm = generator.reduce(List.of("Sales", "Costs"), outlines,
+				prompt -> Mono.just("## Agenda\n- Sales\n- Costs")).block();
+		assertEquals("Agenda", fromLlm.getTitle());
+
+		SlideData fallback = generator.reduce(List.of("Sales", "Costs"), outlines,
+				prompt -> Mono.error(new IllegalStateException("down"))).block();
+		assertEquals("Overview", fallback.getTitle());
+		assertEquals(List.of("Sales: Sales up; Regions", "Costs: Costs"), fallback.getContent());
+	}
+
+	private static SlideData slide(String title) {
+		SlideData slide = new SlideData();
+		slide.setTitle(title);
+		slide.setContent(List.of("content"));
+		return slide;
+	}
+}
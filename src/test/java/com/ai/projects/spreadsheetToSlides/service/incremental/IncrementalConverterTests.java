@@ -0,0 +1,141 @@
+package com.ai.projects.spreadsheetToSlides.service.incremental;
+
+import com.ai.projects.spreadsheetToSlides.model.SlideData;
+import com.ai.projects.spreadsheetToSlides.service.SpooledUpload;
+import com.ai.projects.spreadsheetToSlides.service.UploadSpooler;
+import com.ai.projects.spreadsheetToSlides.service.generation.MapReduceGenerator;
+import com.ai.projects.spreadsheetToSlides.service.metrics.ConversionMetrics;
+import com.ai.projects.spreadsheetToSlides.service.metrics.ConversionRecorder;
+import com.ai.projects.spreadsheetToSlides.service.parser.SpreadsheetReader;
+import com.ai.projects.spreadsheetToSlides.service.pipeline.StageExecutors;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class IncrementalConverterTests {
+
+	private final UploadSpooler spooler = new UploadSpooler(DataSize.ofMegabytes(1), DataSize.ofMegabytes(10), System.getProperty("java.io.tmpdir"));
+	private final WorkbookFingerprinter fingerprinter = new WorkbookFingerprinter(new SpreadsheetReader());
+	private final StageExecutors executors = new StageExecutors("", "", Duration.ofSeconds(30), new SimpleMeterRegistry());
+
+	@AfterEach
+	void shutDown() {
+		executors.shutdown();
+	}
+
+	@Test
+	void onlyEditedSheetsChangeTheirFingerprint() throws Exception {
+		Map<String, String> original = fingerprint(workbook(edit -> { }));
+		// A new string is added to the shared strings table, which shifts nothing the other sheets reference
+		Map<String, String> textEdited = fingerprint(workbook(edit -> edit.getSheet("East").getRow(2).getCell(0).setCellValue("Far East")));
+		Map<String, String> numberEdited = fingerprint(workbook(edit -> edit.getSheet("North").getRow(1).getCell(1).setCellValue(999)));
+
+		assertEquals(List.of("North", "South", "East"), new ArrayList<>(original.keySet()));
+		assertEquals(original.get("North"), textEdited.get("North"));
+		assertEquals(original.get("South"), textEdited.get("South"));
+		assertNotEquals(original.get("East"), textEdited.get("East"));
+		assertNotEquals(original.get("North"), numberEdited.get("North"));
+		assertEquals(original.get("South"), numberEdited.get("South"));
+		assertEquals(original.get("East"), numberEdited.get("East"));
+	}
+
+	@Test
+	void reconvertsOnlyChangedSheets() throws Exception {
+		IncrementalConverter converter = new IncrementalConverter(fingerprinter, new MapReduceGenerator(false, 4, 2, 4, "deterministic"),
+				executors, true, 10, DataSize.ofMegabytes(1));
+		List<String> parsed = new ArrayList<>();
+		List<String> prompted = new ArrayList<>();
+
+		List<ConvertedSheet<String>> first = convert(converter, "generation", workbook(edit -> { }), parsed, prompted);
+		assertEquals(List.of("North", "South", "East"), parsed);
+		assertEquals(3, prompted.size());
+
+		parsed.clear();
+		prompted.clear();
+		List<ConvertedSheet<String>> second = convert(converter, "generation",
+				workbook(edit -> edit.getSheet("South").getRow(1).getCell(1).setCellValue(1)), parsed, prompted);
+		assertEquals(List.of("South"), parsed);
+		assertEquals(List.of("prompt South"), prompted);
+		assertEquals(List.of("North", "South", "East"), second.stream().map(ConvertedSheet::getSheetName).collect(Collectors.toList()));
+		assertSame(first.get(0).getOutline(), second.get(0).getOutline());
+		assertEquals(List.of(true, false, true), second.stream().map(ConvertedSheet::isReused).collect(Collectors.toList()));
+
+		// Other instructions or another model cannot reuse the slides
+		parsed.clear();
+		convert(converter, "other generation", workbook(edit -> { }), parsed, prompted);
+		assertEquals(3, parsed.size());
+		assertEquals(1, converter.size());
+	}
+
+	private List<ConvertedSheet<String>> convert(IncrementalConverter converter, String generationKey, byte[] workbook,
+												 List<String> parsed, List<String> prompted) throws Exception {
+		try (SpooledUpload upload = spooler.spool("Regions.xlsx", new ByteArrayInputStream(workbook));
+			 ConversionRecorder recorder = ConversionMetrics.disabled().start("test")) {
+			return converter.convert("regions", generationKey, upload,
+					sheetNames -> {
+						Map<String, String> models = new LinkedHashMap<>();
+						sheetNames.forEach(sheetName -> models.put(sheetName, sheetName));
+						parsed.addAll(sheetNames);
+						return models;
+					},
+					model -> 100,
+					model -> "prompt " + model,
+					prompt -> {
+						prompted.add(prompt);
+						return Mono.just(prompt);
+					},
+					response -> {
+						SlideData slide = new SlideData();
+						slide.setTitle(response);
+						return List.of(slide);
+					},
+					recorder).block();
+		}
+	}
+
+	private Map<String, String> fingerprint(byte[] workbook) throws Exception {
+		try (SpooledUpload upload = spooler.spool("Regions.xlsx", new ByteArrayInputStream(workbook))) {
+			return fingerprinter.fingerprint(upload);
+		}
+	}
+
+	// Three sheets sharing some strings, so the shared strings table is common to all of them
+	private static byte[] workbook(Consumer<XSSFWorkbook> edit) throws Exception {
+		try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+			for (String region : List.of("North", "South", "East")) {
+				Sheet sheet = workbook.createSheet(region);
+				Row header = sheet.createRow(0);
+				header.createCell(0).setCellValue("Product");
+				header.createCell(1).setCellValue("Revenue");
+				for (int i = 1; i <= 3; i++) {
+					Row row = sheet.createRow(i);
+					row.createCell(0).setCellValue(region + " product " + i);
+					row.createCell(1).setCellValue(i * 10.5);
+				}
+			}
+			edit.accept(workbook);
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			workbook.write(out);
+			return out.toByteArray();
+		}
+	}
+}
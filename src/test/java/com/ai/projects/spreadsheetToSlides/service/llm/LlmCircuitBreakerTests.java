@@ -0,0 +1,71 @@
+package com.ai.projects.spreadsheetToSlides.service.llm;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LlmCircuitBreakerTests {
+
+	@Test
+	void opensOnFailureRateAndClosesAfterSuccessfulTrial() throws Exception {
+		LlmCircuitBreaker breaker = new LlmCircuitBreaker(0.5, 4, Duration.ofMillis(50), new SimpleMeterRegistry());
+
+		for (int i = 0; i < 2; i++) {
+			breaker.protect(Mono.just("ok")).block();
+			assertThrows(WebClientResponseException.class, () -> breaker.protect(Mono.error(status(503))).block());
+		}
+		assertEquals(LlmCircuitBreaker.State.OPEN, breaker.getState());
+		assertThrows(LlmUnavailableException.class, () -> breaker.protect(Mono.just("ok")).block());
+
+		Thread.sleep(60);
+		assertEquals("ok", breaker.protect(Mono.just("ok")).block());
+		assertEquals(LlmCircuitBreaker.State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	void clientErrorsDoNotOpenTheCircuit() {
+		LlmCircuitBreaker breaker = new LlmCircuitBreaker(0.5, 4, Duration.ofSeconds(30), new SimpleMeterRegistry());
+
+		for (int i = 0; i < 4; i++) {
+			assertThrows(WebClientResponseException.class, () -> breaker.protect(Mono.error(status(400))).block());
+		}
+		assertEquals(LlmCircuitBreaker.State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	void finishedStreamsCountAsSuccesses() throws Exception {
+		LlmCircuitBreaker breaker = new LlmCircuitBreaker(0.5, 4, Duration.ofMillis(50), new SimpleMeterRegistry());
+		LlmScheduler scheduler = new LlmScheduler(4, 0, 16, 16, "", new SimpleMeterRegistry());
+		StubLlmClient client = new StubLlmClient(breaker, scheduler, "stub", 100, Duration.ZERO, Duration.ZERO, 0, 2, 16);
+
+		// Spread-out failures among successful streams stay under the failure rate
+		for (int i = 0; i < 4; i++) {
+			for (int j = 0; j < 3; j++) {
+				assertFalse(String.join("", client.stream("prompt").collectList().block()).contains("[DONE]"));
+			}
+			assertThrows(WebClientResponseException.class, () -> breaker.protect(Mono.error(status(503))).block());
+		}
+		assertEquals(LlmCircuitBreaker.State.CLOSED, breaker.getState());
+
+		// Two failures in a row reach half of the last four calls
+		assertThrows(WebClientResponseException.class, () -> breaker.protect(Mono.error(status(503))).block());
+		assertEquals(LlmCircuitBreaker.State.OPEN, breaker.getState());
+
+		// A successful trial stream closes the circuit again
+		Thread.sleep(60);
+		client.stream("prompt").blockLast();
+		assertEquals(LlmCircuitBreaker.State.CLOSED, breaker.getState());
+	}
+
+	private static WebClientResponseException status(int code) {
+		return WebClientResponseException.create(code, "status " + code, HttpHeaders.EMPTY, new byte[0], null);
+	}
+}
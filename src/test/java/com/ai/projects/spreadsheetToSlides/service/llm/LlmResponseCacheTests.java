@@ -0,0 +1,92 @@
+package com.ai.projects.spreadsheetToSlides.service.llm;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LlmResponseCacheTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void answersFromMemoryThenFromDiskAfterRestart() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		LlmResponseCache cache = cache(10, Duration.ofHours(1), DataSize.ofMegabytes(1), registry);
+		String key = cache.key("model", "prompt", Map.of("max_tokens", 100));
+
+		assertNull(cache.get(key));
+		cache.put(key, "slides");
+		assertEquals("slides", cache.get(key));
+		assertEquals(1, cache.getMemoryHits());
+		assertEquals(1, cache.getMisses());
+
+		// A new instance over the same directory, as after a restart
+		LlmResponseCache restarted = cache(10, Duration.ofHours(1), DataSize.ofMegabytes(1), new SimpleMeterRegistry());
+		assertEquals("slides", restarted.get(key));
+		assertEquals("slides", restarted.get(key));
+		assertEquals(1, restarted.getDiskHits());
+		assertEquals(1, restarted.getMemoryHits());
+
+		assertEquals(1.0, registry.get("llm.cache.hits").tag("tier", "memory").functionCounter().count());
+		assertEquals(1.0, registry.get("llm.cache.misses").functionCounter().count());
+		assertEquals(1.0, registry.get("llm.cache.entries").gauge().value());
+	}
+
+	@Test
+	void expiredEntriesAreMissesAndSweptFromDisk() throws Exception {
+		LlmResponseCache cache = cache(10, Duration.ofMillis(50), DataSize.ofMegabytes(1), new SimpleMeterRegistry());
+		cache.put("a", "first");
+		cache.put("b", "second");
+		Thread.sleep(60);
+
+		assertNull(cache.get("a"));
+		assertFalse(Files.exists(directory.resolve("a")));
+
+		// Never read again, so only the sweep removes it
+		assertTrue(Files.exists(directory.resolve("b")));
+		cache.sweepDisk();
+		assertFalse(Files.exists(directory.resolve("b")));
+		assertEquals(0, cache.getDiskBytes());
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedInMemoryAndOldestOnDisk() throws Exception {
+		LlmResponseCache cache = cache(2, Duration.ofHours(1), DataSize.ofBytes(100), new SimpleMeterRegistry());
+		String value = "x".repeat(40);
+		cache.put("a", value);
+		Thread.sleep(10);
+		cache.put("b", value);
+		cache.get("a");
+		Thread.sleep(10);
+		cache.put("c", value);
+
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictions());
+
+		// 120 bytes on disk is over the limit: the oldest file goes, leaving 80
+		assertFalse(Files.exists(directory.resolve("a")));
+		assertTrue(Files.exists(directory.resolve("b")));
+		assertTrue(Files.exists(directory.resolve("c")));
+		assertEquals(1, cache.getDiskEvictions());
+		assertEquals(80, cache.getDiskBytes());
+
+		// Still in memory although its file is gone
+		assertEquals(value, cache.get("a"));
+	}
+
+	private LlmResponseCache cache(int maxEntries, Duration ttl, DataSize diskMaxSize, SimpleMeterRegistry registry) {
+		return new LlmResponseCache(true, maxEntries, ttl, true, directory.toString(), diskMaxSize, registry);
+	}
+}
@@ -0,0 +1,96 @@
+package com.ai.projects.spreadsheetToSlides.service.llm;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LlmSchedulerTests {
+
+	private final List<String> started = new ArrayList<>();
+	private final Map<String, Sinks.Empty<Void>> running = new HashMap<>();
+
+	@Test
+	void lightTenantIsNotStuckBehindHeavyTenant() {
+		LlmScheduler scheduler = scheduler(1, 0, 100, 100, "light=2", new AtomicLong());
+		for (int i = 1; i <= 5; i++) {
+			call(scheduler, "heavy", "heavy-" + i, 12);
+		}
+		call(scheduler, "light", "light-1", 10);
+		call(scheduler, "light", "light-2", 10);
+
+		// heavy-1 took the free slot; the rest run one at a time as each call finishes
+		while (started.size() < 7) {
+			finish(started.get(started.size() - 1));
+		}
+		assertEquals(List.of("heavy-1", "light-1", "light-2", "heavy-2", "heavy-3", "heavy-4", "heavy-5"), started);
+	}
+
+	@Test
+	void waitsForTheTokenBudgetToRefill() {
+		AtomicLong clock = new AtomicLong();
+		LlmScheduler scheduler = scheduler(10, 1000, 100, 100, "", clock);
+		call(scheduler, "a", "first", 600);
+		call(scheduler, "a", "second", 600);
+		assertEquals(List.of("first"), started);
+
+		// 1000 tokens a minute: the missing 200 take 12 seconds
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(11));
+		scheduler.dispatch();
+		assertEquals(List.of("first"), started);
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+		scheduler.dispatch();
+		assertEquals(List.of("first", "second"), started);
+	}
+
+	@Test
+	void rejectsWhenTheTenantQueueIsFull() {
+		LlmScheduler scheduler = scheduler(1, 6000, 100, 1, "", new AtomicLong());
+		call(scheduler, "a", "running", 100);
+		call(scheduler, "a", "queued", 100);
+		AtomicReference<Throwable> rejection = new AtomicReference<>();
+		scheduler.limit(Mono.just("never called"), 100)
+				.contextWrite(LlmScheduler.forTenant("a"))
+				.subscribe(result -> started.add(result), rejection::set);
+
+		LlmOverloadedException overloaded = assertInstanceOf(LlmOverloadedException.class, rejection.get());
+		assertTrue(overloaded.getRetryAfter().toSeconds() >= 1);
+		assertEquals(List.of("running"), started);
+		assertThrows(LlmOverloadedException.class, () -> scheduler.checkAdmission("a"));
+		scheduler.checkAdmission("b");
+	}
+
+	private static LlmScheduler scheduler(int maxConcurrent, long tokensPerMinute, int maxQueued, int maxQueuedPerTenant,
+										  String weights, AtomicLong clock) {
+		return new LlmScheduler(maxConcurrent, tokensPerMinute, maxQueued, maxQueuedPerTenant, weights,
+				new SimpleMeterRegistry(), clock::get, Schedulers.single());
+	}
+
+	// A call that stays in flight until finish(name)
+	private void call(LlmScheduler scheduler, String tenant, String name, long cost) {
+		Sinks.Empty<Void> done = Sinks.empty();
+		running.put(name, done);
+		scheduler.limit(Mono.defer(() -> {
+			started.add(name);
+			return done.asMono();
+		}), cost).contextWrite(LlmScheduler.forTenant(tenant)).subscribe();
+	}
+
+	private void finish(String name) {
+		running.get(name).tryEmitEmpty();
+	}
+}
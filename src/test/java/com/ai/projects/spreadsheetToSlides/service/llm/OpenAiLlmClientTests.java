@@ -0,0 +1,137 @@
+package com.ai.projects.spreadsheetToSlides.service.llm;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OpenAiLlmClientTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final AtomicInteger calls = new AtomicInteger();
+
+	@Test
+	void throttlingAndServerErrorsAreRetriedButBadRequestsAreNot() {
+		OpenAiLlmClient client = client(call -> call == 0 ? error(HttpStatus.TOO_MANY_REQUESTS)
+				: call == 1 ? error(HttpStatus.SERVICE_UNAVAILABLE) : completion("slides"), scheduler(4), false);
+		assertEquals("slides", client.complete("prompt").block());
+		assertEquals(3, calls.get());
+		assertEquals(2.0, registry.get("llm.client.retries").counter().count());
+
+		calls.set(0);
+		OpenAiLlmClient rejecting = client(call -> error(HttpStatus.BAD_REQUEST), scheduler(4), false);
+		assertThrows(WebClientResponseException.BadRequest.class, () -> rejecting.complete("prompt").block());
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	void slowCallIsHedgedOnceItHasBeenUpstreamPastTheDelay() {
+		// The 21st call hangs; its hedge, sent 50ms later, answers at once
+		OpenAiLlmClient client = client(call -> call == 20 ? Mono.delay(Duration.ofSeconds(5)).then(completion("slow"))
+				: completion("fast"), scheduler(4), true);
+		warmUp(client);
+
+		assertEquals("fast", client.complete("prompt").block(Duration.ofSeconds(2)));
+		assertEquals(22, calls.get());
+		assertEquals(1.0, registry.get("llm.client.hedges").counter().count());
+	}
+
+	@Test
+	void callsWaitingForASchedulerSlotAreNotHedged() {
+		LlmScheduler scheduler = scheduler(1);
+		OpenAiLlmClient client = client(call -> completion("fast"), scheduler, true);
+		warmUp(client);
+
+		// Holds the only slot for well past the 50ms hedge delay
+		scheduler.limit(Mono.delay(Duration.ofMillis(300)), 1).subscribe();
+		assertEquals("fast", client.complete("prompt").block(Duration.ofSeconds(2)));
+		assertEquals(21, calls.get());
+		assertEquals(0.0, registry.get("llm.client.hedges").counter().count());
+	}
+
+	@Test
+	void failedCallIsNotHedged() {
+		OpenAiLlmClient client = client(call -> call < 20 ? completion("fast") : error(HttpStatus.BAD_REQUEST), scheduler(4), true);
+		warmUp(client);
+
+		assertThrows(WebClientResponseException.BadRequest.class, () -> client.complete("prompt").block(Duration.ofSeconds(2)));
+		assertEquals(21, calls.get());
+		assertEquals(0.0, registry.get("llm.client.hedges").counter().count());
+	}
+
+	@Test
+	void streamThatOutlastsTheOverallTimeoutFailsWithoutBeingRetried() {
+		OpenAiLlmClient client = client(call -> Mono.just(ClientResponse.create(HttpStatus.OK)
+				.header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_EVENT_STREAM_VALUE)
+				.body(Flux.concat(Flux.just(buffer("data: {\"choices\":[{\"delta\":{\"content\":\"Title\"}}]}\n\n")), Flux.never()))
+				.build()), scheduler(4), false);
+
+		List<String> deltas = new ArrayList<>();
+		RuntimeException error = assertThrows(RuntimeException.class,
+				() -> client.stream("prompt").doOnNext(deltas::add).blockLast(Duration.ofSeconds(5)));
+		assertInstanceOf(TimeoutException.class, Exceptions.unwrap(error));
+		assertEquals(List.of("Title"), deltas);
+		assertEquals(1, calls.get());
+	}
+
+	// Twenty quick calls, enough for the latency percentile, so the hedge delay is its 50ms minimum
+	private void warmUp(OpenAiLlmClient client) {
+		for (int i = 0; i < 20; i++) {
+			client.complete("prompt").block();
+		}
+	}
+
+	// Responses by call number, from 0. Without hedging the overall timeout is a short 2s, for the stream test
+	private OpenAiLlmClient client(IntFunction<Mono<ClientResponse>> responses, LlmScheduler scheduler, boolean hedge) {
+		ExchangeFunction exchange = request -> Mono.defer(() -> responses.apply(calls.getAndIncrement()));
+		return new OpenAiLlmClient(WebClient.builder().exchangeFunction(exchange).build(),
+				new LlmCircuitBreaker(0.9, 100, Duration.ofSeconds(30), registry), scheduler, registry, new ObjectMapper(),
+				"model", 100, Duration.ofSeconds(hedge ? 10 : 2), 3,
+				Duration.ofMillis(1), Duration.ofMillis(5), hedge, Duration.ofMillis(50));
+	}
+
+	private LlmScheduler scheduler(int maxConcurrent) {
+		return new LlmScheduler(maxConcurrent, 0, 16, 16, "", registry);
+	}
+
+	private static Mono<ClientResponse> completion(String content) {
+		return Mono.just(ClientResponse.create(HttpStatus.OK)
+				.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+				.body("{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"" + content + "\"}}]}")
+				.build());
+	}
+
+	private static Mono<ClientResponse> error(HttpStatus status) {
+		return Mono.just(ClientResponse.create(status)
+				.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+				.body("{\"error\":{}}")
+				.build());
+	}
+
+	private static DataBuffer buffer(String text) {
+		return DefaultDataBufferFactory.sharedInstance.wrap(text.getBytes(StandardCharsets.UTF_8));
+	}
+}
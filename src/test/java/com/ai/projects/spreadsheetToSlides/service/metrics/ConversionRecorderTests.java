@@ -0,0 +1,83 @@
+package com.ai.projects.spreadsheetToSlides.service.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConversionRecorderTests {
+
+	@Test
+	void stagesBecomeTimersTaggedByFlowAndStage() throws Exception {
+		MeterRegistry meters = new SimpleMeterRegistry();
+		ObservationRegistry observations = ObservationRegistry.create();
+		observations.observationConfig().observationHandler(new DefaultMeterObservationHandler(meters));
+		ConversionMetrics metrics = new ConversionMetrics(meters, observations, true);
+
+		try (ConversionRecorder recorder = metrics.start("audience")) {
+			assertEquals("parsed", recorder.observe(ConversionRecorder.PARSE, () -> "parsed"));
+			recorder.recordParse(2, 100, 400);
+			recorder.recordPrompt("12345678");
+			assertEquals("reply", recorder.observe(ConversionRecorder.LLM, Mono.just("reply")).block());
+			recorder.recordLlm("ok", "reply");
+			assertThrows(IllegalStateException.class, () -> recorder.observe(ConversionRecorder.RENDER, () -> {
+				throw new IllegalStateException("boom");
+			}));
+		}
+
+		assertEquals(1, meters.get("conversion.stage").tags("flow", "audience", "stage", "parse").timer().count());
+		assertEquals(1, meters.get("conversion.stage").tags("stage", "llm").timer().count());
+		assertEquals(1, meters.get("conversion.stage").tags("stage", "render", "error", "IllegalStateException").timer().count());
+		assertEquals(1, meters.get("conversion").tags("flow", "audience").timer().count());
+		assertEquals(400, meters.get("conversion.parse.cells").summary().totalAmount());
+		assertNotNull(meters.find("conversion.parse.rows.per.second").summary());
+		assertEquals(2, meters.get("conversion.prompt.tokens").summary().totalAmount());
+		assertEquals(1, meters.get("conversion.llm.calls").tags("status", "ok").counter().count());
+	}
+
+	@Test
+	void parseCacheHitsAreTaggedAndDeriveNoParseRates() throws Exception {
+		MeterRegistry meters = new SimpleMeterRegistry();
+		ObservationRegistry observations = ObservationRegistry.create();
+		observations.observationConfig().observationHandler(new DefaultMeterObservationHandler(meters));
+		ConversionMetrics metrics = new ConversionMetrics(meters, observations, true);
+
+		try (ConversionRecorder recorder = metrics.start("audience")) {
+			recorder.observe(ConversionRecorder.PARSE, () -> {
+				recorder.recordParseCacheHit();
+				return "cached";
+			});
+			recorder.recordParse(2, 100, 400);
+			recorder.observe(ConversionRecorder.RENDER, () -> "rendered");
+		}
+		try (ConversionRecorder recorder = metrics.start("audience")) {
+			recorder.observe(ConversionRecorder.PARSE, () -> "parsed");
+			recorder.recordParse(2, 100, 400);
+		}
+
+		assertEquals(1, meters.get("conversion.stage").tags("stage", "parse", "cache", "hit").timer().count());
+		assertEquals(1, meters.get("conversion.stage").tags("stage", "parse", "cache", "miss").timer().count());
+		assertEquals(1, meters.get("conversion.stage").tags("stage", "render", "cache", "none").timer().count());
+		// Sizes count both conversions, rates only the one that parsed
+		assertEquals(800, meters.get("conversion.parse.cells").summary().totalAmount());
+		assertEquals(1, meters.get("conversion.parse.cells.per.second").summary().count());
+		assertEquals(1, meters.get("conversion.parse.rows.per.second").summary().count());
+	}
+
+	@Test
+	void disabledMetricsRecordNothing() throws Exception {
+		ConversionMetrics metrics = ConversionMetrics.disabled();
+		try (ConversionRecorder recorder = metrics.start("charts")) {
+			recorder.observe(ConversionRecorder.PARSE, () -> null);
+			recorder.recordSlides(3);
+		}
+		assertNull(metrics.getMeterRegistry().find("conversion.slides").summary());
+	}
+}
@@ -0,0 +1,72 @@
+package com.ai.projects.spreadsheetToSlides.service.parser;
+
+import com.ai.projects.spreadsheetToSlides.service.SpooledUpload;
+import com.ai.projects.spreadsheetToSlides.service.UploadSpooler;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ParsedWorkbookCacheTests {
+
+	@Test
+	void identicalContentIsParsedOnce() throws Exception {
+		Path spoolDirectory = Files.createTempDirectory("parse-cache");
+		// A 16-byte threshold sends the larger uploads through the hashing file path
+		UploadSpooler spooler = new UploadSpooler(DataSize.ofBytes(16), DataSize.ofMegabytes(1), spoolDirectory.toString());
+		ParsedWorkbookCache cache = new ParsedWorkbookCache(true, DataSize.ofKilobytes(1));
+		AtomicInteger parses = new AtomicInteger();
+
+		String content = "the same workbook bytes, uploaded twice";
+		try (SpooledUpload first = spooler.spool("Q3.xlsx", stream(content));
+			 SpooledUpload second = spooler.spool("Q3 copy.xlsx", stream(content));
+			 SpooledUpload small = spooler.spool("small.xlsx", stream(content.substring(0, 10)))) {
+			Object model = cache.get(first, "metadata", () -> "model " + parses.incrementAndGet(), m -> 100);
+			assertSame(model, cache.get(second, "metadata", () -> "model " + parses.incrementAndGet(), m -> 100));
+			assertEquals(1, parses.get());
+
+			// Another view of the same upload is a separate entry; in-memory uploads hash the same way
+			cache.get(first, "data", () -> "model " + parses.incrementAndGet(), m -> 100);
+			cache.get(small, "metadata", () -> "model " + parses.incrementAndGet(), m -> 100);
+			assertEquals(3, parses.get());
+			assertEquals(3, cache.size());
+			assertEquals(1, cache.getHits());
+		} finally {
+			Files.deleteIfExists(spoolDirectory);
+		}
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedByWeight() throws Exception {
+		UploadSpooler spooler = new UploadSpooler(DataSize.ofMegabytes(1), DataSize.ofMegabytes(1), System.getProperty("java.io.tmpdir"));
+		ParsedWorkbookCache cache = new ParsedWorkbookCache(true, DataSize.ofBytes(1000));
+
+		SpooledUpload a = spooler.spool("a.xlsx", stream("a"));
+		SpooledUpload b = spooler.spool("b.xlsx", stream("b"));
+		SpooledUpload c = spooler.spool("c.xlsx", stream("c"));
+		cache.get(a, "metadata", () -> "a", m -> 400);
+		cache.get(b, "metadata", () -> "b", m -> 400);
+		cache.get(a, "metadata", () -> "a again", m -> 400);
+		cache.get(c, "metadata", () -> "c", m -> 400);
+
+		assertEquals(800, cache.getWeight());
+		assertEquals(1, cache.getEvictions());
+		assertEquals("a", cache.get(a, "metadata", () -> "a reparsed", m -> 400));
+		assertEquals("b reparsed", cache.get(b, "metadata", () -> "b reparsed", m -> 400));
+
+		// Heavier than the whole cache: returned, never stored
+		assertEquals("huge", cache.get(c, "data", () -> "huge", m -> 5000));
+		assertEquals(2, cache.size());
+	}
+
+	private static ByteArrayInputStream stream(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+}
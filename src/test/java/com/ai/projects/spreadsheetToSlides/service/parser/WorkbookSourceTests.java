@@ -0,0 +1,339 @@
+package com.ai.projects.spreadsheetToSlides.service.parser;
+
+import com.ai.projects.spreadsheetToSlides.model.ColumnType;
+import com.ai.projects.spreadsheetToSlides.model.SheetData;
+import com.ai.projects.spreadsheetToSlides.service.SpooledUpload;
+import com.ai.projects.spreadsheetToSlides.service.UploadSpooler;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class WorkbookSourceTests {
+
+	private static byte[] workbookBytes;
+	private static byte[] xlsBytes;
+
+	private final UploadSpooler spooler = new UploadSpooler(DataSize.ofMegabytes(1), DataSize.ofMegabytes(10), System.getProperty("java.io.tmpdir"));
+
+	@BeforeAll
+	static void createWorkbooks() throws Exception {
+		workbookBytes = createWorkbook(new XSSFWorkbook());
+		xlsBytes = createWorkbook(new HSSFWorkbook());
+	}
+
+	private static byte[] createWorkbook(Workbook created) throws Exception {
+		try (Workbook workbook = created) {
+			CellStyle dateStyle = workbook.createCellStyle();
+			dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+
+			Sheet sales = workbook.createSheet("Sales");
+			Row header = sales.createRow(0);
+			header.createCell(0).setCellValue("Region");
+			header.createCell(1).setCellValue("Revenue");
+			header.createCell(3).setCellValue(2024);
+			header.createCell(4).setCellValue("Closed");
+			for (int i = 1; i <= 20; i++) {
+				Row row = sales.createRow(i * 2);
+				row.createCell(0).setCellValue(i % 3 == 0 ? "  North " : "South");
+				row.createCell(1).setCellValue(i * 1.5);
+				row.createCell(2).setCellFormula("B" + (i * 2 + 1) + "*2");
+				row.createCell(3).setCellValue(new Date(1700000000000L + i * 86400000L));
+				row.getCell(3).setCellStyle(dateStyle);
+				row.createCell(4).setCellValue(i % 2 == 0);
+				if (i % 5 == 0) {
+					row.createCell(6).setBlank();
+				}
+			}
+
+			Sheet notes = workbook.createSheet("Notes");
+			notes.createRow(3).createCell(1).setCellValue("starts late");
+			notes.createRow(4);
+
+			workbook.getCreationHelper().createFormulaEvaluator().evaluateAll();
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			workbook.write(out);
+			return out.toByteArray();
+		}
+	}
+
+	@Test
+	void streamingReaderMatchesDomReader() throws Exception {
+		List<String> dom;
+		try (WorkbookSource source = new DomWorkbookSource(OPCPackage.open(new ByteArrayInputStream(workbookBytes)))) {
+			dom = describe(source);
+		}
+		List<String> streaming;
+		try (WorkbookSource source = new StreamingWorkbookSource(OPCPackage.open(new ByteArrayInputStream(workbookBytes)))) {
+			streaming = describe(source);
+		}
+
+		assertFalse(dom.isEmpty());
+		assertEquals(dom, streaming);
+	}
+
+	@Test
+	void headerRowReadsOnlyRowZero() throws Exception {
+		List<String> dom = new ArrayList<>();
+		try (WorkbookSource source = new DomWorkbookSource(OPCPackage.open(new ByteArrayInputStream(workbookBytes)))) {
+			for (SheetSource sheet : source.getSheets()) {
+				SheetRow header = sheet.readHeaderRow();
+				dom.add(header != null ? describe(header) : null);
+			}
+		}
+		List<String> streaming = new ArrayList<>();
+		try (WorkbookSource source = new StreamingWorkbookSource(OPCPackage.open(new ByteArrayInputStream(workbookBytes)))) {
+			for (SheetSource sheet : source.getSheets()) {
+				SheetRow header = sheet.readHeaderRow();
+				streaming.add(header != null ? describe(header) : null);
+			}
+		}
+
+		assertEquals(Arrays.asList("row 0/5: [STRING Region null false] [STRING Revenue null false] [null]"
+				+ " [NUMERIC 2024.0 null false] [STRING Closed null false]", null), dom);
+		assertEquals(dom, streaming);
+	}
+
+	@Test
+	void sheetDataBuilderInfersTypesInOnePass() throws Exception {
+		SheetData sales;
+		try (WorkbookSource source = new StreamingWorkbookSource(OPCPackage.open(new ByteArrayInputStream(workbookBytes)))) {
+			SheetSource sheet = source.getSheets().get(0);
+			SheetDataBuilder builder = new SheetDataBuilder(sheet.getSheetName());
+			sheet.readRows(builder);
+			sales = builder.build();
+		}
+
+		assertEquals(Arrays.asList("Region", "Revenue", "Column3", "2024.0", "Closed"), sales.getHeaders());
+		assertEquals(20, sales.getRowCount());
+		assertEquals(ColumnType.TEXT, sales.getColumns().get(0).getType());
+		assertEquals(ColumnType.NUMERIC, sales.getColumns().get(1).getType());
+		assertEquals(ColumnType.UNKNOWN, sales.getColumns().get(2).getType());
+		assertEquals(ColumnType.NUMERIC, sales.getColumns().get(3).getType());
+		assertEquals(2, sales.getColumns().get(0).getDictionary().size());
+		assertEquals(Arrays.asList("South", "North"), sales.getCategories());
+		assertArrayEquals(new double[]{220.5, 94.5}, sales.getValues());
+		assertTrue(sales.getRowText(0).startsWith("South 1.5 3.0 "));
+		assertTrue(sales.getRowText(0).endsWith(" false"));
+		assertEquals(20, sales.getSeriesData().get("Revenue").length);
+	}
+
+	@Test
+	void hssfEventReaderMatchesWorkbook() throws Exception {
+		List<String> expected = new ArrayList<>();
+		List<String> expectedHeaders = new ArrayList<>();
+		try (HSSFWorkbook workbook = new HSSFWorkbook(new ByteArrayInputStream(xlsBytes))) {
+			SheetRow sheetRow = new SheetRow();
+			for (Sheet sheet : workbook) {
+				expected.add("sheet " + sheet.getSheetName());
+				for (Row row : sheet) {
+					sheetRow.fill(row, false);
+					expected.add(describe(sheetRow));
+				}
+				Row header = sheet.getRow(0);
+				if (header != null) {
+					sheetRow.fill(header, false);
+				}
+				expectedHeaders.add(header != null ? describe(sheetRow) : null);
+			}
+		}
+
+		List<String> events;
+		List<String> headers = new ArrayList<>();
+		try (WorkbookSource source = new HssfWorkbookSource(new POIFSFileSystem(new ByteArrayInputStream(xlsBytes)))) {
+			events = describe(source);
+			for (SheetSource sheet : source.getSheets()) {
+				SheetRow header = sheet.readHeaderRow();
+				headers.add(header != null ? describe(header) : null);
+			}
+		}
+
+		assertEquals(expected, events);
+		assertEquals(expectedHeaders, headers);
+		assertTrue(events.contains("row 4/-1:"));
+	}
+
+	@Test
+	void csvReaderSniffsDialectAndTypesCells() throws Exception {
+		String csv = "Region;Revenue;Closed;Day;Note\r\n"
+				+ "\r\n"
+				+ "South;1,5;TRUE;2024-02-29;\"Said \"\"hi\"\"\r\n on two lines\"\r\n"
+				+ "  Nörth ;-2.5e3;false;2024-03-01 12:00;;\n"
+				+ " \"quoted; text\" ; 007 ;;1900-02-28";
+		List<String> lines;
+		try (SpooledUpload upload = spooler.spool("exports/Sales 2024.csv", new ByteArrayInputStream(csv.getBytes(Charset.forName("windows-1252"))));
+			 WorkbookSource source = new CsvWorkbookSource(upload)) {
+			assertEquals(SpreadsheetFormat.CSV, SpreadsheetFormat.detect(upload));
+			lines = describe(source);
+		}
+
+		assertEquals(Arrays.asList(
+				"sheet Sales 2024",
+				"row 0/5: [STRING Region null false] [STRING Revenue null false] [STRING Closed null false]"
+						+ " [STRING Day null false] [STRING Note null false]",
+				"row 1/5: [STRING South null false] [STRING 1,5 null false] [BOOLEAN TRUE null false]"
+						+ " [NUMERIC 2024-02-29T00:00 null true] [STRING Said \"hi\"\r\n on two lines null false]",
+				"row 2/4: [STRING   Nörth  null false] [NUMERIC -2500.0 null false] [BOOLEAN FALSE null false]"
+						+ " [NUMERIC 2024-03-01T12:00 null true]",
+				"row 3/4: [STRING quoted; text null false] [NUMERIC 7.0 null false] [null] [NUMERIC 1900-02-28T00:00 null true]"),
+				lines);
+	}
+
+	@Test
+	void csvHeaderRowStopsAfterTheFirstRecord() throws Exception {
+		byte[] bom = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+		ByteArrayOutputStream csv = new ByteArrayOutputStream();
+		csv.write(bom);
+		csv.write("Région\tTotal\n".getBytes(StandardCharsets.UTF_8));
+		for (int i = 0; i < 10000; i++) {
+			csv.write(("r" + i + "\t" + i + ".25\n").getBytes(StandardCharsets.UTF_8));
+		}
+		try (SpooledUpload upload = spooler.spool("totals.tsv", new ByteArrayInputStream(csv.toByteArray()));
+			 WorkbookSource source = new CsvWorkbookSource(upload)) {
+			SheetSource sheet = source.getSheets().get(0);
+			assertEquals("row 0/2: [STRING Région null false] [STRING Total null false]", describe(sheet.readHeaderRow()));
+
+			SheetDataBuilder builder = new SheetDataBuilder(sheet.getSheetName());
+			sheet.readRows(builder);
+			SheetData totals = builder.build();
+			assertEquals(10000, totals.getRowCount());
+			assertEquals(ColumnType.NUMERIC, totals.getColumns().get(1).getType());
+		}
+	}
+
+	@Test
+	void binaryUploadsAreRejectedAndTextInAnyEncodingIsCsv() throws Exception {
+		byte[] pdf = "%PDF-1.7\n%\u00e2\u00e3\n1 0 obj\n<< /Type /Catalog >>\nendobj\n".getBytes(StandardCharsets.ISO_8859_1);
+		byte[] binary = new byte[4096];
+		new Random(42).nextBytes(binary);
+		binary[0] = 'R';
+		for (byte[] content : List.of(pdf, binary)) {
+			try (SpooledUpload upload = spooler.spool("upload.csv", new ByteArrayInputStream(content))) {
+				ResponseStatusException rejected = assertThrows(ResponseStatusException.class, () -> SpreadsheetFormat.detect(upload));
+				assertEquals(HttpStatus.UNSUPPORTED_MEDIA_TYPE, rejected.getStatusCode());
+			}
+		}
+
+		String csv = "Region\tRevenue\r\nNorth\t10\r\nSouth\t20\r\n";
+		for (byte[] content : List.of(csv.getBytes(StandardCharsets.UTF_16LE), csv.getBytes(Charset.forName("windows-1252")),
+				("\uFEFF" + csv).getBytes(StandardCharsets.UTF_16BE))) {
+			try (SpooledUpload upload = spooler.spool("upload.txt", new ByteArrayInputStream(content))) {
+				assertEquals(SpreadsheetFormat.CSV, SpreadsheetFormat.detect(upload));
+			}
+		}
+	}
+
+	@Test
+	void corruptFileBackedUploadsLeaveNoOpenHandles() throws Exception {
+		assumeTrue(Files.isDirectory(Path.of("/proc/self/fd")), "needs /proc to list open files");
+		UploadSpooler diskSpooler = new UploadSpooler(DataSize.ofBytes(0), DataSize.ofMegabytes(10), System.getProperty("java.io.tmpdir"));
+
+		// An OOXML package without its workbook part, and an OLE2 file without a Workbook stream
+		ByteArrayOutputStream xlsx = new ByteArrayOutputStream();
+		try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(workbookBytes));
+			 ZipOutputStream out = new ZipOutputStream(xlsx)) {
+			ZipEntry entry;
+			while ((entry = in.getNextEntry()) != null) {
+				if (!entry.getName().equals("xl/workbook.xml")) {
+					out.putNextEntry(new ZipEntry(entry.getName()));
+					in.transferTo(out);
+					out.closeEntry();
+				}
+			}
+		}
+		ByteArrayOutputStream xls = new ByteArrayOutputStream();
+		try (POIFSFileSystem fileSystem = new POIFSFileSystem()) {
+			fileSystem.createDocument(new ByteArrayInputStream(new byte[16]), "Other");
+			fileSystem.writeFilesystem(xls);
+		}
+
+		for (String mode : List.of("streaming", "dom")) {
+			SpreadsheetReader reader = new SpreadsheetReader();
+			ReflectionTestUtils.setField(reader, "parserMode", mode);
+			for (SpooledUpload upload : List.of(diskSpooler.spool("corrupt.xlsx", new ByteArrayInputStream(xlsx.toByteArray())),
+					diskSpooler.spool("corrupt.xls", new ByteArrayInputStream(xls.toByteArray())))) {
+				try (upload) {
+					assertThrows(Exception.class, () -> reader.open(upload).close());
+					assertEquals(0, openHandles(upload.getFile()), mode + " " + upload.getFilename());
+				}
+			}
+		}
+	}
+
+	private static long openHandles(Path file) throws Exception {
+		long handles = 0;
+		try (DirectoryStream<Path> descriptors = Files.newDirectoryStream(Path.of("/proc/self/fd"))) {
+			for (Path descriptor : descriptors) {
+				try {
+					if (Files.readSymbolicLink(descriptor).equals(file)) {
+						handles++;
+					}
+				} catch (IOException ignored) {
+					// Closed while listing
+				}
+			}
+		}
+		return handles;
+	}
+
+	private static List<String> describe(WorkbookSource source) throws Exception {
+		List<String> lines = new ArrayList<>();
+		for (SheetSource sheet : source.getSheets()) {
+			lines.add("sheet " + sheet.getSheetName());
+			sheet.readRows(row -> lines.add(describe(row)));
+		}
+		return lines;
+	}
+
+	private static String describe(SheetRow row) {
+		StringBuilder line = new StringBuilder("row " + row.getRowNum() + "/" + row.getLastCellNum() + ":");
+		for (int i = 0; i < row.getLastCellNum(); i++) {
+			line.append(" [").append(row.getCellType(i));
+			if (row.hasCell(i)) {
+				// Dates as local date-times, so the expectations do not depend on the default locale
+				line.append(' ').append(row.isDateFormatted(i) && row.getCellType(i) == CellType.NUMERIC
+								? DateUtil.getLocalDateTime(row.getNumericValue(i), row.isDate1904()) : row.toString(i))
+						.append(' ').append(row.getCachedFormulaResultType(i))
+						.append(' ').append(row.isDateFormatted(i));
+			}
+			line.append(']');
+		}
+		return line.toString();
+	}
+}
@@ -0,0 +1,115 @@
+package com.ai.projects.spreadsheetToSlides.service.pipeline;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StageExecutorsTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final StageExecutors executors = new StageExecutors("parse=1,render=1,emit=1", "parse=1,render=1,emit=1", Duration.ofMillis(200), meterRegistry);
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	// Shutdown waits for the blocked tasks to finish once released, rather than interrupting them
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		executors.shutdown();
+	}
+
+	@Test
+	void fullAdmissionStageIsRejectedAndReported() throws Exception {
+		CountDownLatch running = new CountDownLatch(1);
+		Mono<String> busy = executors.run(PipelineStage.PARSE, () -> {
+			running.countDown();
+			release.await();
+			return "busy";
+		});
+		busy.subscribe();
+		assertTrue(running.await(5, TimeUnit.SECONDS));
+		Mono<String> queued = executors.run(PipelineStage.PARSE, () -> "queued");
+		queued.subscribe();
+
+		assertEquals(1.0, meterRegistry.get("conversion.pipeline.saturation").tag("stage", "parse").gauge().value());
+		assertEquals(1.0, meterRegistry.get("conversion.pipeline.active").tag("stage", "parse").gauge().value());
+		StageSaturatedException saturated = assertThrows(StageSaturatedException.class,
+				() -> executors.run(PipelineStage.PARSE, () -> "rejected").block());
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, saturated.getStatusCode());
+		assertEquals(1, executors.getRejected(PipelineStage.PARSE));
+
+		// Other stages keep their own threads
+		assertEquals("profiled", executors.run(PipelineStage.PROFILE, () -> "profiled").block(Duration.ofSeconds(5)));
+	}
+
+	@Test
+	void acceptedWorkWaitsForAdmission() throws Exception {
+		CountDownLatch running = new CountDownLatch(1);
+		executors.run(PipelineStage.PARSE, () -> {
+			running.countDown();
+			release.await();
+			return "busy";
+		}).subscribe();
+		assertTrue(running.await(5, TimeUnit.SECONDS));
+		executors.run(PipelineStage.PARSE, () -> "queued").subscribe();
+
+		Mono<String> job = executors.run(PipelineStage.PARSE, () -> "parsed")
+				.contextWrite(StageExecutors.waitForAdmission(Duration.ofSeconds(5)))
+				.cache();
+		job.subscribe();
+		Thread.sleep(100);
+		assertEquals(1.0, meterRegistry.get("conversion.pipeline.waiting").tag("stage", "parse").gauge().value());
+
+		release.countDown();
+		assertEquals("parsed", job.block(Duration.ofSeconds(5)));
+	}
+
+	@Test
+	void stagesAfterTheLlmCallWaitForRoom() throws Exception {
+		CountDownLatch running = new CountDownLatch(1);
+		executors.run(PipelineStage.RENDER, () -> {
+			running.countDown();
+			release.await();
+			return "busy";
+		}).subscribe();
+		assertTrue(running.await(5, TimeUnit.SECONDS));
+		executors.run(PipelineStage.RENDER, () -> "queued").subscribe();
+
+		Mono<String> waiting = executors.run(PipelineStage.RENDER, () -> "rendered").cache();
+		waiting.subscribe();
+		Thread.sleep(100);
+		assertEquals(1, executors.getRejected(PipelineStage.RENDER));
+		assertEquals(1.0, meterRegistry.get("conversion.pipeline.waiting").tag("stage", "render").gauge().value());
+
+		// Handed over as soon as the queued task starts, without polling
+		release.countDown();
+		assertEquals("rendered", waiting.block(Duration.ofSeconds(5)));
+		assertEquals(1, executors.getRejected(PipelineStage.RENDER));
+	}
+
+	@Test
+	void waitingPastTheHandoffTimeoutFailsWithServiceUnavailable() throws Exception {
+		CountDownLatch running = new CountDownLatch(1);
+		executors.run(PipelineStage.EMIT, () -> {
+			running.countDown();
+			release.await();
+			return "busy";
+		}).subscribe();
+		assertTrue(running.await(5, TimeUnit.SECONDS));
+		executors.run(PipelineStage.EMIT, () -> "queued").subscribe();
+
+		StageSaturatedException saturated = assertThrows(StageSaturatedException.class,
+				() -> executors.run(PipelineStage.EMIT, () -> "emitted").block(Duration.ofSeconds(5)));
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, saturated.getStatusCode());
+		assertEquals(0.0, meterRegistry.get("conversion.pipeline.waiting").tag("stage", "emit").gauge().value());
+	}
+}
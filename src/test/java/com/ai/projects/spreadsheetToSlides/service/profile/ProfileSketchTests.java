@@ -0,0 +1,39 @@
+package com.ai.projects.spreadsheetToSlides.service.profile;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProfileSketchTests {
+
+	@Test
+	void quantileSketchStaysWithinRankError() {
+		QuantileSketch sketch = new QuantileSketch(128);
+		int n = 200_000;
+		for (int i = 0; i < n; i++) {
+			// Interleave so the input is not sorted
+			sketch.add((i * 7919L) % n);
+		}
+
+		assertEquals(n, sketch.getCount());
+		assertEquals(0.25 * n, sketch.quantile(0.25), 0.02 * n);
+		assertEquals(0.5 * n, sketch.quantile(0.5), 0.02 * n);
+		assertEquals(0.75 * n, sketch.quantile(0.75), 0.02 * n);
+	}
+
+	@Test
+	void topKCounterKeepsHeavyHitters() {
+		TopKCounter counter = new TopKCounter(8);
+		for (int i = 0; i < 10_000; i++) {
+			counter.add(i % 2 == 0 ? "North" : i % 3 == 0 ? "South" : "other-" + i);
+		}
+
+		List<Map.Entry<String, Long>> top = counter.top(2);
+		assertEquals("North", top.get(0).getKey());
+		assertEquals("South", top.get(1).getKey());
+		assertEquals(8, counter.size());
+	}
+}
@@ -0,0 +1,51 @@
+package com.ai.projects.spreadsheetToSlides.service.slides;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChartDownsamplerTests {
+
+	@Test
+	void topNSumsRepeatedCategoriesAndFoldsTheTail() {
+		List<String> categories = List.of("North", "South", "North", "East", "West", "South", "Central");
+		double[] values = {10, 5, 20, 1, 2, 5, 3};
+
+		ChartDownsampler.Series small = ChartDownsampler.topN(categories, values, 5);
+		assertArrayEquals(new String[]{"North", "South", "East", "West", "Central"}, small.getCategories());
+		assertArrayEquals(new double[]{30, 10, 1, 2, 3}, small.getValues());
+
+		ChartDownsampler.Series folded = ChartDownsampler.topN(categories, values, 3);
+		assertArrayEquals(new String[]{"North", "South", ChartDownsampler.OTHER}, folded.getCategories());
+		assertArrayEquals(new double[]{30, 10, 6}, folded.getValues());
+	}
+
+	@Test
+	void lttbKeepsEndpointsAndExtremes() {
+		int n = 10_000;
+		double[] values = new double[n];
+		for (int i = 0; i < n; i++) {
+			values[i] = Math.sin(i / 500.0);
+		}
+		values[4321] = 50;
+		values[7777] = -50;
+		List<String> categories = IntStream.range(0, n).mapToObj(String::valueOf).collect(Collectors.toList());
+
+		ChartDownsampler.Series series = ChartDownsampler.lttb(categories, values, 100);
+		assertEquals(100, series.size());
+		assertEquals("0", series.getCategories()[0]);
+		assertEquals(String.valueOf(n - 1), series.getCategories()[99]);
+		List<String> kept = List.of(series.getCategories());
+		assertTrue(kept.contains("4321"));
+		assertTrue(kept.contains("7777"));
+		for (int i = 1; i < series.size(); i++) {
+			assertTrue(Integer.parseInt(series.getCategories()[i]) > Integer.parseInt(series.getCategories()[i - 1]));
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package com.ai.projects.spreadsheetToSlides.service.slides;
+
+import org.apache.poi.xddf.usermodel.chart.XDDFChartData;
+import org.apache.poi.xslf.usermodel.XMLSlideShow;
+import org.apache.poi.xslf.usermodel.XSLFChart;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ChartRendererTests {
+
+	@Test
+	void chartsStayWithinThePointBudget() throws Exception {
+		List<String> categories = new ArrayList<>();
+		double[] values = new double[20_000];
+		for (int i = 0; i < values.length; i++) {
+			categories.add("Row " + i);
+			values[i] = i % 97;
+		}
+		ChartRenderer renderer = new ChartRenderer(12, 200);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (XMLSlideShow ppt = new XMLSlideShow()) {
+			renderer.render(ppt.createSlide(), "bar", "Revenue", categories, values);
+			renderer.render(ppt.createSlide(), "line", "Revenue", categories, values);
+			renderer.render(ppt.createSlide(), "pie", "Revenue", categories, values);
+			ppt.write(out);
+		}
+
+		try (XMLSlideShow ppt = new XMLSlideShow(new ByteArrayInputStream(out.toByteArray()))) {
+			List<XSLFChart> charts = ppt.getCharts();
+			assertEquals(3, charts.size());
+			assertEquals(12, pointCount(charts.get(0)));
+			assertEquals(200, pointCount(charts.get(1)));
+			assertEquals(12, pointCount(charts.get(2)));
+		}
+	}
+
+	private static int pointCount(XSLFChart chart) {
+		XDDFChartData data = chart.getChartSeries().get(0);
+		return data.getSeries(0).getCategoryData().getPointCount();
+	}
+}
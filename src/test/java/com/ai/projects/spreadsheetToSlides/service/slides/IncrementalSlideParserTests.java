@@ -0,0 +1,96 @@
+package com.ai.projects.spreadsheetToSlides.service.slides;
+
+import com.ai.projects.spreadsheetToSlides.model.SlideData;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncrementalSlideParserTests {
+
+	private static final String RESPONSE = "## Overview\n- Revenue is up\n* Costs are flat\n\n"
+			+ "Regional split\nUse a pie chart for this\n• North leads\n\n\n"
+			+ "# Trend\nline chart of monthly revenue\n\n"
+			+ "  ###   Costs # by region \r\n-\t  Rent\r\n  *Wages  \n--- Twice marked\nA BAR CHART\n\n"
+			+ "Empty slide\n";
+
+	@Test
+	void slidesAreEmittedAsSoonAsTheirSectionIsComplete() {
+		IncrementalSlideParser parser = new IncrementalSlideParser();
+
+		assertTrue(parser.accept("## Overview\n- Revenue is up\n").isEmpty());
+		assertTrue(parser.accept("* Costs are flat\n").isEmpty());
+		List<SlideData> first = parser.accept("\nRegional");
+		assertEquals(1, first.size());
+		assertEquals("Overview", first.get(0).getTitle());
+		assertEquals(List.of("Revenue is up", "Costs are flat"), first.get(0).getContent());
+	}
+
+	@Test
+	void chunkedParsingMatchesBatchSplit() {
+		List<String> expected = describe(batchParse(RESPONSE));
+
+		for (int chunkSize = 1; chunkSize <= RESPONSE.length(); chunkSize++) {
+			IncrementalSlideParser parser = new IncrementalSlideParser();
+			List<SlideData> slides = new ArrayList<>();
+			for (int i = 0; i < RESPONSE.length(); i += chunkSize) {
+				slides.addAll(parser.accept(RESPONSE.substring(i, Math.min(RESPONSE.length(), i + chunkSize))));
+			}
+			slides.addAll(parser.finish());
+			assertEquals(expected, describe(slides), "chunk size " + chunkSize);
+		}
+	}
+
+	@Test
+	void emptyResponseFallsBackToSummarySlide() {
+		List<SlideData> slides = IncrementalSlideParser.parse("\n\n  \n\n");
+		assertEquals(1, slides.size());
+		assertEquals("Data Summary", slides.get(0).getTitle());
+		assertEquals("pie", slides.get(0).getChartType());
+	}
+
+	// The original split-and-regex parser the tokenizer has to stay compatible with
+	private static List<SlideData> batchParse(String response) {
+		List<SlideData> slides = new ArrayList<>();
+		for (String section : response.split("\\n\\n")) {
+			if (section.trim().isEmpty()) {
+				continue;
+			}
+			String[] lines = section.split("\\n");
+			SlideData slide = new SlideData();
+			slide.setTitle(lines[0].replaceAll("^#+\\s*", "").trim());
+			List<String> content = new ArrayList<>();
+			String chartType = null;
+			for (int i = 1; i < lines.length; i++) {
+				String line = lines[i].trim();
+				if (line.isEmpty()) {
+					continue;
+				}
+				if (line.toLowerCase().contains("pie chart")) {
+					chartType = "pie";
+				} else if (line.toLowerCase().contains("bar chart")) {
+					chartType = "bar";
+				} else if (line.toLowerCase().contains("line chart")) {
+					chartType = "line";
+				} else {
+					content.add(line.replaceAll("^[•\\-\\*]\\s*", ""));
+				}
+			}
+			slide.setContent(content.isEmpty() ? List.of("No content available") : content);
+			slide.setChartType(chartType);
+			slides.add(slide);
+		}
+		return slides;
+	}
+
+	private static List<String> describe(List<SlideData> slides) {
+		List<String> lines = new ArrayList<>();
+		for (SlideData slide : slides) {
+			lines.add(slide.getTitle() + " | " + slide.getContent() + " | " + slide.getChartType());
+		}
+		return lines;
+	}
+}
@@ -0,0 +1,66 @@
+package com.ai.projects.spreadsheetToSlides.service.slides;
+
+import com.ai.projects.spreadsheetToSlides.model.SlideData;
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonSlideParserTests {
+
+	private static final String RESPONSE = "```json\n{\"slides\": [\n"
+			+ "{\"title\": \"Overview\", \"bullets\": [\"Revenue is up\", \"Costs are flat\"], \"chartType\": null, \"series\": null},\n"
+			+ "{\"title\": \"Revenue by region\", \"notes\": {\"ignored\": [1, 2]}, \"bullets\": [\"North leads — by 12%\"],"
+			+ " \"chartType\": \"Bar\", \"series\": \"Revenue\"},\n"
+			+ "{\"title\": \"Mix\", \"bullets\": [], \"chartType\": \"scatter\"}\n"
+			+ "]}\n```\n";
+
+	private final JsonFactory jsonFactory = new JsonFactory();
+
+	@Test
+	void slidesAreEmittedAsSoonAsTheirObjectCloses() {
+		JsonSlideParser parser = new JsonSlideParser(jsonFactory);
+
+		assertTrue(parser.accept("Here you go: {\"slides\": [{\"title\": \"Overview\", \"bullets\": [\"Revenue").isEmpty());
+		List<SlideData> first = parser.accept(" is up\"]}, {\"title\"");
+		assertEquals(1, first.size());
+		assertEquals("Overview", first.get(0).getTitle());
+		assertEquals(List.of("Revenue is up"), first.get(0).getContent());
+	}
+
+	@Test
+	void chunkedParsingReadsTheSchema() {
+		for (int chunkSize = 1; chunkSize <= RESPONSE.length(); chunkSize++) {
+			JsonSlideParser parser = new JsonSlideParser(jsonFactory);
+			List<SlideData> slides = new ArrayList<>();
+			for (int i = 0; i < RESPONSE.length(); i += chunkSize) {
+				slides.addAll(parser.accept(RESPONSE.substring(i, Math.min(RESPONSE.length(), i + chunkSize))));
+			}
+			slides.addAll(parser.finish());
+
+			assertEquals(3, slides.size(), "chunk size " + chunkSize);
+			assertNull(slides.get(0).getChartType());
+			assertEquals(List.of("North leads — by 12%"), slides.get(1).getContent());
+			assertEquals("bar", slides.get(1).getChartType());
+			assertEquals("Revenue", slides.get(1).getChartSeries());
+			// Unknown chart kinds draw no chart, empty slides get the placeholder bullet
+			assertNull(slides.get(2).getChartType());
+			assertEquals(List.of("No content available"), slides.get(2).getContent());
+		}
+	}
+
+	@Test
+	void responseThatIsNotJsonIsReadAsText() {
+		List<SlideData> slides = JsonSlideParser.parse(jsonFactory, "## Overview\n- Revenue is up\nbar chart of revenue\n");
+
+		assertEquals(1, slides.size());
+		assertEquals("Overview", slides.get(0).getTitle());
+		assertEquals(List.of("Revenue is up"), slides.get(0).getContent());
+		assertEquals("bar", slides.get(0).getChartType());
+	}
+}
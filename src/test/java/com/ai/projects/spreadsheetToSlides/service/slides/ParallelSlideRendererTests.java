@@ -0,0 +1,57 @@
+package com.ai.projects.spreadsheetToSlides.service.slides;
+
+import org.apache.poi.xslf.usermodel.XMLSlideShow;
+import org.apache.poi.xslf.usermodel.XSLFSlide;
+import org.apache.poi.xslf.usermodel.XSLFTextBox;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Rectangle;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParallelSlideRendererTests {
+
+	private static final BiConsumer<XSLFSlide, String> RENDERER = (slide, text) -> {
+		XSLFTextBox box = slide.createTextBox();
+		box.setAnchor(new Rectangle(50, 20, 600, 60));
+		box.addNewTextParagraph().addNewTextRun().setText(text);
+		slide.createTextBox().addNewTextParagraph().addNewTextRun().setText("• " + text.toUpperCase());
+	};
+
+	@Test
+	void parallelDeckMatchesSerialDeck() throws Exception {
+		List<String> slides = IntStream.range(0, 23).mapToObj(i -> "Slide " + i).collect(Collectors.toList());
+		ParallelSlideRenderer serial = new ParallelSlideRenderer(1, 1);
+		ParallelSlideRenderer parallel = new ParallelSlideRenderer(4, 1);
+		try (XMLSlideShow expected = serial.render(slides, RENDERER);
+			 XMLSlideShow actual = parallel.render(slides, RENDERER)) {
+			assertEquals(23, actual.getSlides().size());
+			for (int i = 0; i < slides.size(); i++) {
+				XSLFSlide slide = actual.getSlides().get(i);
+				assertEquals(expected.getSlides().get(i).getXmlObject().xmlText(), slide.getXmlObject().xmlText());
+				// Shapes are read from the assembled tree, not a stale cache
+				assertEquals(2, slide.getShapes().size());
+				assertEquals("Slide " + i, ((XSLFTextBox) slide.getShapes().get(0)).getText());
+			}
+			assertArrayEquals(slideParts(expected), slideParts(actual));
+		} finally {
+			serial.shutdown();
+			parallel.shutdown();
+		}
+	}
+
+	// The slide parts as written, which must not depend on the thread count
+	private static byte[] slideParts(XMLSlideShow ppt) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (XSLFSlide slide : ppt.getSlides()) {
+			slide.getXmlObject().save(out);
+		}
+		return out.toByteArray();
+	}
+}